@@ -0,0 +1,81 @@
+USE tms_db;
+
+/*
+ Секционирование comments по месяцам created_at. Выполняется один раз: таблица перестраивается сразу
+ с партициями от месяца самого старого комментария до трех месяцев вперед и пустой pmax, затем приложение
+ с comments.partitioning.enabled=true только отделяет от pmax следующие месяцы.
+
+ MySQL не поддерживает внешние ключи в секционированных таблицах, а столбец секционирования должен входить
+ в первичный ключ. Поэтому каскадное удаление комментариев заменено триггерами. Каскады внешних ключей
+ триггеры не вызывают, поэтому триггер есть на каждой таблице, удаление из которой каскадно удаляет задачи:
+ tasks, projects и users (вместе с проектами пользователя). Задачи, проекты и пользователи должны удаляться
+ только прямым DELETE из этих таблиц.
+ */
+
+ALTER TABLE comments
+    DROP FOREIGN KEY comments_ibfk_1,
+    DROP FOREIGN KEY comments_ibfk_2;
+
+ALTER TABLE comments
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+DELIMITER $$
+
+CREATE PROCEDURE partition_comments_by_month(IN months_ahead INT)
+BEGIN
+    DECLARE from_month DATE DEFAULT DATE_FORMAT(COALESCE((SELECT MIN(created_at) FROM comments), NOW()), '%Y-%m-01');
+    DECLARE until_month DATE DEFAULT DATE_FORMAT(NOW() + INTERVAL months_ahead MONTH, '%Y-%m-01');
+    DECLARE definitions TEXT DEFAULT '';
+
+    WHILE from_month <= until_month
+        DO
+            SET definitions = CONCAT(definitions, 'PARTITION p', DATE_FORMAT(from_month, '%Y%m'),
+                                     ' VALUES LESS THAN (''', from_month + INTERVAL 1 MONTH, '''), ');
+            SET from_month = from_month + INTERVAL 1 MONTH;
+        END WHILE;
+
+    SET @partitioning = CONCAT('ALTER TABLE comments PARTITION BY RANGE COLUMNS (created_at) (', definitions,
+                               'PARTITION pmax VALUES LESS THAN (MAXVALUE))');
+    PREPARE partitioning FROM @partitioning;
+    EXECUTE partitioning;
+    DEALLOCATE PREPARE partitioning;
+END; $$
+
+DELIMITER ;
+
+CALL partition_comments_by_month(3);
+
+DROP PROCEDURE partition_comments_by_month;
+
+DELIMITER $$
+
+CREATE TRIGGER before_task_delete_comments
+    BEFORE DELETE
+    ON tasks
+    FOR EACH ROW
+BEGIN
+    DELETE FROM comments WHERE task_id = OLD.id;
+END; $$
+
+CREATE TRIGGER before_user_delete_comments
+    BEFORE DELETE
+    ON users
+    FOR EACH ROW
+    FOLLOWS before_user_delete
+BEGIN
+    DELETE FROM comments WHERE author_id = OLD.id;
+    DELETE FROM comments WHERE task_id IN (SELECT id FROM tasks WHERE author_id = OLD.id);
+    DELETE FROM comments
+    WHERE task_id IN (SELECT t.id FROM tasks t JOIN projects p ON p.id = t.project_id WHERE p.author_id = OLD.id);
+END; $$
+
+CREATE TRIGGER before_project_delete_comments
+    BEFORE DELETE
+    ON projects
+    FOR EACH ROW
+BEGIN
+    DELETE FROM comments WHERE task_id IN (SELECT id FROM tasks WHERE project_id = OLD.id);
+END; $$
+
+DELIMITER ;
@@ -7,4 +7,10 @@ INSERT INTO users (email, password, role) VALUES
     ('user3@test.ru', '$2a$10$st6KaLrhWiFAw6mA3vSVseVDwAHCIJrOSyqvqs75f5Kbno8SAF2rW', 'USER'), /* password = 12345zxC! */
     ('admin2@test.ru', '$2a$10$rE8zT/MhlQlwRAFqoeSoAOXxnopkdVxXBJ/1Tgu8ws9dujqOsU1j.', 'ADMIN'), /* password = 87654321cxZ! */
     ('user4@test.ru', '$2a$10$st6KaLrhWiFAw6mA3vSVseVDwAHCIJrOSyqvqs75f5Kbno8SAF2rW', 'USER'); /* password = 12345zxC! */
-;
\ No newline at end of file
+;
+
+INSERT INTO projects (name, author_id, created_at, updated_at) VALUES
+    ('Демо', 1, NOW(), NOW());
+
+INSERT INTO project_members (project_id, user_id)
+SELECT 1, id FROM users;
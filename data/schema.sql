@@ -12,18 +12,54 @@ CREATE TABLE users
     CONSTRAINT email UNIQUE (email)
 );
 
+CREATE TABLE projects
+(
+    id         BIGINT AUTO_INCREMENT
+        PRIMARY KEY,
+    name       VARCHAR(255) NOT NULL,
+    author_id  INT          NOT NULL,
+    created_at DATETIME     NOT NULL,
+    updated_at DATETIME     NOT NULL,
+    CONSTRAINT projects_users_id_fk
+        FOREIGN KEY (author_id) REFERENCES users (id)
+            ON UPDATE CASCADE ON DELETE CASCADE
+);
+
+CREATE TABLE project_members
+(
+    project_id BIGINT NOT NULL,
+    user_id    INT    NOT NULL,
+    PRIMARY KEY (project_id, user_id),
+    CONSTRAINT project_members_projects_id_fk
+        FOREIGN KEY (project_id) REFERENCES projects (id)
+            ON UPDATE CASCADE ON DELETE CASCADE,
+    CONSTRAINT project_members_users_id_fk
+        FOREIGN KEY (user_id) REFERENCES users (id)
+            ON UPDATE CASCADE ON DELETE CASCADE
+);
+
+CREATE INDEX project_members_user_id_index ON project_members (user_id);
+
 CREATE TABLE tasks
 (
-    id          BIGINT AUTO_INCREMENT
+    id               BIGINT AUTO_INCREMENT
         PRIMARY KEY,
-    title       VARCHAR(500)                                                             NOT NULL,
-    description TEXT                                                                     NULL,
-    status      ENUM ('NEW', 'WAITING', 'IN_PROGRESS', 'DONE', 'CANCELED') DEFAULT 'NEW' NOT NULL,
-    priority    ENUM ('LOW', 'MEDIUM', 'HIGH', 'CRITICAL')                 DEFAULT 'LOW' NOT NULL,
-    executor_id INT                                                                      NULL,
-    author_id   INT                                                                      NOT NULL,
-    created_at  DATETIME                                                                 NOT NULL,
-    updated_at  DATETIME                                                                 NOT NULL,
+    project_id       BIGINT                                                                   NOT NULL,
+    title            VARCHAR(500)                                                             NOT NULL,
+    description      TEXT                                                                     NULL,
+    status           ENUM ('NEW', 'WAITING', 'IN_PROGRESS', 'DONE', 'CANCELED') DEFAULT 'NEW' NOT NULL,
+    priority         ENUM ('LOW', 'MEDIUM', 'HIGH', 'CRITICAL')                 DEFAULT 'LOW' NOT NULL,
+    executor_id      INT                                                                      NULL,
+    author_id        INT                                                                      NOT NULL,
+    created_at       DATETIME                                                                 NOT NULL,
+    updated_at       DATETIME                                                                 NOT NULL,
+    comment_count    INT      DEFAULT 0                                                       NOT NULL,
+    last_activity_at DATETIME                                                                 NULL,
+    version          BIGINT   DEFAULT 0                                                       NOT NULL,
+    deleted_at       DATETIME                                                                 NULL,
+    CONSTRAINT tasks_projects_id_fk
+        FOREIGN KEY (project_id) REFERENCES projects (id)
+            ON UPDATE CASCADE ON DELETE CASCADE,
     CONSTRAINT tasks_ibfk_2
         FOREIGN KEY (author_id) REFERENCES users (id)
             ON UPDATE CASCADE ON DELETE CASCADE,
@@ -32,15 +68,32 @@ CREATE TABLE tasks
             ON UPDATE CASCADE ON DELETE SET NULL
 );
 
+CREATE INDEX tasks_project_id_status_index ON tasks (project_id, status);
+
+CREATE INDEX tasks_project_id_executor_id_index ON tasks (project_id, executor_id);
+
+CREATE INDEX tasks_project_id_last_activity_at_index ON tasks (project_id, last_activity_at);
+
+CREATE INDEX tasks_project_id_comment_count_index ON tasks (project_id, comment_count);
+
+CREATE INDEX tasks_status_updated_at_index ON tasks (status, updated_at);
+
+CREATE INDEX tasks_deleted_at_index ON tasks (deleted_at);
+
+CREATE INDEX tasks_last_activity_at_index ON tasks (last_activity_at);
+
+CREATE INDEX tasks_comment_count_index ON tasks (comment_count);
+
 CREATE TABLE comments
 (
     id         BIGINT AUTO_INCREMENT
         PRIMARY KEY,
-    task_id    BIGINT       NOT NULL,
-    content    VARCHAR(500) NOT NULL,
-    author_id  INT          NOT NULL,
-    created_at DATETIME     NOT NULL,
-    updated_at DATETIME     NOT NULL,
+    task_id    BIGINT           NOT NULL,
+    content    VARCHAR(500)     NOT NULL,
+    author_id  INT              NOT NULL,
+    created_at DATETIME         NOT NULL,
+    updated_at DATETIME         NOT NULL,
+    version    BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT comments_ibfk_1
         FOREIGN KEY (task_id) REFERENCES tasks (id)
             ON UPDATE CASCADE ON DELETE CASCADE,
@@ -49,6 +102,89 @@ CREATE TABLE comments
             ON UPDATE CASCADE ON DELETE CASCADE
 );
 
+CREATE INDEX comments_task_id_created_at_index ON comments (task_id, created_at);
+
+CREATE TABLE tasks_archive
+(
+    id               BIGINT                                                     NOT NULL
+        PRIMARY KEY,
+    project_id       BIGINT                                                     NOT NULL,
+    title            VARCHAR(500)                                               NOT NULL,
+    description      TEXT                                                       NULL,
+    status           ENUM ('NEW', 'WAITING', 'IN_PROGRESS', 'DONE', 'CANCELED') NOT NULL,
+    priority         ENUM ('LOW', 'MEDIUM', 'HIGH', 'CRITICAL')                 NOT NULL,
+    executor_id      INT                                                        NULL,
+    author_id        INT                                                        NOT NULL,
+    created_at       DATETIME                                                   NOT NULL,
+    updated_at       DATETIME                                                   NOT NULL,
+    comment_count    INT                                                        NOT NULL,
+    last_activity_at DATETIME                                                   NULL,
+    version          BIGINT                                                     NOT NULL,
+    archived_at      DATETIME                                                   NOT NULL
+) ROW_FORMAT = COMPRESSED;
+
+CREATE INDEX tasks_archive_project_id_index ON tasks_archive (project_id);
+
+CREATE INDEX tasks_archive_executor_id_index ON tasks_archive (executor_id);
+
+CREATE INDEX tasks_archive_author_id_index ON tasks_archive (author_id);
+
+CREATE TABLE comments_archive
+(
+    id          BIGINT       NOT NULL
+        PRIMARY KEY,
+    task_id     BIGINT       NOT NULL,
+    content     VARCHAR(500) NOT NULL,
+    author_id   INT          NOT NULL,
+    created_at  DATETIME     NOT NULL,
+    updated_at  DATETIME     NOT NULL,
+    version     BIGINT       NOT NULL,
+    archived_at DATETIME     NOT NULL
+) ROW_FORMAT = COMPRESSED;
+
+CREATE INDEX comments_archive_task_id_index ON comments_archive (task_id);
+
+CREATE TABLE refresh_tokens
+(
+    id         BIGINT AUTO_INCREMENT
+        PRIMARY KEY,
+    token_hash CHAR(64) NOT NULL,
+    user_id    INT      NOT NULL,
+    expires_at DATETIME NOT NULL,
+    CONSTRAINT refresh_tokens_token_hash_uindex UNIQUE (token_hash),
+    CONSTRAINT refresh_tokens_users_id_fk
+        FOREIGN KEY (user_id) REFERENCES users (id)
+            ON UPDATE CASCADE ON DELETE CASCADE
+);
+
+CREATE TABLE revoked_tokens
+(
+    id         CHAR(36) NOT NULL
+        PRIMARY KEY,
+    expires_at DATETIME NOT NULL
+);
+
+CREATE TABLE signing_keys
+(
+    id          CHAR(36) NOT NULL
+        PRIMARY KEY,
+    private_key TEXT     NOT NULL,
+    public_key  TEXT     NOT NULL,
+    created_at  DATETIME NOT NULL
+);
+
+CREATE TABLE task_counters
+(
+    id          BIGINT AUTO_INCREMENT
+        PRIMARY KEY,
+    author_id   INT                                                        NOT NULL,
+    executor_id INT                                                        NOT NULL,
+    status      ENUM ('NEW', 'WAITING', 'IN_PROGRESS', 'DONE', 'CANCELED') NOT NULL,
+    priority    ENUM ('LOW', 'MEDIUM', 'HIGH', 'CRITICAL')                 NOT NULL,
+    task_count  BIGINT                                                     NOT NULL,
+    CONSTRAINT task_counters_group_uindex UNIQUE (author_id, executor_id, status, priority)
+);
+
 DELIMITER $$
 
 CREATE TRIGGER before_user_delete
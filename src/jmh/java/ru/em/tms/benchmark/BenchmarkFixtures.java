@@ -0,0 +1,83 @@
+package ru.em.tms.benchmark;
+
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.em.tms.model.db.Comment;
+import ru.em.tms.model.db.Task;
+import ru.em.tms.model.db.User;
+import ru.em.tms.model.enums.Role;
+import ru.em.tms.model.enums.task.Priority;
+import ru.em.tms.model.enums.task.Status;
+import ru.em.tms.repo.SigningKeyRepo;
+import ru.em.tms.service.util.JwtKeyStore;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+final class BenchmarkFixtures {
+    static final int PAGE_SIZE = 100;
+    static final String MASTER_KEY = "A5C26D3F7B2A48E6F1D4E0A753965F423D6F237E5C1B784E6A3A5F278D635B56";
+    static final LocalDateTime NOW = LocalDateTime.of(2024, 11, 19, 12, 0);
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtKeyStore keyStore() {
+        var repo = mock(SigningKeyRepo.class);
+        when(repo.findAllByCreatedAtAfterOrderByCreatedAtDesc(any())).thenReturn(List.of());
+
+        var keyStore = new JwtKeyStore(repo, TransactionOperations.withoutTransaction());
+        ReflectionTestUtils.setField(keyStore, "masterKey", MASTER_KEY);
+        keyStore.reload();
+
+        return keyStore;
+    }
+
+    static User user(int id) {
+        return User.builder()
+                .id(id)
+                .email("user" + id + "@test.ru")
+                .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z2zjK8rJ8E8Z8XvC3J3Vw1nK")
+                .role(id == 1 ? Role.ADMIN : Role.USER)
+                .build();
+    }
+
+    static List<Task> tasks() {
+        var author = user(1);
+        var executors = IntStream.rangeClosed(2, 6).mapToObj(BenchmarkFixtures::user).toList();
+
+        return IntStream.rangeClosed(1, PAGE_SIZE)
+                .mapToObj(i -> Task.builder()
+                        .id((long) i)
+                        .title("task №" + i)
+                        .description("description of task №" + i)
+                        .status(Status.values()[i % Status.values().length])
+                        .priority(Priority.values()[i % Priority.values().length])
+                        .author(author)
+                        .executor(executors.get(i % executors.size()))
+                        .createdAt(NOW.minusDays(i))
+                        .updatedAt(NOW.minusHours(i))
+                        .build())
+                .toList();
+    }
+
+    static List<Comment> comments() {
+        var task = tasks().getFirst();
+
+        return IntStream.rangeClosed(1, PAGE_SIZE)
+                .mapToObj(i -> Comment.builder()
+                        .id((long) i)
+                        .task(task)
+                        .content("comment №" + i)
+                        .author(user(i % 5 + 1))
+                        .createdAt(NOW.minusMinutes(i))
+                        .updatedAt(NOW.minusMinutes(i))
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.em.tms.benchmark;
+
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import ru.em.tms.lib.filter.JwtAuthenticationFilter;
+import ru.em.tms.repo.RevokedTokenRepo;
+import ru.em.tms.repo.UserRepo;
+import ru.em.tms.service.UserService;
+import ru.em.tms.service.util.JwtService;
+import ru.em.tms.service.util.TokenRevocationService;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        var jwtService = new JwtService(BenchmarkFixtures.keyStore());
+        var user = BenchmarkFixtures.user(1);
+
+        var userRepo = mock(UserRepo.class);
+        when(userRepo.findByEmail(anyString())).thenReturn(Optional.of(user));
+
+        var observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig()
+                .observationHandler(new DefaultMeterObservationHandler(new SimpleMeterRegistry()));
+
+        filter = new JwtAuthenticationFilter(
+                jwtService,
+                new TokenRevocationService(mock(RevokedTokenRepo.class)),
+                new UserService(userRepo, null, null, null),
+                observationRegistry);
+        authorization = JwtAuthenticationFilter.PREFIX + jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authenticated() throws ServletException, IOException {
+        return doFilter(authorization);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse anonymous() throws ServletException, IOException {
+        return doFilter(null);
+    }
+
+    private MockHttpServletResponse doFilter(String authorization) throws ServletException, IOException {
+        var request = new MockHttpServletRequest("GET", "/tasks");
+        if (authorization != null) request.addHeader(JwtAuthenticationFilter.HEADER, authorization);
+        var response = new MockHttpServletResponse();
+
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
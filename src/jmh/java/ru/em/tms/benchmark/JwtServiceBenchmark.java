@@ -0,0 +1,29 @@
+package ru.em.tms.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.em.tms.model.db.User;
+import ru.em.tms.service.util.JwtService;
+
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(BenchmarkFixtures.keyStore());
+        user = BenchmarkFixtures.user(1);
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return jwtService.isTokenValid(token, user);
+    }
+}
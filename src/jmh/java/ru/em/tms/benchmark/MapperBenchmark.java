@@ -0,0 +1,46 @@
+package ru.em.tms.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.em.tms.lib.mapper.*;
+import ru.em.tms.model.db.Comment;
+import ru.em.tms.model.db.Task;
+import ru.em.tms.model.db.User;
+import ru.em.tms.model.dto.comment.CommentGetDTO;
+import ru.em.tms.model.dto.task.TaskGetDTO;
+import ru.em.tms.model.dto.user.UserGetDTO;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    private final TaskMapper taskMapper = new TaskMapperImpl();
+    private final CommentMapper commentMapper = new CommentMapperImpl();
+    private final UserMapper userMapper = new UserMapperImpl();
+
+    private List<Task> tasks;
+    private List<Comment> comments;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchmarkFixtures.tasks();
+        comments = BenchmarkFixtures.comments();
+        users = IntStream.rangeClosed(1, BenchmarkFixtures.PAGE_SIZE).mapToObj(BenchmarkFixtures::user).toList();
+    }
+
+    @Benchmark
+    public List<TaskGetDTO> tasks() {
+        return tasks.stream().map(taskMapper::sourceToDestination).toList();
+    }
+
+    @Benchmark
+    public List<CommentGetDTO> comments() {
+        return comments.stream().map(commentMapper::sourceToDestination).toList();
+    }
+
+    @Benchmark
+    public List<UserGetDTO> users() {
+        return users.stream().map(userMapper::sourceToDestination).toList();
+    }
+}
@@ -0,0 +1,50 @@
+package ru.em.tms.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.em.tms.lib.json.SparseFields;
+import ru.em.tms.lib.mapper.CommentMapperImpl;
+import ru.em.tms.lib.mapper.TaskMapperImpl;
+import ru.em.tms.model.dto.PageableResponse;
+import ru.em.tms.model.dto.comment.CommentGetDTO;
+import ru.em.tms.model.dto.task.TaskGetDTO;
+
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    @Param({"reflection", "blackbird"})
+    private String access;
+
+    private ObjectMapper objectMapper;
+    private PageableResponse<TaskGetDTO> taskPage;
+    private PageableResponse<CommentGetDTO> commentPage;
+
+    @Setup
+    public void setUp() {
+        var builder = Jackson2ObjectMapperBuilder.json().filters(SparseFields.filterProvider());
+        if (access.equals("blackbird")) builder.modulesToInstall(new BlackbirdModule());
+        objectMapper = builder.build();
+
+        var taskMapper = new TaskMapperImpl();
+        taskPage = new PageableResponse<>(BenchmarkFixtures.tasks().stream()
+                .map(taskMapper::sourceToDestination)
+                .toList(), 10, 0, BenchmarkFixtures.PAGE_SIZE);
+
+        var commentMapper = new CommentMapperImpl();
+        commentPage = new PageableResponse<>(BenchmarkFixtures.comments().stream()
+                .map(commentMapper::sourceToDestination)
+                .toList(), 10, 0, BenchmarkFixtures.PAGE_SIZE);
+    }
+
+    @Benchmark
+    public byte[] taskPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(taskPage);
+    }
+
+    @Benchmark
+    public byte[] commentPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(commentPage);
+    }
+}
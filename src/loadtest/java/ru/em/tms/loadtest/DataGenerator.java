@@ -0,0 +1,222 @@
+package ru.em.tms.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Детерминированный генератор тестовых данных. При одинаковых параметрах и {@code --seed}
+ * создаёт одни и те же пользователей, проекты, задачи и комментарии.
+ * <p>
+ * Пример: {@code ./gradlew generateData --args="--tasks=5000000 --comments=40000000"}
+ */
+public class DataGenerator {
+    /**
+     * BCrypt-хэш пароля {@code 12345zxC!}, как в data/data.sql
+     */
+    private static final String PASSWORD = "$2a$10$st6KaLrhWiFAw6mA3vSVseVDwAHCIJrOSyqvqs75f5Kbno8SAF2rW";
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final long PERIOD_SECONDS = 365L * 24 * 60 * 60;
+
+    private final Options options;
+    private final SplittableRandom random;
+    private final int batchSize;
+
+    public DataGenerator(Options options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.number("seed", 42));
+        this.batchSize = options.integer("batch", 1000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = new Options(args);
+
+        try (var connection = DriverManager.getConnection(
+                options.string("url", "jdbc:mysql://localhost:3306/tms_db?rewriteBatchedStatements=true"),
+                options.string("user", "root"),
+                options.string("password", "root"))) {
+            new DataGenerator(options).generate(connection);
+        }
+    }
+
+    public void generate(Connection connection) throws SQLException, IOException {
+        var schema = options.string("schema", null);
+        if (schema != null) executeScript(connection, Path.of(schema));
+
+        connection.setAutoCommit(false);
+
+        var users = options.integer("users", 1_000);
+        var projects = options.integer("projects", 100);
+        var tasks = options.number("tasks", 100_000);
+        var comments = options.number("comments", 800_000);
+
+        var userOffset = (int) maxId(connection, "users");
+        var projectOffset = maxId(connection, "projects");
+        var taskOffset = maxId(connection, "tasks");
+        var commentOffset = maxId(connection, "comments");
+
+        var started = System.nanoTime();
+        insertUsers(connection, userOffset, users);
+        insertProjects(connection, userOffset, users, projectOffset, projects);
+        var inserted = insertTasksAndComments(connection, userOffset, users, projectOffset, projects, taskOffset, tasks,
+                commentOffset, (double) comments / tasks);
+        var seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("Пользователей: %d, проектов: %d, задач: %d, комментариев: %d за %.1f с%n",
+                users, projects, tasks, inserted, seconds);
+    }
+
+    private void insertUsers(Connection connection, int offset, int count) throws SQLException {
+        var adminEvery = options.integer("admin-every", 50);
+
+        try (var statement = connection.prepareStatement(
+                "insert into users (id, email, password, role) values (?, ?, ?, ?)")) {
+            for (int i = 1; i <= count; i++) {
+                var id = offset + i;
+                statement.setInt(1, id);
+                statement.setString(2, "load" + id + "@test.ru");
+                statement.setString(3, PASSWORD);
+                statement.setString(4, i % adminEvery == 1 ? "ADMIN" : "USER");
+                addBatch(connection, statement, i);
+            }
+            flush(connection, statement);
+        }
+    }
+
+    /**
+     * Каждый пользователь участвует в одном проекте, проекты заполняются по очереди
+     */
+    private void insertProjects(Connection connection, int userOffset, int users, long offset, int count) throws SQLException {
+        var now = Timestamp.valueOf(EPOCH);
+
+        try (var statement = connection.prepareStatement(
+                "insert into projects (id, name, author_id, created_at, updated_at) values (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= count; i++) {
+                var id = offset + i;
+                statement.setLong(1, id);
+                statement.setString(2, "Проект №" + id);
+                statement.setInt(3, userOffset + 1);
+                statement.setTimestamp(4, now);
+                statement.setTimestamp(5, now);
+                addBatch(connection, statement, i);
+            }
+            flush(connection, statement);
+        }
+
+        try (var statement = connection.prepareStatement(
+                "insert into project_members (project_id, user_id) values (?, ?)")) {
+            for (int i = 1; i <= users; i++) {
+                statement.setLong(1, offset + 1 + (i - 1) % count);
+                statement.setInt(2, userOffset + i);
+                addBatch(connection, statement, i);
+            }
+            flush(connection, statement);
+        }
+    }
+
+    private long insertTasksAndComments(Connection connection, int userOffset, int users, long projectOffset,
+                                        int projects, long taskOffset, long tasks, long commentOffset,
+                                        double commentsPerTask) throws SQLException {
+        var taskProjects = WeightedChoice.zipf(projects, options.decimal("project-skew", 1.0));
+        var executors = WeightedChoice.zipf(users, options.decimal("executor-skew", 1.1));
+        var authors = WeightedChoice.zipf(users, options.decimal("author-skew", 0.8));
+        var statuses = new WeightedChoice<>(options.weights("statuses",
+                "NEW:20,WAITING:10,IN_PROGRESS:25,DONE:35,CANCELED:10"));
+        var priorities = new WeightedChoice<>(options.weights("priorities",
+                "LOW:40,MEDIUM:35,HIGH:20,CRITICAL:5"));
+        var unassigned = options.decimal("unassigned", 0.05);
+        long commentId = commentOffset;
+
+        try (var taskStatement = connection.prepareStatement("insert into tasks " +
+                "(id, title, description, status, priority, executor_id, author_id, created_at, updated_at, " +
+                "comment_count, last_activity_at, project_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             var commentStatement = connection.prepareStatement("insert into comments " +
+                     "(id, task_id, content, author_id, created_at, updated_at) values (?, ?, ?, ?, ?, ?)")) {
+            for (long i = 1; i <= tasks; i++) {
+                var taskId = taskOffset + i;
+                var createdAt = EPOCH.plusSeconds(random.nextLong(PERIOD_SECONDS));
+                var commentedAt = new LocalDateTime[geometric(commentsPerTask)];
+                var lastActivityAt = createdAt;
+                for (int c = 0; c < commentedAt.length; c++) {
+                    commentedAt[c] = createdAt.plusMinutes(random.nextLong(60L * 24 * 30));
+                    if (commentedAt[c].isAfter(lastActivityAt)) lastActivityAt = commentedAt[c];
+                }
+
+                taskStatement.setLong(1, taskId);
+                taskStatement.setString(2, "Задача №" + taskId);
+                taskStatement.setString(3, ("Описание задачи №" + taskId + ". ").repeat(random.nextInt(1, 6)));
+                taskStatement.setString(4, statuses.next(random));
+                taskStatement.setString(5, priorities.next(random));
+                if (random.nextDouble() < unassigned) taskStatement.setNull(6, Types.INTEGER);
+                else taskStatement.setInt(6, userOffset + executors.next(random));
+                taskStatement.setInt(7, userOffset + authors.next(random));
+                taskStatement.setTimestamp(8, Timestamp.valueOf(createdAt));
+                taskStatement.setTimestamp(9, Timestamp.valueOf(createdAt.plusHours(random.nextInt(0, 24 * 30))));
+                taskStatement.setInt(10, commentedAt.length);
+                taskStatement.setTimestamp(11, Timestamp.valueOf(lastActivityAt));
+                taskStatement.setLong(12, projectOffset + taskProjects.next(random));
+                taskStatement.addBatch();
+
+                for (var at : commentedAt) {
+                    commentStatement.setLong(1, ++commentId);
+                    commentStatement.setLong(2, taskId);
+                    commentStatement.setString(3, "Комментарий №" + commentId + " к задаче №" + taskId);
+                    commentStatement.setInt(4, userOffset + authors.next(random));
+                    commentStatement.setTimestamp(5, Timestamp.valueOf(at));
+                    commentStatement.setTimestamp(6, Timestamp.valueOf(at));
+                    commentStatement.addBatch();
+                }
+
+                if (i % batchSize == 0) {
+                    taskStatement.executeBatch();
+                    commentStatement.executeBatch();
+                    connection.commit();
+                }
+                if (i % 100_000 == 0) System.out.printf("Задач: %d/%d%n", i, tasks);
+            }
+            taskStatement.executeBatch();
+            commentStatement.executeBatch();
+            connection.commit();
+        }
+
+        return commentId - commentOffset;
+    }
+
+    /**
+     * Количество комментариев к задаче с заданным средним: у большинства задач их мало, у части - много
+     */
+    private int geometric(double mean) {
+        if (mean <= 0) return 0;
+        var p = 1 / (mean + 1);
+        return (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+    }
+
+    private void addBatch(Connection connection, PreparedStatement statement, long index) throws SQLException {
+        statement.addBatch();
+        if (index % batchSize == 0) flush(connection, statement);
+    }
+
+    private void flush(Connection connection, PreparedStatement statement) throws SQLException {
+        statement.executeBatch();
+        connection.commit();
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (var statement = connection.createStatement();
+             var result = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private static void executeScript(Connection connection, Path script) throws SQLException, IOException {
+        try (var statement = connection.createStatement()) {
+            for (var sql : Files.readString(script).split(";")) {
+                if (!sql.isBlank()) statement.execute(sql);
+            }
+        }
+    }
+}
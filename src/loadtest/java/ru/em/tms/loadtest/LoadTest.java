@@ -0,0 +1,206 @@
+package ru.em.tms.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Сценарий нагрузочного тестирования: смесь чтения списка и карточки задачи, комментариев и обновлений.
+ * Выводит пропускную способность и перцентили задержек по каждой операции и завершается с ошибкой,
+ * если превышены пороги {@code --max-p99-ms} или {@code --max-error-rate}. Операции с задачами выбирают
+ * идентификаторы из выборки реальных задач ({@code --sample-tasks}), потому что после архивирования, удаления
+ * и на шардах идентификаторы не идут подряд. JWT токен обновляется за минуту до истечения.
+ * <p>
+ * Пример: {@code ./gradlew loadTest --args="--duration=PT2M --concurrency=32"}
+ */
+public class LoadTest {
+    private static final String JSON = "application/json";
+
+    private final Options options;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final int pageSize;
+    private volatile String authorization;
+    private volatile long authorizationExpires;
+    private long[] taskIds;
+    private long pages;
+
+    public LoadTest(Options options) {
+        this.options = options;
+        this.baseUrl = options.string("base-url", "http://localhost:8080");
+        this.pageSize = options.integer("page-size", 50);
+    }
+
+    public static void main(String[] args) throws Exception {
+        var report = new LoadTest(new Options(args)).run();
+        System.exit(report.passed() ? 0 : 1);
+    }
+
+    public Report run() throws Exception {
+        login();
+        sampleTasks(options.integer("sample-tasks", 10_000));
+        if (taskIds.length == 0) throw new IllegalStateException("Нет задач для нагрузки, запустите generateData");
+
+        var mix = new WeightedChoice<>(options.weights("mix", "list:50,detail:25,comments:10,comment:10,update:5"));
+        var concurrency = options.integer("concurrency", 16);
+        var seed = options.number("seed", 42);
+
+        System.out.printf("Задач в выборке: %d, страниц: %d, потоков: %d%n", taskIds.length, pages, concurrency);
+        execute(mix, concurrency, seed, options.duration("warmup", Duration.ofSeconds(10)));
+        var duration = options.duration("duration", Duration.ofMinutes(1));
+        var results = execute(mix, concurrency, seed, duration);
+
+        var report = new Report(results, duration,
+                options.integer("max-p99-ms", 0),
+                options.decimal("max-error-rate", 0.01));
+        report.print();
+        return report;
+    }
+
+    private Map<String, Recorder> execute(WeightedChoice<String> mix, int concurrency, long seed,
+                                          Duration duration) throws Exception {
+        var deadline = System.nanoTime() + duration.toNanos();
+        var results = new TreeMap<String, Recorder>();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var workers = new ArrayList<Future<Map<String, Recorder>>>();
+            for (int i = 0; i < concurrency; i++) {
+                var random = new SplittableRandom(seed + i);
+                workers.add(executor.submit(() -> work(mix, random, deadline)));
+            }
+            for (var worker : workers) {
+                worker.get().forEach((operation, recorder) ->
+                        results.computeIfAbsent(operation, o -> new Recorder()).merge(recorder));
+            }
+        }
+
+        return results;
+    }
+
+    private Map<String, Recorder> work(WeightedChoice<String> mix, SplittableRandom random, long deadline) {
+        var recorders = new HashMap<String, Recorder>();
+
+        while (System.nanoTime() < deadline) {
+            var operation = mix.next(random);
+            var taskId = taskIds[random.nextInt(taskIds.length)];
+            var recorder = recorders.computeIfAbsent(operation, o -> new Recorder());
+
+            try {
+                var request = switch (operation) {
+                    case "list" -> get("/tasks?size=" + pageSize + "&page=" + random.nextLong(Math.min(pages, 100)));
+                    case "detail" -> get("/tasks/" + taskId);
+                    case "comments" -> get("/tasks/" + taskId + "/comments");
+                    case "comment" -> send("POST", "/tasks/" + taskId + "/comments",
+                            mapper.createObjectNode().put("content", "Нагрузочный комментарий"));
+                    case "update" -> update(taskId, random);
+                    case "delete" -> request("/tasks/" + taskId).DELETE().build();
+                    default -> throw new IllegalArgumentException("Неизвестная операция: " + operation);
+                };
+                if (request == null) {
+                    recorder.error();
+                    continue;
+                }
+
+                var started = System.nanoTime();
+                var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                recorder.record(System.nanoTime() - started, response.statusCode() < 400);
+            } catch (IOException e) {
+                recorder.error();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        return recorders;
+    }
+
+    private HttpRequest update(long taskId, SplittableRandom random) throws IOException, InterruptedException {
+        var current = client.send(get("/tasks/" + taskId), HttpResponse.BodyHandlers.ofString());
+        if (current.statusCode() >= 400) return null;
+
+        var task = mapper.readTree(current.body());
+        var statuses = List.of("NEW", "WAITING", "IN_PROGRESS", "DONE", "CANCELED");
+        var body = mapper.createObjectNode()
+                .put("title", task.path("title").asText())
+                .put("description", task.path("description").asText(null))
+                .put("status", statuses.get(random.nextInt(statuses.size())))
+                .put("priority", task.path("priority").asText())
+                .set("executor_id", task.path("executor_id").isNull()
+                        ? task.path("author_id")
+                        : task.path("executor_id"));
+
+        return send("PUT", "/tasks/" + taskId, body);
+    }
+
+    private synchronized void login() throws IOException, InterruptedException {
+        var body = mapper.createObjectNode()
+                .put("email", options.string("email", "admin1@test.ru"))
+                .put("password", options.string("password", "87654321cxZ!"));
+        var response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200)
+            throw new IllegalStateException("Не удалось войти: " + response.statusCode() + " " + response.body());
+
+        var jwt = mapper.readTree(response.body()).path("jwt").asText();
+        var claims = mapper.readTree(Base64.getUrlDecoder().decode(jwt.split("\\.")[1]));
+        authorizationExpires = claims.path("exp").asLong() * 1000;
+        authorization = "Bearer " + jwt;
+    }
+
+    private String authorization() throws IOException, InterruptedException {
+        if (System.currentTimeMillis() > authorizationExpires - 60_000) {
+            synchronized (this) {
+                if (System.currentTimeMillis() > authorizationExpires - 60_000) login();
+            }
+        }
+        return authorization;
+    }
+
+    /**
+     * Собирает идентификаторы задач со страниц списка, пока не наберется {@code limit}.
+     */
+    private void sampleTasks(int limit) throws IOException, InterruptedException {
+        var ids = new ArrayList<Long>();
+        for (var page = 0L; ids.size() < limit; page++) {
+            var response = client.send(get("/tasks?fields=id&size=" + pageSize + "&page=" + page),
+                    HttpResponse.BodyHandlers.ofString());
+            JsonNode body = mapper.readTree(response.body());
+            pages = Math.max(1, body.path("total_pages").asLong());
+            body.path("result").forEach(task -> ids.add(task.path("id").asLong()));
+            if (page + 1 >= pages) break;
+        }
+        taskIds = ids.stream().limit(limit).mapToLong(Long::longValue).toArray();
+    }
+
+    private HttpRequest get(String path) throws IOException, InterruptedException {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, JsonNode body) throws IOException, InterruptedException {
+        return request(path).method(method, HttpRequest.BodyPublishers.ofString(body.toString())).build();
+    }
+
+    private HttpRequest.Builder request(String path) throws IOException, InterruptedException {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", JSON)
+                .header("Accept", JSON)
+                .header("Authorization", authorization());
+    }
+}
@@ -0,0 +1,52 @@
+package ru.em.tms.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class Options {
+    private final Map<String, String> values = new HashMap<>();
+
+    Options(String[] args) {
+        for (var arg : args) {
+            if (!arg.startsWith("--")) throw new IllegalArgumentException("Неверный аргумент: " + arg);
+
+            var separator = arg.indexOf('=');
+            if (separator < 0) values.put(arg.substring(2), "true");
+            else values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+    }
+
+    String string(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int integer(String name, int defaultValue) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    long number(String name, long defaultValue) {
+        return values.containsKey(name) ? Long.parseLong(values.get(name)) : defaultValue;
+    }
+
+    double decimal(String name, double defaultValue) {
+        return values.containsKey(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+    }
+
+    Duration duration(String name, Duration defaultValue) {
+        return values.containsKey(name) ? Duration.parse(values.get(name)) : defaultValue;
+    }
+
+    /**
+     * Разбирает веса вида {@code list:60,detail:25,comment:10,update:5}
+     */
+    Map<String, Integer> weights(String name, String defaultValue) {
+        var weights = new LinkedHashMap<String, Integer>();
+        for (var entry : string(name, defaultValue).split(",")) {
+            var pair = entry.split(":");
+            weights.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+}
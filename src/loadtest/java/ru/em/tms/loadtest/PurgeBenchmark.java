@@ -0,0 +1,190 @@
+package ru.em.tms.loadtest;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Замер удаления задач с большими обсуждениями. Создает {@code --tasks} задач по {@code --thread} комментариев,
+ * помечает их удаленными, как {@code DELETE /tasks/{id}}, и физически удаляет теми же запросами и транзакциями
+ * по {@code --batch-size} комментариев, что и {@code TaskPurgeService}. Для сравнения еще {@code --baseline-tasks}
+ * таких же задач удаляются одним {@code DELETE} с каскадом, как до мягкого удаления. Нужны пользователь
+ * и проект, например созданные {@code generateData}.
+ * <p>
+ * Пример: {@code ./gradlew purgeBenchmark --args="--tasks=20 --thread=100000"}
+ */
+public class PurgeBenchmark {
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final Options options;
+    private final int batchSize;
+
+    public PurgeBenchmark(Options options) {
+        this.options = options;
+        this.batchSize = options.integer("batch-size", 1000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = new Options(args);
+
+        try (var connection = DriverManager.getConnection(
+                options.string("url", "jdbc:mysql://localhost:3306/tms_db?rewriteBatchedStatements=true"),
+                options.string("user", "root"),
+                options.string("password", "root"))) {
+            new PurgeBenchmark(options).run(connection);
+        }
+    }
+
+    public void run(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+
+        var tasks = options.integer("tasks", 20);
+        var baselineTasks = options.integer("baseline-tasks", 5);
+        var thread = options.integer("thread", 100_000);
+        var userId = (int) first(connection, "users");
+        var projectId = first(connection, "projects");
+
+        var started = System.nanoTime();
+        var ids = insert(connection, userId, projectId, tasks + baselineTasks, thread);
+        System.out.printf("Задач: %d по %d комментариев за %.1f с%n",
+                ids.size(), thread, (System.nanoTime() - started) / 1e9);
+
+        var markDeleted = new Recorder();
+        for (var id : ids.subList(0, tasks)) markDeleted.record(markDeleted(connection, id), true);
+
+        var purge = new Recorder();
+        started = System.nanoTime();
+        while (true) {
+            var transactionStarted = System.nanoTime();
+            var removed = purgeBatch(connection);
+            connection.commit();
+            if (removed == 0) break;
+            purge.record(System.nanoTime() - transactionStarted, true);
+        }
+        var purgeSeconds = (System.nanoTime() - started) / 1e9;
+
+        var cascade = new Recorder();
+        for (var id : ids.subList(tasks, ids.size())) cascade.record(cascadeDelete(connection, id), true);
+
+        System.out.printf("%-12s %8s %10s %10s %10s%n", "operation", "count", "p50, ms", "p99, ms", "max, ms");
+        print("delete", markDeleted);
+        print("purge", purge);
+        print("cascade", cascade);
+        System.out.printf("Физическое удаление %d задач: %.1f с, транзакций: %d%n", tasks, purgeSeconds, purge.count());
+    }
+
+    private List<Long> insert(Connection connection, int userId, long projectId, int tasks, int thread) throws SQLException {
+        var taskOffset = maxId(connection, "tasks");
+        var commentId = maxId(connection, "comments");
+        var createdAt = Timestamp.valueOf(CREATED_AT);
+        var ids = new ArrayList<Long>(tasks);
+
+        try (var taskStatement = connection.prepareStatement("insert into tasks " +
+                "(id, title, description, status, priority, executor_id, author_id, created_at, updated_at, " +
+                "comment_count, last_activity_at, project_id) values (?, ?, ?, 'DONE', 'LOW', ?, ?, ?, ?, ?, ?, ?)");
+             var commentStatement = connection.prepareStatement("insert into comments " +
+                     "(id, task_id, content, author_id, created_at, updated_at) values (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= tasks; i++) {
+                var taskId = taskOffset + i;
+                taskStatement.setLong(1, taskId);
+                taskStatement.setString(2, "Обсуждаемая задача №" + taskId);
+                taskStatement.setString(3, "Задача для замера удаления");
+                taskStatement.setInt(4, userId);
+                taskStatement.setInt(5, userId);
+                taskStatement.setTimestamp(6, createdAt);
+                taskStatement.setTimestamp(7, createdAt);
+                taskStatement.setInt(8, thread);
+                taskStatement.setTimestamp(9, createdAt);
+                taskStatement.setLong(10, projectId);
+                taskStatement.executeUpdate();
+                ids.add(taskId);
+
+                for (int c = 1; c <= thread; c++) {
+                    commentStatement.setLong(1, ++commentId);
+                    commentStatement.setLong(2, taskId);
+                    commentStatement.setString(3, "Комментарий №" + c + " к задаче №" + taskId);
+                    commentStatement.setInt(4, userId);
+                    commentStatement.setTimestamp(5, createdAt);
+                    commentStatement.setTimestamp(6, createdAt);
+                    commentStatement.addBatch();
+                    if (c % 1000 == 0) {
+                        commentStatement.executeBatch();
+                        connection.commit();
+                    }
+                }
+                commentStatement.executeBatch();
+                connection.commit();
+            }
+        }
+
+        return ids;
+    }
+
+    private long markDeleted(Connection connection, long id) throws SQLException {
+        var started = System.nanoTime();
+        try (var statement = connection.prepareStatement(
+                "update tasks set deleted_at = ? where id = ? and deleted_at is null")) {
+            statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            statement.setLong(2, id);
+            statement.executeUpdate();
+        }
+        connection.commit();
+        return System.nanoTime() - started;
+    }
+
+    /**
+     * Те же запросы, что {@code TaskPurgeService.purgeBatch()}
+     */
+    private int purgeBatch(Connection connection) throws SQLException {
+        var ids = new ArrayList<Long>();
+        try (var statement = connection.prepareStatement(
+                "select id from tasks where deleted_at is not null order by id limit ?")) {
+            statement.setInt(1, batchSize);
+            try (var result = statement.executeQuery()) {
+                while (result.next()) ids.add(result.getLong(1));
+            }
+        }
+        if (ids.isEmpty()) return 0;
+
+        var in = String.join(", ", ids.stream().map(String::valueOf).toList());
+        try (var statement = connection.createStatement()) {
+            var comments = statement.executeUpdate("delete from comments where task_id in (" + in + ") limit " + batchSize);
+            if (comments == batchSize) return comments;
+            return comments + statement.executeUpdate("delete from tasks where id in (" + in + ") and deleted_at is not null");
+        }
+    }
+
+    private long cascadeDelete(Connection connection, long id) throws SQLException {
+        var started = System.nanoTime();
+        try (var statement = connection.prepareStatement("delete from tasks where id = ?")) {
+            statement.setLong(1, id);
+            statement.executeUpdate();
+        }
+        connection.commit();
+        return System.nanoTime() - started;
+    }
+
+    private static void print(String operation, Recorder recorder) {
+        System.out.printf("%-12s %8d %10.1f %10.1f %10.1f%n", operation, recorder.count(),
+                recorder.percentile(50), recorder.percentile(99), recorder.percentile(100));
+    }
+
+    private static long first(Connection connection, String table) throws SQLException {
+        try (var statement = connection.createStatement();
+             var result = statement.executeQuery("select min(id) from " + table)) {
+            result.next();
+            var id = result.getLong(1);
+            if (result.wasNull()) throw new IllegalStateException("Таблица " + table + " пуста, сначала выполните generateData");
+            return id;
+        }
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (var statement = connection.createStatement();
+             var result = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
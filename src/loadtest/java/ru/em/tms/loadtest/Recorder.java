@@ -0,0 +1,57 @@
+package ru.em.tms.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Накопитель задержек одной операции. Не потокобезопасен: у каждого потока нагрузки свой экземпляр.
+ */
+final class Recorder {
+    private long[] latencies = new long[1024];
+    private int count;
+    private int attempts;
+    private int errors;
+
+    void record(long nanos, boolean success) {
+        attempts++;
+        if (!success) errors++;
+        if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+        latencies[count++] = nanos;
+    }
+
+    void error() {
+        attempts++;
+        errors++;
+    }
+
+    void merge(Recorder other) {
+        if (count + other.count > latencies.length)
+            latencies = Arrays.copyOf(latencies, count + other.count);
+        System.arraycopy(other.latencies, 0, latencies, count, other.count);
+        count += other.count;
+        attempts += other.attempts;
+        errors += other.errors;
+    }
+
+    int count() {
+        return count;
+    }
+
+    double errorRate() {
+        return attempts == 0 ? 0 : (double) errors / attempts;
+    }
+
+    int errors() {
+        return errors;
+    }
+
+    /**
+     * Перцентиль задержки в миллисекундах; сортирует накопленные значения
+     */
+    double percentile(double percentile) {
+        if (count == 0) return 0;
+
+        Arrays.sort(latencies, 0, count);
+        var index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return latencies[Math.max(0, Math.min(index, count - 1))] / 1e6;
+    }
+}
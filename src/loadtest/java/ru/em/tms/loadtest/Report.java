@@ -0,0 +1,47 @@
+package ru.em.tms.loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+
+record Report(Map<String, Recorder> results, Duration duration, int maxP99Millis, double maxErrorRate) {
+    void print() {
+        var seconds = duration.toMillis() / 1000.0;
+        System.out.printf("%-10s %10s %8s %10s %10s %10s %10s %10s%n",
+                "operation", "requests", "errors", "rps", "p50, ms", "p90, ms", "p99, ms", "max, ms");
+
+        var total = new Recorder();
+        results.forEach((operation, recorder) -> {
+            print(operation, recorder, seconds);
+            total.merge(recorder);
+        });
+        print("total", total, seconds);
+    }
+
+    boolean passed() {
+        var passed = true;
+
+        for (var entry : results.entrySet()) {
+            var recorder = entry.getValue();
+            var errorRate = recorder.errorRate();
+
+            if (errorRate > maxErrorRate) {
+                System.out.printf("%s: доля ошибок %.2f%% превышает %.2f%%%n",
+                        entry.getKey(), errorRate * 100, maxErrorRate * 100);
+                passed = false;
+            }
+            if (maxP99Millis > 0 && recorder.percentile(99) > maxP99Millis) {
+                System.out.printf("%s: p99 %.1f мс превышает %d мс%n",
+                        entry.getKey(), recorder.percentile(99), maxP99Millis);
+                passed = false;
+            }
+        }
+
+        return passed;
+    }
+
+    private static void print(String operation, Recorder recorder, double seconds) {
+        System.out.printf("%-10s %10d %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                operation, recorder.count(), recorder.errors(), recorder.count() / seconds,
+                recorder.percentile(50), recorder.percentile(90), recorder.percentile(99), recorder.percentile(100));
+    }
+}
@@ -0,0 +1,41 @@
+package ru.em.tms.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Выбор элемента по весам за O(log n) через бинарный поиск по накопленным весам
+ */
+final class WeightedChoice<T> {
+    private final List<T> items;
+    private final double[] cumulative;
+
+    WeightedChoice(Map<T, ? extends Number> weights) {
+        this.items = List.copyOf(weights.keySet());
+        this.cumulative = new double[items.size()];
+
+        double sum = 0;
+        for (int i = 0; i < items.size(); i++) {
+            sum += weights.get(items.get(i)).doubleValue();
+            cumulative[i] = sum;
+        }
+        if (sum <= 0) throw new IllegalArgumentException("Сумма весов должна быть положительной");
+    }
+
+    /**
+     * Распределение Ципфа по номерам 1..n: небольшая часть элементов получает большую часть выборок
+     */
+    static WeightedChoice<Integer> zipf(int n, double exponent) {
+        var weights = new java.util.LinkedHashMap<Integer, Double>(n * 2);
+        for (int i = 1; i <= n; i++) weights.put(i, 1 / Math.pow(i, exponent));
+        return new WeightedChoice<>(weights);
+    }
+
+    T next(RandomGenerator random) {
+        var point = random.nextDouble() * cumulative[cumulative.length - 1];
+        var index = Arrays.binarySearch(cumulative, point);
+        return items.get(index >= 0 ? index : -index - 1);
+    }
+}
@@ -0,0 +1,140 @@
+package ru.em.tms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.em.tms.lib.datasource.ReadYourWrites;
+import ru.em.tms.lib.datasource.ReplicaProperties;
+import ru.em.tms.lib.datasource.ReplicaRouter;
+import ru.em.tms.lib.datasource.ShardProperties;
+import ru.em.tms.lib.datasource.ShardRouter;
+import ru.em.tms.lib.datasource.Workload;
+import ru.em.tms.lib.datasource.WorkloadRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+@Configuration
+public class DataSourceConfig implements DisposableBean {
+    private final List<HikariDataSource> pools = new CopyOnWriteArrayList<>();
+
+    @Bean
+    public ReplicaRouter replicaRouter(DataSourceProperties dataSourceProperties, Environment environment,
+                                       ReplicaProperties properties, ReadYourWrites readYourWrites) {
+        var template = primaryPool(dataSourceProperties, environment);
+        var nodes = properties.nodes();
+        var replicas = IntStream.range(0, nodes.size())
+                .mapToObj(i -> {
+                    var node = nodes.get(i);
+                    var replica = copy(template, "replica-" + i);
+                    replica.setJdbcUrl(node.url());
+                    replica.setUsername(node.username());
+                    replica.setPassword(node.password());
+                    replica.setReadOnly(true);
+                    return (DataSource) replica;
+                })
+                .toList();
+
+        return new ReplicaRouter(replicas, properties, readYourWrites);
+    }
+
+    @Bean
+    public ShardRouter shardRouter(DataSourceProperties dataSourceProperties, Environment environment,
+                                   ShardProperties properties) {
+        var template = primaryPool(dataSourceProperties, environment);
+        var nodes = properties.nodes();
+        var shards = IntStream.range(0, nodes.size())
+                .mapToObj(i -> {
+                    var node = nodes.get(i);
+                    var shard = copy(template, "shard-" + (i + 1));
+                    shard.setJdbcUrl(node.url());
+                    shard.setUsername(node.username());
+                    shard.setPassword(node.password());
+                    return (DataSource) shard;
+                })
+                .toList();
+
+        return new ShardRouter(shards);
+    }
+
+    /**
+     * Пул основного сервера ({@code spring.datasource.hikari.*}) обслуживает пользовательские запросы. Для фоновых
+     * задач и аутентификации можно задать отдельные пулы ({@code datasource.pools.batch.*},
+     * {@code datasource.pools.auth.*}), тогда их соединения выбираются по {@link Workload}.
+     * С репликами соединение берется при первом запросе, когда уже известно, что транзакция read-only,
+     * и такие транзакции уходят на {@link ReplicaRouter}. С шардами основной сервер - шард 0, остальные шарды
+     * выбираются {@link ShardRouter}, а реплики используются только для шарда 0.
+     */
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, Environment environment, ReplicaRouter router,
+                                 ShardRouter shards) {
+        var interactive = primaryPool(dataSourceProperties, environment);
+        if (interactive.getPoolName() == null) interactive.setPoolName("interactive");
+        pools.add(interactive);
+
+        var workloads = new EnumMap<Workload, DataSource>(Workload.class);
+        for (var workload : new Workload[]{Workload.BATCH, Workload.AUTH}) {
+            var name = workload.name().toLowerCase();
+            var pool = new HikariDataSource();
+            interactive.copyStateTo(pool);
+            pool.setPoolName(name);
+            if (Binder.get(environment).bind("datasource.pools." + name, Bindable.ofInstance(pool)).isBound()) {
+                workloads.put(workload, pool);
+                pools.add(pool);
+            }
+        }
+
+        DataSource primary = workloads.isEmpty() ? interactive : new WorkloadRoutingDataSource(interactive, workloads);
+        if (!router.hasReplicas()) return shards.dataSource(primary);
+
+        var proxy = new LazyConnectionDataSourceProxy(shards.dataSource(primary));
+        proxy.setReadOnlyDataSource(shards.dataSource(router.dataSource(primary)));
+        return proxy;
+    }
+
+    /**
+     * Метрики {@code hikaricp.connections.*} всех пулов: ожидание соединения, время использования, активные
+     * и ожидающие потоки, таймауты - с тегом {@code pool}. Подключаются, когда реестр метрик уже настроен.
+     */
+    @Bean
+    public MeterBinder hikariPoolMetrics() {
+        return registry -> pools.forEach(pool -> {
+            if (pool.getMetricRegistry() == null && pool.getMetricsTrackerFactory() == null)
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        });
+    }
+
+    /**
+     * Пулы создаются в фабричных методах и не являются бинами, поэтому Spring сам их не закрывает:
+     * соединения освобождаются здесь при остановке контекста.
+     */
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private static HikariDataSource primaryPool(DataSourceProperties dataSourceProperties, Environment environment) {
+        var pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        return pool;
+    }
+
+    private HikariDataSource copy(HikariDataSource template, String name) {
+        var pool = new HikariDataSource();
+        template.copyStateTo(pool);
+        pool.setPoolName(name);
+        pools.add(pool);
+        return pool;
+    }
+}
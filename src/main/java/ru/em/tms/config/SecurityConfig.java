@@ -19,12 +19,14 @@ import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
+import ru.em.tms.lib.datasource.ShardRouter;
 import ru.em.tms.lib.filter.JwtAuthenticationFilter;
+import ru.em.tms.lib.filter.RateLimitFilter;
 import ru.em.tms.lib.security.TMSMethodSecurityExpressionHandler;
 import ru.em.tms.repo.CommentRepo;
 import ru.em.tms.repo.TaskRepo;
-import ru.em.tms.repo.UserRepo;
 import ru.em.tms.service.UserService;
+import ru.em.tms.service.util.ProjectMembershipService;
 
 import java.util.List;
 
@@ -38,6 +40,7 @@ public class SecurityConfig {
     @Qualifier("delegatedAuthenticationEntryPoint")
     private final AuthenticationEntryPoint authEntryPoint;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserService userService;
 
     @Bean
@@ -46,19 +49,21 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(request -> {
                     var corsConfiguration = new CorsConfiguration();
                     corsConfiguration.setAllowedOriginPatterns(List.of("*"));
-                    corsConfiguration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+                    corsConfiguration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
                     corsConfiguration.setAllowedHeaders(List.of("*"));
                     corsConfiguration.setAllowCredentials(true);
                     return corsConfiguration;
                 }))
                 .authorizeHttpRequests(request -> request
-                        .requestMatchers("/login**", "/register**").permitAll()
+                        .requestMatchers("/login**", "/register**", "/refresh**", "/.well-known/**").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                         .requestMatchers("/swagger-ui/**", "/swagger-resources/*", "/v3/api-docs/**", "docs/**", "/swagger*").permitAll()
                         .anyRequest().authenticated())
                 .sessionManagement(manager -> manager.sessionCreationPolicy(STATELESS))
                 .authenticationProvider(authenticationProvider())
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(authEntryPoint))
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
         return http.build();
     }
 
@@ -84,7 +89,8 @@ public class SecurityConfig {
     @Bean
     public static MethodSecurityExpressionHandler methodSecurityExpressionHandler(TaskRepo taskRepo,
                                                                                   CommentRepo commentRepo,
-                                                                                  UserRepo userRepo) {
-        return new TMSMethodSecurityExpressionHandler(taskRepo, commentRepo, userRepo);
+                                                                                  ShardRouter shardRouter,
+                                                                                  ProjectMembershipService membershipService) {
+        return new TMSMethodSecurityExpressionHandler(taskRepo, commentRepo, shardRouter, membershipService);
     }
 }
@@ -0,0 +1,19 @@
+package ru.em.tms.config;
+
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.em.tms.lib.tracing.FileSpanExporter;
+
+import java.nio.file.Path;
+
+@Configuration
+public class TracingConfig {
+    @Bean
+    @ConditionalOnProperty("tracing.export.file")
+    public SpanExporter fileSpanExporter(@Value("${tracing.export.file}") Path file) {
+        return new FileSpanExporter(file);
+    }
+}
@@ -10,9 +10,12 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
 import org.springframework.web.bind.annotation.*;
+import ru.em.tms.lib.filter.JwtAuthenticationFilter;
 import ru.em.tms.model.dto.RestError;
 import ru.em.tms.model.dto.JwtDTO;
+import ru.em.tms.model.dto.RefreshTokenDTO;
 import ru.em.tms.model.dto.user.UserAuthDTO;
 import ru.em.tms.service.AuthService;
 
@@ -37,7 +40,7 @@ public class AuthController {
     @SecurityRequirements
     @PostMapping("/register")
     public JwtDTO signUp(@RequestBody @Valid UserAuthDTO request) {
-        return JwtDTO.of(service.signUp(request));
+        return service.signUp(request);
     }
 
     @Operation(summary = "Авторизация пользователя", responses = {
@@ -51,7 +54,35 @@ public class AuthController {
     @SecurityRequirements
     @PostMapping("/login")
     public JwtDTO signIn(@RequestBody @Valid UserAuthDTO request) {
-        return JwtDTO.of(service.signIn(request));
+        return service.signIn(request);
+    }
+
+    @Operation(summary = "Обновление JWT-токена", responses = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = JwtDTO.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Недействительный refresh-токен",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
+    })
+    @SecurityRequirements
+    @PostMapping("/refresh")
+    public JwtDTO refresh(@RequestBody @Valid RefreshTokenDTO request) {
+        return service.refresh(request.getRefreshToken());
+    }
+
+    @Operation(summary = "Отзыв JWT-токена и refresh-токена", responses = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
+    })
+    @PostMapping("/revoke")
+    public void revoke(@RequestHeader(JwtAuthenticationFilter.HEADER) String authHeader,
+                       @RequestBody(required = false) RefreshTokenDTO request) {
+        service.revoke(authHeader.substring(JwtAuthenticationFilter.PREFIX.length()),
+                request == null ? null : request.getRefreshToken());
     }
 
     @Hidden
@@ -61,6 +92,13 @@ public class AuthController {
         return new RestError("Неверный логин или пароль");
     }
 
+    @Hidden
+    @ExceptionHandler(CredentialsExpiredException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    public RestError credentialsExpired(CredentialsExpiredException ex) {
+        return new RestError(ex.getMessage());
+    }
+
     @Hidden
     @ExceptionHandler(DataIntegrityViolationException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
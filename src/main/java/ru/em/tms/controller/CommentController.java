@@ -1,6 +1,8 @@
 package ru.em.tms.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -9,30 +11,43 @@ import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.em.tms.lib.annotation.PageableDoc;
+import ru.em.tms.lib.concurrency.VersionTag;
+import ru.em.tms.lib.json.MergePatch;
+import ru.em.tms.lib.json.MergePatchReader;
+import ru.em.tms.lib.json.SparseFields;
 import ru.em.tms.model.dto.PageableResponse;
 import ru.em.tms.model.dto.RestError;
 import ru.em.tms.model.dto.comment.CommentEditDTO;
 import ru.em.tms.model.dto.comment.CommentGetDTO;
 import ru.em.tms.service.CommentService;
 
+import java.util.Set;
+
 @RestController
-@RequestMapping(value = "/tasks/{taskId}/comments", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(value = "/tasks/{taskId}/comments", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 @RequiredArgsConstructor
 @Tag(name = "Задачи", description = "Управление задачами и комментариями")
 public class CommentController {
     private final CommentService service;
+    private final MergePatchReader patchReader;
 
     @GetMapping
     @Operation(summary = "Получить список комментариев", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
             content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)), responses = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
                     content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = PageableResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Неизвестное поле",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
                     content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Задача не найдена",
@@ -41,9 +56,13 @@ public class CommentController {
                     content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
     })
     @PageableDoc
-    @PreAuthorize("isTaskMember(#taskId) or hasAuthority('ADMIN')")
-    public PageableResponse<CommentGetDTO> getAll(@PathVariable Long taskId, @ParameterObject @PageableDefault(size = 50) Pageable pageable) {
-        return service.getAll(taskId, pageable);
+    @PreAuthorize("isTaskProjectMember(#taskId) or isTaskMember(#taskId) or hasAuthority('ADMIN')")
+    public MappingJacksonValue getAll(@PathVariable Long taskId, @ParameterObject @PageableDefault(size = 50) Pageable pageable,
+                                      @Parameter(description = "Возвращаемые поля через запятую, например id,content")
+                                      @RequestParam(required = false) Set<String> fields) {
+        var value = new MappingJacksonValue(service.getAll(taskId, pageable, fields));
+        if (SparseFields.isRequested(fields)) value.setFilters(SparseFields.filterProvider(fields));
+        return value;
     }
 
     @GetMapping(path = "/{id}")
@@ -58,9 +77,10 @@ public class CommentController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
                     content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
     })
-    @PreAuthorize("isTaskMember(#taskId) or hasAuthority('ADMIN')")
-    public CommentGetDTO getById(@PathVariable Long taskId, @PathVariable Long id) {
-        return service.getById(taskId, id).orElseThrow(() -> new EntityNotFoundException("Комментарий не найден"));
+    @PreAuthorize("isTaskProjectMember(#taskId) or isTaskMember(#taskId) or hasAuthority('ADMIN')")
+    public ResponseEntity<CommentGetDTO> getById(@PathVariable Long taskId, @PathVariable Long id) {
+        var comment = service.getById(taskId, id).orElseThrow(() -> new EntityNotFoundException("Комментарий не найден"));
+        return ResponseEntity.ok().eTag(CommentService.versionTag(comment)).body(comment);
     }
 
     @PostMapping
@@ -97,6 +117,8 @@ public class CommentController {
             responses = {
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
                             content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = CommentGetDTO.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Комментарий изменен другим пользователем",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
                             content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Комментарий или задача не найдены",
@@ -106,8 +128,41 @@ public class CommentController {
             }
     )
     @PreAuthorize("isCommentAuthor(#id) or hasAuthority('ADMIN')")
-    public CommentGetDTO update(@PathVariable Long taskId, @PathVariable Long id, @RequestBody @Validated CommentEditDTO commentDTO) {
-        return service.update(taskId, id, commentDTO);
+    public ResponseEntity<CommentGetDTO> update(@PathVariable Long taskId, @PathVariable Long id,
+                                                @RequestBody @Validated CommentEditDTO commentDTO,
+                                                @Parameter(description = "ETag, полученный вместе с комментарием")
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var comment = service.update(taskId, id, commentDTO, VersionTag.parse(ifMatch));
+        return ResponseEntity.ok().eTag(CommentService.versionTag(comment)).body(comment);
+    }
+
+    @PatchMapping(path = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Изменить текст комментария",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "JSON Merge Patch: переданные поля изменяются, остальные остаются прежними",
+                    required = true,
+                    content = @Content(mediaType = MergePatch.MEDIA_TYPE,
+                            schema = @Schema(implementation = CommentEditDTO.class))),
+            responses = {
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "204", description = "OK"),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Неизвестное или некорректное поле",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Комментарий не найден",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Комментарий изменен другим пользователем",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
+            }
+    )
+    @PreAuthorize("isCommentAuthor(#id) or hasAuthority('ADMIN')")
+    public void patch(@PathVariable Long taskId, @PathVariable Long id, @RequestBody JsonNode patch,
+                      @Parameter(description = "ETag, полученный вместе с комментарием. Если версия устарела, возвращается 409")
+                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        service.patch(taskId, id, patchReader.read(patch, CommentEditDTO.class), VersionTag.parseVersion(ifMatch));
     }
 
     @DeleteMapping(path = "/{id}")
@@ -0,0 +1,36 @@
+package ru.em.tms.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirements;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.em.tms.model.dto.jwk.JwkSetDTO;
+import ru.em.tms.service.util.JwtKeyStore;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping(path = "/.well-known", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+@Tag(name = "Аутентификация", description = "Аутентификация пользователя")
+public class JwksController {
+    private final JwtKeyStore keyStore;
+
+    @Operation(summary = "Открытые ключи для проверки JWT-токенов", responses = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = JwkSetDTO.class)))
+    })
+    @SecurityRequirements
+    @GetMapping("/jwks.json")
+    public ResponseEntity<JwkSetDTO> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(keyStore.jwks());
+    }
+}
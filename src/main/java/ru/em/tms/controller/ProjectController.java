@@ -0,0 +1,140 @@
+package ru.em.tms.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.em.tms.lib.annotation.PageableDoc;
+import ru.em.tms.lib.filter.db.TaskFilter;
+import ru.em.tms.lib.json.SparseFields;
+import ru.em.tms.model.dto.PageableResponse;
+import ru.em.tms.model.dto.RestError;
+import ru.em.tms.model.dto.project.ProjectEditDTO;
+import ru.em.tms.model.dto.project.ProjectGetDTO;
+import ru.em.tms.service.ProjectService;
+import ru.em.tms.service.TaskService;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping(path = "/projects", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+@RequiredArgsConstructor
+@Tag(name = "Проекты", description = "Управление проектами и их участниками")
+public class ProjectController {
+    private final ProjectService service;
+    private final TaskService taskService;
+
+    @GetMapping
+    @Operation(summary = "Получить список проектов", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)), responses = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = PageableResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
+    })
+    @PageableDoc
+    public PageableResponse<ProjectGetDTO> getAll(@ParameterObject @PageableDefault(size = 50) Pageable pageable) {
+        return service.getAll(pageable);
+    }
+
+    @GetMapping(path = "/{projectId}")
+    @Operation(summary = "Получить информацию о проекте", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)), responses = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ProjectGetDTO.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Проект не найден",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
+    })
+    @PreAuthorize("isProjectMember(#projectId) or hasAuthority('ADMIN')")
+    public ProjectGetDTO getById(@PathVariable Long projectId) {
+        return service.getById(projectId).orElseThrow(() -> new EntityNotFoundException("Проект не найден"));
+    }
+
+    @GetMapping(path = "/{projectId}/tasks")
+    @Operation(summary = "Получить список задач проекта", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)), responses = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = PageableResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Неизвестное поле",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
+    })
+    @PageableDoc
+    @PreAuthorize("isProjectMember(#projectId) or hasAuthority('ADMIN')")
+    public MappingJacksonValue getTasks(@PathVariable Long projectId,
+                                        @ParameterObject @PageableDefault(size = 50) Pageable pageable,
+                                        @ParameterObject TaskFilter filter,
+                                        @Parameter(description = "Возвращаемые поля через запятую, например id,title,status")
+                                        @RequestParam(required = false) Set<String> fields) {
+        var value = new MappingJacksonValue(taskService.getAll(projectId, pageable, filter, fields));
+        if (SparseFields.isRequested(fields)) value.setFilters(SparseFields.filterProvider(fields));
+        return value;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Создать новый проект",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Информация о новом проекте",
+                    required = true,
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ProjectEditDTO.class))),
+            responses = {
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "201", description = "OK",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ProjectGetDTO.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Участник не найден",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
+    })
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ProjectGetDTO create(@RequestBody @Validated ProjectEditDTO projectDTO) {
+        return service.create(projectDTO);
+    }
+
+    @PutMapping(path = "/{projectId}")
+    @Operation(summary = "Изменить проект",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Информация о проекте",
+                    required = true,
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ProjectEditDTO.class))),
+            responses = {
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ProjectGetDTO.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Проект или участник не найдены",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
+    })
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ProjectGetDTO update(@PathVariable Long projectId, @RequestBody @Validated ProjectEditDTO projectDTO) {
+        return service.update(projectId, projectDTO);
+    }
+}
@@ -1,6 +1,8 @@
 package ru.em.tms.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -9,29 +11,66 @@ import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.em.tms.lib.annotation.PageableDoc;
+import ru.em.tms.lib.concurrency.VersionTag;
 import ru.em.tms.lib.filter.db.TaskFilter;
+import ru.em.tms.lib.json.MergePatch;
+import ru.em.tms.lib.json.MergePatchReader;
+import ru.em.tms.lib.json.SparseFields;
 import ru.em.tms.model.dto.PageableResponse;
 import ru.em.tms.model.dto.RestError;
+import ru.em.tms.model.dto.task.TaskCountersDTO;
 import ru.em.tms.model.dto.task.TaskCreateDTO;
 import ru.em.tms.model.dto.task.TaskGetDTO;
 import ru.em.tms.model.dto.task.TaskUpdateDTO;
+import ru.em.tms.service.TaskCounterService;
 import ru.em.tms.service.TaskService;
 
+import java.util.Set;
+
 @RestController
-@RequestMapping(path = "/tasks", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(path = "/tasks", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 @RequiredArgsConstructor
 @Tag(name = "Задачи", description = "Управление задачами и комментариями")
 public class TaskController {
     private final TaskService service;
+    private final TaskCounterService counterService;
+    private final MergePatchReader patchReader;
 
     @GetMapping
     @Operation(summary = "Получить список задач", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)), responses = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = PageableResponse.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Неизвестное поле",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
+    })
+    @PageableDoc
+    public MappingJacksonValue getAll(@ParameterObject @PageableDefault(size = 50) Pageable pageable,
+                                      @ParameterObject TaskFilter filter,
+                                      @Parameter(description = "Возвращаемые поля через запятую, например id,title,status")
+                                      @RequestParam(required = false) Set<String> fields) {
+        var value = new MappingJacksonValue(service.getAll(pageable, filter, fields));
+        if (SparseFields.isRequested(fields)) value.setFilters(SparseFields.filterProvider(fields));
+        return value;
+    }
+
+    @GetMapping(path = "/archive")
+    @Operation(summary = "Получить список задач из архива", description = "Закрытые задачи переносятся в архив через tasks.archive.after",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
             content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)), responses = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
                     content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = PageableResponse.class))),
@@ -41,9 +80,24 @@ public class TaskController {
                     content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
     })
     @PageableDoc
-    public PageableResponse<TaskGetDTO> getAll(@ParameterObject @PageableDefault(size = 50) Pageable pageable,
-                                               @ParameterObject TaskFilter filter) {
-        return service.getAll(pageable, filter);
+    public PageableResponse<TaskGetDTO> getArchived(@ParameterObject @PageableDefault(size = 50) Pageable pageable,
+                                                    @ParameterObject TaskFilter filter) {
+        return service.getArchived(pageable, filter);
+    }
+
+    @GetMapping(path = "/counters")
+    @Operation(summary = "Получить количество задач по статусам, приоритетам, исполнителям и авторам", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)), responses = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = TaskCountersDTO.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
+                    content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
+    })
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public TaskCountersDTO getCounters() {
+        return counterService.getCounters();
     }
 
     @GetMapping(path = "/{id}")
@@ -58,9 +112,10 @@ public class TaskController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
                     content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
     })
-    @PreAuthorize("isTaskMember(#id) or hasAuthority('ADMIN')")
-    public TaskGetDTO getById(@PathVariable Long id) {
-        return service.getById(id).orElseThrow(() -> new EntityNotFoundException("Задача не найдена"));
+    @PreAuthorize("isTaskProjectMember(#id) or isTaskMember(#id) or hasAuthority('ADMIN')")
+    public ResponseEntity<TaskGetDTO> getById(@PathVariable Long id) {
+        var task = service.getById(id).orElseThrow(() -> new EntityNotFoundException("Задача не найдена"));
+        return ResponseEntity.ok().eTag(TaskService.versionTag(task)).body(task);
     }
 
     @PostMapping
@@ -94,14 +149,48 @@ public class TaskController {
             responses = {
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "OK",
                             content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = TaskGetDTO.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Задача изменена другим пользователем, изменения не удалось объединить",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
                             content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
                     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
                             content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
     })
     @PreAuthorize("isTaskMember(#id) or hasAuthority('ADMIN')")
-    public TaskGetDTO update(@PathVariable Long id, @RequestBody @Validated TaskUpdateDTO taskDTO) {
-        return service.update(id, taskDTO);
+    public ResponseEntity<TaskGetDTO> update(@PathVariable Long id, @RequestBody @Validated TaskUpdateDTO taskDTO,
+                                             @Parameter(description = "ETag, полученный вместе с задачей. Изменения других пользователей в остальных полях при этом сохраняются")
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var task = service.update(id, taskDTO, VersionTag.parse(ifMatch));
+        return ResponseEntity.ok().eTag(TaskService.versionTag(task)).body(task);
+    }
+
+    @PatchMapping(path = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Изменить отдельные поля задачи",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "JSON Merge Patch: переданные поля изменяются, остальные остаются прежними",
+                    required = true,
+                    content = @Content(mediaType = MergePatch.MEDIA_TYPE,
+                            schema = @Schema(implementation = TaskUpdateDTO.class))),
+            responses = {
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "204", description = "OK"),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Неизвестное или некорректное поле",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Задача или исполнитель не найдены",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Задача изменена другим пользователем",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
+            }
+    )
+    @PreAuthorize("isTaskMember(#id) or hasAuthority('ADMIN')")
+    public void patch(@PathVariable Long id, @RequestBody JsonNode patch,
+                      @Parameter(description = "ETag, полученный вместе с задачей. Если версия устарела, возвращается 409")
+                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        service.patch(id, patchReader.read(patch, TaskUpdateDTO.class), VersionTag.parseVersion(ifMatch));
     }
 
     @DeleteMapping(path = "/{id}")
@@ -1,5 +1,6 @@
 package ru.em.tms.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -17,6 +18,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.em.tms.lib.annotation.PageableDoc;
+import ru.em.tms.lib.json.MergePatch;
+import ru.em.tms.lib.json.MergePatchReader;
 import ru.em.tms.model.dto.RestError;
 import ru.em.tms.model.dto.PageableResponse;
 import ru.em.tms.model.dto.user.UserEditDTO;
@@ -24,12 +27,14 @@ import ru.em.tms.model.dto.user.UserGetDTO;
 import ru.em.tms.service.UserService;
 
 @RestController
-@RequestMapping(path = "/users", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(path = "/users", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 @PreAuthorize("hasAuthority('ADMIN')")
 @RequiredArgsConstructor
 @Tag(name = "Пользователи", description = "Управление пользователями")
 public class UserController {
     private final UserService service;
+    private final MergePatchReader patchReader;
 
     @GetMapping
     @Operation(summary = "Получить список пользователей", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -83,6 +88,32 @@ public class UserController {
         return service.update(id, userDTO);
     }
 
+    @PatchMapping(path = "/{id}", consumes = MergePatch.MEDIA_TYPE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Изменить отдельные поля пользователя",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "JSON Merge Patch: переданные поля изменяются, остальные остаются прежними",
+                    required = true,
+                    content = @Content(mediaType = MergePatch.MEDIA_TYPE,
+                            schema = @Schema(implementation = UserEditDTO.class))),
+            responses = {
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "204", description = "OK"),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Неизвестное или некорректное поле",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Доступ запрещен",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Пользователь не найден",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Конфликт данных",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class))),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Ошибка сервера",
+                            content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = RestError.class)))
+            }
+    )
+    public void patch(@PathVariable Integer id, @RequestBody JsonNode patch) {
+        service.patch(id, patchReader.read(patch, UserEditDTO.class));
+    }
+
     @DeleteMapping(path = "/{id}")
     @Operation(summary = "Удалить пользователя", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
             content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE)), responses = {
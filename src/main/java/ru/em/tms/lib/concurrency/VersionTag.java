@@ -0,0 +1,76 @@
+package ru.em.tms.lib.concurrency;
+
+import jakarta.validation.ValidationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+/**
+ * Значение ETag/If-Match вида {@code "версия:хеш1.хеш2..."}. Кроме версии сущности содержит короткие хеши
+ * изменяемых полей в этой версии: по ним при устаревшем If-Match видно, какие поля изменил клиент, а какие -
+ * параллельный запрос, и непересекающиеся изменения объединяются без повторного запроса.
+ * Значение только с версией ({@code "3"}) тоже принимается, но тогда при расхождении версий
+ * любое изменение поля считается конфликтом.
+ */
+public record VersionTag(Long version, List<String> fieldHashes) {
+    public static String format(Long version, Object... fields) {
+        return "\"" + version + ":" + Arrays.stream(fields).map(VersionTag::hash).collect(Collectors.joining(".")) + "\"";
+    }
+
+    public static VersionTag parse(String header) {
+        if (header == null || header.isBlank() || header.trim().equals("*")) return null;
+
+        var value = header.split(",")[0].trim();
+        if (value.startsWith("W/")) value = value.substring(2);
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) value = value.substring(1, value.length() - 1);
+
+        var separator = value.indexOf(':');
+        try {
+            var version = Long.parseLong(separator < 0 ? value : value.substring(0, separator));
+            var hashes = separator < 0 ? List.<String>of() : List.of(value.substring(separator + 1).split("\\.", -1));
+            return new VersionTag(version, hashes);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Некорректный заголовок If-Match");
+        }
+    }
+
+    /**
+     * Только версия из If-Match: для изменений одним {@code UPDATE}, где текущие значения полей не читаются
+     * и объединение невозможно, поэтому при устаревшей версии сразу возвращается конфликт.
+     */
+    public static Long parseVersion(String header) {
+        var tag = parse(header);
+        return tag == null ? null : tag.version();
+    }
+
+    /**
+     * Значение поля с порядковым номером {@code field} после объединения: новое значение, если его изменил клиент,
+     * иначе текущее. Если поле изменили и клиент, и параллельный запрос, и значения разошлись - конфликт.
+     */
+    public <T> T merge(Long currentVersion, int field, T current, T desired) {
+        if (Objects.equals(version, currentVersion) || Objects.equals(current, desired)) return desired;
+        if (field >= fieldHashes.size()) throw conflict();
+
+        var base = fieldHashes.get(field);
+        if (hash(desired).equals(base)) return current;
+        if (!hash(current).equals(base)) throw conflict();
+        return desired;
+    }
+
+    public static OptimisticLockingFailureException conflict() {
+        return new OptimisticLockingFailureException("Данные были изменены другим пользователем");
+    }
+
+    static String hash(Object value) {
+        if (value == null) return "";
+
+        var crc = new CRC32C();
+        crc.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,67 @@
+package ru.em.tms.lib.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Запоминает, кто недавно записывал данные, чтобы его чтения в течение {@code datasource.replicas.sticky-window}
+ * шли на основной сервер и не видели реплику, которая еще не получила эту запись. Учитывается пользователь
+ * из контекста безопасности и текущий поток: второе нужно для анонимных сценариев вроде регистрации,
+ * где запись и последующее чтение выполняются в одном запросе. Отметка потока сбрасывается в конце запроса
+ * ({@link ru.em.tms.lib.filter.ReadYourWritesFilter}), чтобы следующий запрос на том же потоке ее не унаследовал.
+ */
+@Component
+public class ReadYourWrites implements TransactionExecutionListener {
+    private final ThreadLocal<Long> threadWrite = new ThreadLocal<>();
+    private final Map<String, Long> userWrites = new ConcurrentHashMap<>();
+
+    @Value("${datasource.replicas.sticky-window:PT5S}")
+    private Duration window = Duration.ofSeconds(5);
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, @Nullable Throwable commitFailure) {
+        if (commitFailure != null || transaction.isReadOnly()) return;
+
+        var until = System.currentTimeMillis() + window.toMillis();
+        threadWrite.set(until);
+
+        var user = currentUser();
+        if (user != null) userWrites.put(user, until);
+    }
+
+    public boolean isSticky() {
+        var now = System.currentTimeMillis();
+        var threadUntil = threadWrite.get();
+        if (threadUntil != null && threadUntil > now) return true;
+
+        var user = currentUser();
+        var userUntil = user == null ? null : userWrites.get(user);
+        return userUntil != null && userUntil > now;
+    }
+
+    public void clearThread() {
+        threadWrite.remove();
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.sticky-window:PT5S}")
+    public void evictExpired() {
+        var now = System.currentTimeMillis();
+        userWrites.values().removeIf(until -> until <= now);
+    }
+
+    private static String currentUser() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) return null;
+        return authentication.getName();
+    }
+}
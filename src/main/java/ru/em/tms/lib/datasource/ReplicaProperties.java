@@ -0,0 +1,21 @@
+package ru.em.tms.lib.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("datasource.replicas")
+public record ReplicaProperties(List<Node> nodes,
+                                @DefaultValue("PT2S") Duration maxLag,
+                                @DefaultValue("PT5S") Duration stickyWindow,
+                                @DefaultValue("SHOW SLAVE STATUS") String lagQuery,
+                                @DefaultValue("Seconds_Behind_Master") String lagColumn) {
+    public ReplicaProperties {
+        nodes = nodes == null ? List.of() : List.copyOf(nodes);
+    }
+
+    public record Node(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,95 @@
+package ru.em.tms.lib.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Выбирает источник для read-only транзакций: реплики по очереди, пропуская отстающие больше
+ * {@code datasource.replicas.max-lag}. Основной сервер используется, если пользователь недавно записывал данные
+ * или подходящих реплик нет. До первой проверки отставания реплика считается отстающей.
+ */
+@Slf4j
+public class ReplicaRouter {
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+    private final ReplicaProperties properties;
+    private final ReadYourWrites readYourWrites;
+    private final Set<String> lagging = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRouter(List<DataSource> replicas, ReplicaProperties properties, ReadYourWrites readYourWrites) {
+        for (int i = 0; i < replicas.size(); i++) this.replicas.put("replica-" + i, replicas.get(i));
+        this.properties = properties;
+        this.readYourWrites = readYourWrites;
+        lagging.addAll(this.replicas.keySet());
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    public String lookupKey() {
+        if (readYourWrites.isSticky()) return PRIMARY;
+
+        var available = replicas.keySet().stream().filter(key -> !lagging.contains(key)).toList();
+        if (available.isEmpty()) return PRIMARY;
+        return available.get(Math.floorMod(next.getAndIncrement(), available.size()));
+    }
+
+    /**
+     * Источник для чтения, переключающийся между основным сервером и репликами по {@link #lookupKey()}.
+     */
+    public DataSource dataSource(DataSource primary) {
+        var routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return lookupKey();
+            }
+        };
+
+        var targets = new HashMap<Object, Object>(replicas);
+        targets.put(PRIMARY, primary);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-interval:PT5S}")
+    public void checkLag() {
+        replicas.forEach((key, dataSource) -> {
+            var lag = lag(dataSource);
+            if (lag != null && lag <= properties.maxLag().toSeconds()) {
+                if (lagging.remove(key)) log.info("Реплика {} снова используется для чтения", key);
+            } else if (lagging.add(key)) {
+                log.warn("Реплика {} исключена из чтения: отставание {} с", key, lag == null ? "неизвестно" : lag);
+            }
+        });
+    }
+
+    private Long lag(DataSource dataSource) {
+        try (var connection = dataSource.getConnection();
+             var statement = connection.createStatement();
+             var result = statement.executeQuery(properties.lagQuery())) {
+            if (!result.next()) return null;
+
+            var lag = result.getObject(properties.lagColumn());
+            return lag == null ? null : ((Number) lag).longValue();
+        } catch (SQLException e) {
+            log.warn("Не удалось проверить отставание реплики", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.em.tms.lib.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Номер шарда, на который идут запросы текущего потока. По умолчанию - шард 0 (основной сервер).
+ */
+public final class Shard {
+    public static final int PRIMARY = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private Shard() {
+    }
+
+    public static int current() {
+        var shard = CURRENT.get();
+        return shard == null ? PRIMARY : shard;
+    }
+
+    public static <T> T call(int shard, Supplier<T> action) {
+        var previous = enter(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static Integer enter(int shard) {
+        var previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) CURRENT.remove();
+        else CURRENT.set(previous);
+    }
+}
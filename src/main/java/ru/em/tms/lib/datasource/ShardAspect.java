@@ -0,0 +1,46 @@
+package ru.em.tms.lib.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Выставляет {@link Shard} по параметру с {@link ShardKey} до начала транзакции, поэтому соединение
+ * для нее берется уже с нужного шарда.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ShardAspect {
+    private final ShardRouter router;
+
+    @Around("execution(* ru.em.tms..*(.., @ru.em.tms.lib.datasource.ShardKey (*), ..))")
+    public Object useShard(ProceedingJoinPoint joinPoint) throws Throwable {
+        var targetClass = AopUtils.getTargetClass(joinPoint.getTarget());
+        var method = AopUtils.getMostSpecificMethod(((MethodSignature) joinPoint.getSignature()).getMethod(), targetClass);
+        var annotations = method.getParameterAnnotations();
+        var args = joinPoint.getArgs();
+        Integer shard = null;
+        for (int i = 0; i < annotations.length && shard == null; i++) {
+            for (var annotation : annotations[i]) {
+                if (annotation instanceof ShardKey shardKey && args[i] instanceof Number key)
+                    shard = shardKey.tenant() ? router.forTenant(key.longValue()) : router.forId(key.longValue());
+            }
+        }
+        if (shard == null) return joinPoint.proceed();
+
+        var previous = Shard.enter(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            Shard.restore(previous);
+        }
+    }
+}
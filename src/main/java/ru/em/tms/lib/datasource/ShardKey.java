@@ -0,0 +1,14 @@
+package ru.em.tms.lib.datasource;
+
+import java.lang.annotation.*;
+
+/**
+ * Идентификатор задачи или комментария, по которому выбирается шард для всего вызова метода.
+ * С {@code tenant = true} параметр - идентификатор проекта, и шард выбирается как для новых задач проекта.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ShardKey {
+    boolean tenant() default false;
+}
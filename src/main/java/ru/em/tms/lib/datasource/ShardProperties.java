@@ -0,0 +1,19 @@
+package ru.em.tms.lib.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Дополнительные шарды задач. Шард 0 - основной сервер ({@code spring.datasource.*}), узлы из списка получают
+ * номера 1, 2, ... по порядку.
+ */
+@ConfigurationProperties("datasource.shards")
+public record ShardProperties(List<Node> nodes) {
+    public ShardProperties {
+        nodes = nodes == null ? List.of() : List.copyOf(nodes);
+    }
+
+    public record Node(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,59 @@
+package ru.em.tms.lib.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Распределяет задачи по шардам. Новая задача попадает на шард своего проекта ({@link #forTenant(long)}),
+ * комментарии хранятся на шарде задачи. На шарде {@code i} автоинкремент настроен с
+ * {@code auto_increment_increment = count()} и {@code auto_increment_offset = i + 1}, поэтому шард записи
+ * определяется по ее идентификатору ({@link #forId(long)}) без справочника.
+ */
+public class ShardRouter {
+    private final List<DataSource> shards;
+
+    public ShardRouter(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    public int count() {
+        return shards.size() + 1;
+    }
+
+    public boolean isSharded() {
+        return !shards.isEmpty();
+    }
+
+    public int forTenant(long key) {
+        return Math.floorMod(key, count());
+    }
+
+    public int forId(long id) {
+        return Math.floorMod(id - 1, count());
+    }
+
+    /**
+     * Источник, выбирающий шард по {@link Shard#current()}. Шард 0 - переданный источник основного сервера.
+     */
+    public DataSource dataSource(DataSource primary) {
+        if (!isSharded()) return primary;
+
+        var routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return Shard.current();
+            }
+        };
+
+        var targets = new HashMap<Object, Object>();
+        targets.put(Shard.PRIMARY, primary);
+        for (int i = 0; i < shards.size(); i++) targets.put(i + 1, shards.get(i));
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+}
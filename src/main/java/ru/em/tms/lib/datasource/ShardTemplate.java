@@ -0,0 +1,172 @@
+package ru.em.tms.lib.datasource;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет действия на заданном шарде или на всех шардах по очереди, каждый шард - в своей транзакции.
+ * Без шардов действие выполняется сразу, в текущей транзакции.
+ */
+@Component
+public class ShardTemplate {
+    private static final String ID = "id";
+
+    private final ShardRouter router;
+    private final TransactionTemplate write;
+    private final TransactionTemplate read;
+
+    public ShardTemplate(ShardRouter router, PlatformTransactionManager transactionManager) {
+        this.router = router;
+        if (router.isSharded()) {
+            write = new TransactionTemplate(transactionManager);
+            write.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            read = new TransactionTemplate(transactionManager);
+            read.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            read.setReadOnly(true);
+        } else {
+            write = null;
+            read = null;
+        }
+    }
+
+    public boolean isSharded() {
+        return router.isSharded();
+    }
+
+    /**
+     * Число шардов вместе с основной БД; без шардов - 1.
+     */
+    public int count() {
+        return router.count();
+    }
+
+    public int forTenant(long key) {
+        return router.forTenant(key);
+    }
+
+    public <T> T execute(int shard, Supplier<T> action) {
+        return run(shard, write, action);
+    }
+
+    /**
+     * Выполняет чтение на каждом шарде и возвращает результаты в порядке шардов.
+     */
+    public <T> List<T> gather(Supplier<T> action) {
+        return all(read, action);
+    }
+
+    public <T> List<T> executeAll(Supplier<T> action) {
+        return all(write, action);
+    }
+
+    /**
+     * Страница по всем шардам. С каждого шарда читаются первые {@code offset + size} записей в том же порядке
+     * (с добавлением {@code id}, чтобы порядок был однозначным), записи сливаются по сортировке запроса,
+     * а общее количество складывается. Значения сортировки берутся через {@code property} до того,
+     * как запись преобразуется {@code mapper}.
+     */
+    public <E, T> Page<T> page(Pageable pageable, Function<Pageable, Page<E>> query,
+                               BiFunction<E, String, Object> property, Function<E, T> mapper) {
+        if (!isSharded()) return query.apply(pageable).map(mapper);
+
+        var sort = sort(pageable);
+        var shardPageable = pageable.isPaged()
+                ? PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+
+        var parts = gather(() -> {
+            var page = query.apply(shardPageable);
+            var rows = page.getContent().stream()
+                    .map(entity -> new Row<>(sort.stream().map(order -> property.apply(entity, order.getProperty())).toList(),
+                            mapper.apply(entity)))
+                    .toList();
+            return new Part<>(rows, page.getTotalElements());
+        });
+
+        var rows = parts.stream().flatMap(part -> part.rows().stream()).sorted(comparator(sort)).toList();
+        var total = parts.stream().mapToLong(Part::total).sum();
+        var content = pageable.isPaged()
+                ? rows.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).map(Row::value).toList()
+                : rows.stream().map(Row::value).toList();
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Сортировка, с которой {@link #page} читает шарды.
+     */
+    public Sort sort(Pageable pageable) {
+        return pageable.getSort().and(Sort.by(ID));
+    }
+
+    public static Object property(Object bean, String path) {
+        return new BeanWrapperImpl(bean).getPropertyValue(path);
+    }
+
+    private <T> List<T> all(TransactionTemplate transaction, Supplier<T> action) {
+        var results = new ArrayList<T>(router.count());
+        if (!isSharded()) {
+            results.add(action.get());
+            return results;
+        }
+
+        for (int shard = 0; shard < router.count(); shard++) results.add(run(shard, transaction, action));
+        return results;
+    }
+
+    private <T> T run(int shard, TransactionTemplate transaction, Supplier<T> action) {
+        if (!isSharded()) return action.get();
+        return Shard.call(shard, () -> transaction.execute(status -> action.get()));
+    }
+
+    private static <T> Comparator<Row<T>> comparator(Sort sort) {
+        var orders = sort.toList();
+        return (left, right) -> {
+            for (int i = 0; i < orders.size(); i++) {
+                var result = compare(orders.get(i), left.keys().get(i), right.keys().get(i));
+                if (result != 0) return result;
+            }
+            return 0;
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Sort.Order order, Object left, Object right) {
+        if (left == null || right == null) {
+            if (left == right) return 0;
+            // NATIVE - как в MySQL: NULL меньше любого значения
+            var nullsFirst = switch (order.getNullHandling()) {
+                case NULLS_FIRST -> true;
+                case NULLS_LAST -> false;
+                case NATIVE -> order.isAscending();
+            };
+            return (left == null) == nullsFirst ? -1 : 1;
+        }
+
+        var result = order.isIgnoreCase() && left instanceof String l && right instanceof String r
+                ? l.compareToIgnoreCase(r)
+                : ((Comparable) left).compareTo(right);
+        return order.isAscending() ? result : -result;
+    }
+
+    private record Row<T>(List<Object> keys, T value) {
+    }
+
+    private record Part<T>(List<Row<T>> rows, long total) {
+    }
+}
@@ -0,0 +1,14 @@
+package ru.em.tms.lib.datasource;
+
+import java.lang.annotation.*;
+
+/**
+ * Выполнять метод (или все методы класса) на пуле соединений указанного вида нагрузки.
+ * Аннотация метода важнее аннотации класса.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface UsePool {
+    Workload value();
+}
@@ -0,0 +1,42 @@
+package ru.em.tms.lib.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Вид нагрузки, для которой берется соединение. У каждого вида может быть свой пул
+ * ({@code datasource.pools.*}), чтобы фоновые задачи и проверка токенов не занимали соединения,
+ * нужные пользовательским запросам.
+ */
+public enum Workload {
+    INTERACTIVE,
+    BATCH,
+    AUTH;
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    public static Workload current() {
+        var workload = CURRENT.get();
+        return workload == null ? INTERACTIVE : workload;
+    }
+
+    public <T> T call(Supplier<T> action) {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static Workload enter(Workload workload) {
+        var previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    static void restore(Workload previous) {
+        if (previous == null) CURRENT.remove();
+        else CURRENT.set(previous);
+    }
+}
@@ -0,0 +1,35 @@
+package ru.em.tms.lib.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Выставляет {@link Workload} из {@link UsePool} до начала транзакции, поэтому соединение
+ * для нее берется уже из нужного пула.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WorkloadAspect {
+    @Around("@within(ru.em.tms.lib.datasource.UsePool) || @annotation(ru.em.tms.lib.datasource.UsePool)")
+    public Object usePool(ProceedingJoinPoint joinPoint) throws Throwable {
+        var targetClass = AopUtils.getTargetClass(joinPoint.getTarget());
+        var method = AopUtils.getMostSpecificMethod(((MethodSignature) joinPoint.getSignature()).getMethod(), targetClass);
+        var annotation = AnnotatedElementUtils.findMergedAnnotation(method, UsePool.class);
+        if (annotation == null) annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, UsePool.class);
+
+        var previous = Workload.enter(annotation.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            Workload.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.em.tms.lib.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Соединения основного сервера из пула текущего {@link Workload}. Виды нагрузки без своего пула
+ * используют интерактивный пул.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+    public WorkloadRoutingDataSource(DataSource interactive, Map<Workload, DataSource> pools) {
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(interactive);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Workload.current();
+    }
+}
@@ -0,0 +1,387 @@
+package ru.em.tms.lib.filter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сжимает ответы gzip, если клиент его поддерживает, тип содержимого подходит и тело не меньше порога.
+ * Первые {@code compression.min-size} байт буферизуются для принятия решения, дальше тело сжимается
+ * потоково, а {@code flush()} потоковых ответов (NDJSON, SSE) сразу отправляет сжатый блок клиенту.
+ * <p>
+ * Вместо {@code server.compression.*} используется фильтр: сжатие контейнера не позволяет задать уровень gzip
+ * и выполняется ниже сервлетов, поэтому объем до и после сжатия и затраченное время нельзя измерить, а по этим
+ * метрикам подбираются {@code compression.level} и {@code compression.min-size}.
+ * <p>
+ * Сжатый вариант ответа отдается со слабым ETag ({@code W/}), чтобы не совпадать побайтно с несжатым. Ответы
+ * с неблокирующей записью ({@link WriteListener}) не сжимаются и пишутся напрямую в поток контейнера.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class CompressionFilter extends OncePerRequestFilter {
+    public static final String INPUT = "tms.compression.input";
+    public static final String OUTPUT = "tms.compression.output";
+    public static final String TIME = "tms.compression.time";
+    private static final String GZIP = "gzip";
+    private static final String IDENTITY = "identity";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private final MeterRegistry meterRegistry;
+
+    @Value("${compression.enabled:true}")
+    private boolean enabled = true;
+    @Value("${compression.min-size:2048}")
+    private int minSize = 2048;
+    @Value("${compression.level:6}")
+    private int level = 6;
+    @Value("${compression.mime-types:application/json,application/x-ndjson,application/cbor}")
+    private String[] mimeTypes = {MediaType.APPLICATION_JSON_VALUE, NDJSON.toString(), MediaType.APPLICATION_CBOR_VALUE};
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || "HEAD".equals(request.getMethod()) || !acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        var wrapper = WebUtils.getNativeResponse(response, CompressingResponseWrapper.class);
+        if (wrapper == null) {
+            wrapper = new CompressingResponseWrapper(response);
+            response = wrapper;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            wrapper.discard();
+            throw e;
+        }
+        if (!request.isAsyncStarted()) wrapper.finish();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(String::trim)
+                .anyMatch(encoding -> {
+                    var parts = encoding.split(";");
+                    var name = parts[0].trim();
+                    var disabled = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+                    return !disabled && (name.equalsIgnoreCase(GZIP) || name.equals("*"));
+                });
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) return false;
+
+        var mediaType = MediaType.parseMediaType(contentType);
+        return Arrays.stream(mimeTypes).map(MediaType::parseMediaType).anyMatch(m -> m.includes(mediaType));
+    }
+
+    private static boolean isStreaming(String contentType) {
+        if (contentType == null) return false;
+
+        var mediaType = MediaType.parseMediaType(contentType);
+        return NDJSON.includes(mediaType) || MediaType.TEXT_EVENT_STREAM.includes(mediaType);
+    }
+
+    private final class CompressingResponseWrapper extends HttpServletResponseWrapper {
+        private final HttpServletResponse response;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream target;
+        private GZIPOutputStream gzip;
+        private CountingOutputStream compressed;
+        private ServletOutputStream outputStream;
+        private ServletOutputStream nonBlocking;
+        private PrintWriter writer;
+        private long input;
+        private long compressionNanos;
+        private boolean finished;
+
+        CompressingResponseWrapper(HttpServletResponse response) {
+            super(response);
+            this.response = response;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (writer != null) throw new IllegalStateException("getWriter() уже был вызван");
+            return body();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) throw new IllegalStateException("getOutputStream() уже был вызван");
+                writer = new PrintWriter(new OutputStreamWriter(body(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) super.addHeader(name, value);
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) super.setIntHeader(name, value);
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) super.addIntHeader(name, value);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) writer.flush();
+            flush();
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (target == null) {
+                buffer.reset();
+                input = 0;
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            super.reset();
+        }
+
+        private ServletOutputStream body() {
+            if (outputStream == null) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        CompressingResponseWrapper.this.write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(@NonNull byte[] b, int off, int len) throws IOException {
+                        CompressingResponseWrapper.this.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        CompressingResponseWrapper.this.flush();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return nonBlocking == null || nonBlocking.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        CompressingResponseWrapper.this.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        /**
+         * Неблокирующая запись несовместима с буферизацией и сжатием: одна запись в gzip может стать несколькими
+         * записями в поток контейнера. Поэтому тело пишется напрямую, без сжатия.
+         */
+        private synchronized void setWriteListener(WriteListener listener) {
+            if (target != null || buffer.size() > 0)
+                throw new IllegalStateException("WriteListener должен быть установлен до записи тела ответа");
+
+            try {
+                nonBlocking = response.getOutputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            target = nonBlocking;
+            nonBlocking.setWriteListener(listener);
+        }
+
+        private synchronized void write(byte[] b, int off, int len) throws IOException {
+            input += len;
+            if (target == null) {
+                buffer.write(b, off, len);
+                if (buffer.size() >= minSize) start();
+                return;
+            }
+            writeTarget(b, off, len);
+        }
+
+        private synchronized void flush() throws IOException {
+            if (target == null) {
+                if (!isStreaming(getContentType())) return;
+                start();
+            }
+
+            if (nonBlocking != null) {
+                nonBlocking.flush();
+                return;
+            }
+
+            if (gzip != null) {
+                var started = System.nanoTime();
+                gzip.flush();
+                compressionNanos += System.nanoTime() - started;
+            }
+            target.flush();
+            response.flushBuffer();
+        }
+
+        private void start() throws IOException {
+            if (isCompressible(getContentType()) && !response.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                var eTag = response.getHeader(HttpHeaders.ETAG);
+                if (eTag != null && !eTag.startsWith("W/")) response.setHeader(HttpHeaders.ETAG, "W/" + eTag);
+                compressed = new CountingOutputStream(response.getOutputStream());
+                gzip = new GZIPOutputStream(compressed, 8192, true) {
+                    {
+                        def.setLevel(level);
+                    }
+                };
+                target = gzip;
+            } else {
+                target = response.getOutputStream();
+            }
+
+            var buffered = buffer.toByteArray();
+            buffer.reset();
+            writeTarget(buffered, 0, buffered.length);
+        }
+
+        private void writeTarget(byte[] b, int off, int len) throws IOException {
+            if (gzip == null) {
+                target.write(b, off, len);
+                return;
+            }
+
+            var started = System.nanoTime();
+            gzip.write(b, off, len);
+            compressionNanos += System.nanoTime() - started;
+        }
+
+        /**
+         * Цепочка фильтров завершилась исключением: несжатое или незавершенное тело отбрасывается, если ответ еще
+         * не отправлен, чтобы обработчик ошибок мог записать свой ответ. Заголовки сжатия при этом тоже снимаются.
+         */
+        synchronized void discard() {
+            if (finished) return;
+            finished = true;
+            buffer.reset();
+            input = 0;
+            if (response.isCommitted()) return;
+
+            if (gzip != null) response.reset();
+            else response.resetBuffer();
+        }
+
+        synchronized void finish() throws IOException {
+            if (finished) return;
+            finished = true;
+            if (writer != null) writer.flush();
+
+            if (target == null) {
+                if (buffer.size() > 0) {
+                    response.setContentLength(buffer.size());
+                    buffer.writeTo(response.getOutputStream());
+                }
+                record(IDENTITY, input, input);
+                return;
+            }
+
+            if (gzip == null) {
+                record(IDENTITY, input, input);
+                return;
+            }
+
+            var started = System.nanoTime();
+            gzip.finish();
+            compressionNanos += System.nanoTime() - started;
+
+            record(GZIP, input, compressed.count);
+            Timer.builder(TIME)
+                    .tag("encoding", GZIP)
+                    .tag("level", String.valueOf(level))
+                    .register(meterRegistry)
+                    .record(compressionNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void record(String encoding, long input, long output) {
+            if (input == 0) return;
+
+            DistributionSummary.builder(INPUT).baseUnit("bytes").tag("encoding", encoding)
+                    .register(meterRegistry).record(input);
+            DistributionSummary.builder(OUTPUT).baseUnit("bytes").tag("encoding", encoding)
+                    .register(meterRegistry).record(output);
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(@NonNull byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
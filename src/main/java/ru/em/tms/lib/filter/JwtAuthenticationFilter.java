@@ -1,5 +1,9 @@
 package ru.em.tms.lib.filter;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,7 +18,9 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import ru.em.tms.lib.datasource.Workload;
 import ru.em.tms.service.util.JwtService;
+import ru.em.tms.service.util.TokenRevocationService;
 import ru.em.tms.service.UserService;
 
 import java.io.IOException;
@@ -24,8 +30,11 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     public static final String PREFIX = "Bearer ";
     public static final String HEADER = "Authorization";
+    public static final String OBSERVATION = "tms.jwt.filter";
     private final JwtService jwtService;
+    private final TokenRevocationService revocationService;
     private final UserService userService;
+    private final ObservationRegistry observationRegistry;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -37,28 +46,46 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        var jwt = authHeader.substring(PREFIX.length());
-        var username = jwtService.extractUserName(jwt);
+        var observation = Observation.createNotStarted(OBSERVATION, observationRegistry);
+        observation.observe(() -> {
+            var result = authenticate(request, authHeader.substring(PREFIX.length()));
+            observation.lowCardinalityKeyValue("result", result);
+        });
 
-        if (StringUtils.isNotEmpty(username) && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService
-                    .userDetailsService()
-                    .loadUserByUsername(username);
+        filterChain.doFilter(request, response);
+    }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                SecurityContext context = SecurityContextHolder.createEmptyContext();
+    private String authenticate(HttpServletRequest request, String jwt) {
+        Claims claims;
+        try {
+            claims = jwtService.parse(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return "invalid";
+        }
 
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
+        var username = claims.getSubject();
+        if (StringUtils.isEmpty(username) || SecurityContextHolder.getContext().getAuthentication() != null)
+            return "skipped";
+        if (revocationService.isRevoked(claims.getId())) return "revoked";
 
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                context.setAuthentication(authToken);
-                SecurityContextHolder.setContext(context);
-            }
-        }
-        filterChain.doFilter(request, response);
+        UserDetails userDetails = Workload.AUTH.call(() -> userService
+                .userDetailsService()
+                .loadUserByUsername(username));
+
+        if (!jwtService.isTokenValid(claims, userDetails)) return "invalid";
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        context.setAuthentication(authToken);
+        SecurityContextHolder.setContext(context);
+
+        return "authenticated";
     }
 }
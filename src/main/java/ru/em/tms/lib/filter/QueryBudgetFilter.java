@@ -0,0 +1,85 @@
+package ru.em.tms.lib.filter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.em.tms.lib.metrics.QueryCounter;
+
+import java.io.IOException;
+
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-Query-Count";
+    public static final String SUMMARY = "tms.request.queries";
+    private final MeterRegistry meterRegistry;
+
+    @Value("${query-budget.max-statements:10}")
+    private int maxStatements = 10;
+    @Value("${query-budget.max-repeats:5}")
+    private int maxRepeats = 5;
+    @Value("${query-budget.strict:false}")
+    private boolean strict;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        QueryCounter.start();
+        QueryCounter.Stats stats;
+        try {
+            filterChain.doFilter(request, new OnCommittedResponseWrapper(response) {
+                @Override
+                protected void onResponseCommitted() {
+                    response.setHeader(HEADER, String.valueOf(QueryCounter.current().getTotal()));
+                }
+            });
+        } finally {
+            stats = QueryCounter.stop();
+        }
+
+        if (!response.isCommitted()) response.setHeader(HEADER, String.valueOf(stats.getTotal()));
+
+        var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(SUMMARY)
+                .tag("method", request.getMethod())
+                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getTotal());
+
+        checkBudget(request.getMethod() + " " + request.getRequestURI(), stats);
+    }
+
+    private void checkBudget(String endpoint, QueryCounter.Stats stats) {
+        String violation = null;
+        var repeated = stats.getMostRepeated();
+
+        if (stats.getTotal() > maxStatements) {
+            violation = "%s выполнил %d SQL-запросов (лимит %d)".formatted(endpoint, stats.getTotal(), maxStatements);
+        } else if (repeated.getValue() > maxRepeats) {
+            violation = "%s выполнил одинаковый SQL-запрос %d раз (возможна проблема N+1): %s"
+                    .formatted(endpoint, repeated.getValue(), repeated.getKey());
+        }
+
+        if (violation == null) return;
+
+        log.warn(violation);
+        if (strict) throw new IllegalStateException(violation);
+    }
+}
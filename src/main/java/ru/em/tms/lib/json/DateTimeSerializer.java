@@ -0,0 +1,53 @@
+package ru.em.tms.lib.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Сериализует {@link LocalDateTime} в формате {@value #PATTERN}, записывая цифры напрямую в буфер
+ * вместо разбора шаблона {@link DateTimeFormatter} на каждое значение
+ */
+public class DateTimeSerializer extends StdSerializer<LocalDateTime> {
+    public static final String PATTERN = "yyyy-MM-dd HH:mm:ss";
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN);
+    private static final int LENGTH = PATTERN.length();
+
+    public DateTimeSerializer() {
+        super(LocalDateTime.class);
+    }
+
+    @Override
+    public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            gen.writeString(FORMATTER.format(value));
+            return;
+        }
+
+        var chars = new char[LENGTH];
+        digits(chars, 0, value.getYear(), 4);
+        chars[4] = '-';
+        digits(chars, 5, value.getMonthValue(), 2);
+        chars[7] = '-';
+        digits(chars, 8, value.getDayOfMonth(), 2);
+        chars[10] = ' ';
+        digits(chars, 11, value.getHour(), 2);
+        chars[13] = ':';
+        digits(chars, 14, value.getMinute(), 2);
+        chars[16] = ':';
+        digits(chars, 17, value.getSecond(), 2);
+
+        gen.writeString(chars, 0, LENGTH);
+    }
+
+    private static void digits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
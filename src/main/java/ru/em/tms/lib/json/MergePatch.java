@@ -0,0 +1,16 @@
+package ru.em.tms.lib.json;
+
+import java.util.Set;
+
+/**
+ * Тело запроса JSON Merge Patch (RFC 7396). {@code value} - DTO с переданными значениями,
+ * {@code fields} - имена свойств DTO, которые присутствовали в запросе. Отсутствующие свойства не изменяются,
+ * переданный {@code null} очищает значение.
+ */
+public record MergePatch<T>(T value, Set<String> fields) {
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    public boolean has(String field) {
+        return fields.contains(field);
+    }
+}
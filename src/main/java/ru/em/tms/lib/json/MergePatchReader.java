@@ -0,0 +1,53 @@
+package ru.em.tms.lib.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class MergePatchReader {
+    private final ObjectMapper mapper;
+    private final Validator validator;
+
+    /**
+     * Разбирает патч в DTO того же типа, что и у {@code PUT}. Переданные поля проверяются ограничениями DTO,
+     * поэтому, например, {@code "title": null} отклоняется так же, как пустой заголовок в полном запросе.
+     */
+    public <T> MergePatch<T> read(JsonNode patch, Class<T> type) {
+        if (patch == null || !patch.isObject()) throw new ValidationException("Тело запроса должно быть JSON-объектом");
+
+        var properties = mapper.getSerializationConfig().introspect(mapper.constructType(type)).findProperties().stream()
+                .collect(Collectors.toMap(BeanPropertyDefinition::getName, BeanPropertyDefinition::getInternalName));
+        var fields = new LinkedHashSet<String>();
+        patch.fieldNames().forEachRemaining(name -> {
+            var field = properties.get(name);
+            if (field == null) throw new ValidationException("Неизвестное поле: " + name);
+            fields.add(field);
+        });
+
+        T value;
+        try {
+            value = mapper.treeToValue(patch, type);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new ValidationException("Некорректное значение поля");
+        }
+
+        var violations = fields.stream()
+                .flatMap(field -> validator.validateProperty(value, field).stream())
+                .map(ConstraintViolation::getMessage)
+                .toList();
+        if (!violations.isEmpty()) throw new ValidationException(String.join(", ", violations));
+
+        return new MergePatch<>(value, fields);
+    }
+}
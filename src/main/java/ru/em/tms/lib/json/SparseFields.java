@@ -0,0 +1,50 @@
+package ru.em.tms.lib.json;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import jakarta.persistence.Tuple;
+import jakarta.validation.ValidationException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public final class SparseFields {
+    public static final String FILTER = "sparseFields";
+
+    private final Map<String, String> paths;
+
+    public SparseFields(Map<String, String> paths) {
+        this.paths = Map.copyOf(paths);
+    }
+
+    public Map<String, String> select(Set<String> fields) {
+        var selection = new LinkedHashMap<String, String>();
+        for (var field : fields) {
+            var path = paths.get(field);
+            if (path == null) throw new ValidationException("Неизвестное поле: " + field);
+            selection.put(field, path);
+        }
+        return selection;
+    }
+
+    public static boolean isRequested(Set<String> fields) {
+        return fields != null && !fields.isEmpty();
+    }
+
+    public static <T> T get(Tuple tuple, String field, Class<T> type) {
+        for (var element : tuple.getElements()) {
+            if (field.equals(element.getAlias())) return tuple.get(field, type);
+        }
+        return null;
+    }
+
+    public static FilterProvider filterProvider() {
+        return new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+    }
+
+    public static FilterProvider filterProvider(Set<String> fields) {
+        return new SimpleFilterProvider().addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+}
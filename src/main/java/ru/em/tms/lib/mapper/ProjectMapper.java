@@ -0,0 +1,21 @@
+package ru.em.tms.lib.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import ru.em.tms.model.db.Project;
+import ru.em.tms.model.db.User;
+import ru.em.tms.model.dto.project.ProjectGetDTO;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Mapper(componentModel = "spring")
+public interface ProjectMapper {
+    @Mapping(source = "author.id", target = "authorId")
+    @Mapping(source = "members", target = "memberIds")
+    ProjectGetDTO sourceToDestination(Project project);
+
+    default Set<Integer> memberIds(Set<User> members) {
+        return members == null ? null : members.stream().map(User::getId).collect(Collectors.toSet());
+    }
+}
@@ -2,6 +2,7 @@ package ru.em.tms.lib.mapper;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import ru.em.tms.model.db.ArchivedTask;
 import ru.em.tms.model.db.Task;
 import ru.em.tms.model.dto.task.TaskGetDTO;
 
@@ -9,5 +10,11 @@ import ru.em.tms.model.dto.task.TaskGetDTO;
 public interface TaskMapper {
     @Mapping(source = "author.id", target = "authorId")
     @Mapping(source = "executor.id", target = "executorId")
+    @Mapping(source = "project.id", target = "projectId")
     TaskGetDTO sourceToDestination(Task task);
+
+    @Mapping(source = "author.id", target = "authorId")
+    @Mapping(source = "executor.id", target = "executorId")
+    @Mapping(source = "project.id", target = "projectId")
+    TaskGetDTO archivedToDestination(ArchivedTask task);
 }
@@ -0,0 +1,56 @@
+package ru.em.tms.lib.metrics;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Наблюдения за вызовами сервисов и репозиториев: из каждого получается таймер и span трассировки
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class LayerObservationAspect {
+    public static final String SERVICE = "tms.service";
+    public static final String REPOSITORY = "tms.repository";
+    private final ObservationRegistry observationRegistry;
+
+    @Around("within(ru.em.tms.service..*) && execution(public * *(..))")
+    public Object observeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(SERVICE, joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object observeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        var interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+        var repository = interfaces.length > 0 && Repository.class.isAssignableFrom(interfaces[0])
+                ? interfaces[0]
+                : joinPoint.getSignature().getDeclaringType();
+
+        return observe(REPOSITORY, repository.getSimpleName(), joinPoint);
+    }
+
+    private Object observe(String name, String className, ProceedingJoinPoint joinPoint) throws Throwable {
+        var method = joinPoint.getSignature().getName();
+        var observation = Observation.createNotStarted(name, observationRegistry)
+                .contextualName(className + "#" + method)
+                .lowCardinalityKeyValue("class", className)
+                .lowCardinalityKeyValue("method", method)
+                .start();
+
+        try (var ignored = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+}
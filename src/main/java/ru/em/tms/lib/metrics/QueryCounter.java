@@ -0,0 +1,51 @@
+package ru.em.tms.lib.metrics;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@UtilityClass
+public class QueryCounter {
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    public static void start() {
+        CURRENT.set(new Stats());
+    }
+
+    public static Stats stop() {
+        var stats = CURRENT.get();
+        CURRENT.remove();
+        return stats == null ? new Stats() : stats;
+    }
+
+    public static Stats current() {
+        var stats = CURRENT.get();
+        return stats == null ? new Stats() : stats;
+    }
+
+    static void record(String sql) {
+        var stats = CURRENT.get();
+        if (stats != null) stats.record(sql);
+    }
+
+    public static final class Stats {
+        private final Map<String, Integer> statements = new HashMap<>();
+        private int total;
+
+        private void record(String sql) {
+            total++;
+            statements.merge(sql, 1, Integer::sum);
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public Map.Entry<String, Integer> getMostRepeated() {
+            return statements.entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .orElse(Map.entry("", 0));
+        }
+    }
+}
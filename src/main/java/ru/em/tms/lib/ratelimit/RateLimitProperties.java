@@ -0,0 +1,21 @@
+package ru.em.tms.lib.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@ConfigurationProperties("rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue Budget defaults,
+                                  Map<String, Budget> endpoints) {
+    public RateLimitProperties {
+        endpoints = endpoints == null ? Map.of() : new LinkedHashMap<>(endpoints);
+    }
+
+    public record Budget(@DefaultValue("300") long capacity,
+                         @DefaultValue("PT1M") Duration period) {
+    }
+}
@@ -0,0 +1,53 @@
+package ru.em.tms.lib.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimiter {
+    private static final String DEFAULT_BUDGET = "*";
+
+    private final RateLimitProperties properties;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public long tryAcquire(String path, String client) {
+        if (!properties.enabled()) return 0;
+
+        var budgetName = DEFAULT_BUDGET;
+        var budget = properties.defaults();
+        for (var endpoint : properties.endpoints().entrySet()) {
+            if (matcher.match(endpoint.getKey(), path)) {
+                budgetName = endpoint.getKey();
+                budget = endpoint.getValue();
+                break;
+            }
+        }
+
+        var bucket = buckets.computeIfAbsent(budgetName + '|' + client, k -> new AtomicLong(Long.MIN_VALUE));
+        var period = budget.period().toNanos();
+        var interval = period / budget.capacity();
+
+        while (true) {
+            var now = System.nanoTime();
+            var current = bucket.get();
+            var next = Math.max(current, now) + interval;
+            var excess = next - now - period;
+            if (excess > 0) return excess;
+            if (bucket.compareAndSet(current, next)) return 0;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.cleanup-interval:PT1M}")
+    public void evictIdle() {
+        var now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() < now);
+    }
+}
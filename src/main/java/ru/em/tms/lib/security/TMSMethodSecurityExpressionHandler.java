@@ -8,9 +8,10 @@ import org.springframework.security.access.expression.method.MethodSecurityExpre
 import org.springframework.security.authentication.AuthenticationTrustResolver;
 import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
 import org.springframework.security.core.Authentication;
+import ru.em.tms.lib.datasource.ShardRouter;
 import ru.em.tms.repo.CommentRepo;
 import ru.em.tms.repo.TaskRepo;
-import ru.em.tms.repo.UserRepo;
+import ru.em.tms.service.util.ProjectMembershipService;
 
 import java.util.function.Supplier;
 
@@ -19,12 +20,14 @@ public class TMSMethodSecurityExpressionHandler extends DefaultMethodSecurityExp
     private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
     private final TaskRepo taskRepo;
     private final CommentRepo commentRepo;
-    private final UserRepo userRepo;
+    private final ShardRouter shardRouter;
+    private final ProjectMembershipService membershipService;
 
     @Override
     protected MethodSecurityExpressionOperations createSecurityExpressionRoot(
             Authentication authentication, MethodInvocation invocation) {
-        TMSMethodSecurityExpressionRoot root = new TMSMethodSecurityExpressionRoot(taskRepo, commentRepo, userRepo, authentication);
+        TMSMethodSecurityExpressionRoot root = new TMSMethodSecurityExpressionRoot(taskRepo, commentRepo, shardRouter,
+                membershipService, authentication);
         root.setPermissionEvaluator(getPermissionEvaluator());
         root.setTrustResolver(this.trustResolver);
         root.setRoleHierarchy(getRoleHierarchy());
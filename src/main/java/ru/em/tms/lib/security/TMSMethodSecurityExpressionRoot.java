@@ -1,67 +1,53 @@
 package ru.em.tms.lib.security;
 
-import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.expression.SecurityExpressionRoot;
 import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import ru.em.tms.model.db.User;
+import ru.em.tms.lib.datasource.Shard;
+import ru.em.tms.lib.datasource.ShardRouter;
 import ru.em.tms.repo.CommentRepo;
 import ru.em.tms.repo.TaskRepo;
-import ru.em.tms.repo.UserRepo;
-
-import java.util.Objects;
+import ru.em.tms.service.util.ProjectMembershipService;
 
 public class TMSMethodSecurityExpressionRoot extends SecurityExpressionRoot implements MethodSecurityExpressionOperations {
     private final TaskRepo taskRepo;
     private final CommentRepo commentRepo;
-    private final UserRepo userRepo;
+    private final ShardRouter shardRouter;
+    private final ProjectMembershipService membershipService;
 
-    public TMSMethodSecurityExpressionRoot(TaskRepo taskRepo, CommentRepo commentRepo, UserRepo userRepo, Authentication authentication) {
+    public TMSMethodSecurityExpressionRoot(TaskRepo taskRepo, CommentRepo commentRepo, ShardRouter shardRouter,
+                                          ProjectMembershipService membershipService, Authentication authentication) {
         super(authentication);
 
         this.taskRepo = taskRepo;
         this.commentRepo = commentRepo;
-        this.userRepo = userRepo;
+        this.shardRouter = shardRouter;
+        this.membershipService = membershipService;
     }
 
-    public boolean isTaskMember(Long taskId) {
-        final User user = userRepo.findByEmail(((UserDetails) this.getPrincipal()).getUsername())
-                .orElseThrow(() -> new AccessDeniedException("Отказано в доступе"));
+    public boolean isProjectMember(Long projectId) {
+        return membershipService.isMember(projectId, ((UserDetails) this.getPrincipal()).getUsername());
+    }
 
-        try {
-            taskRepo.findById(taskId).ifPresentOrElse(t -> {
-                if(!Objects.equals(t.getAuthor().getId(), user.getId()) && (t.getExecutor() == null
-                        || !Objects.equals(t.getExecutor().getId(), user.getId()))) {
-                    throw new AccessDeniedException("Отказано в доступе");
-                }
-            }, () -> {
-                throw new AccessDeniedException("Отказано в доступе");
-            });
-        } catch (AccessDeniedException e) {
-            return false;
-        }
+    /**
+     * Чтение задачи доступно участникам ее проекта: проект задачи читается по первичному ключу,
+     * членство берется из кэша {@link ProjectMembershipService}.
+     */
+    public boolean isTaskProjectMember(Long taskId) {
+        return Shard.call(shardRouter.forId(taskId), () -> taskRepo.findProjectId(taskId))
+                .map(this::isProjectMember)
+                .orElse(false);
+    }
 
-        return true;
+    public boolean isTaskMember(Long taskId) {
+        return Shard.call(shardRouter.forId(taskId),
+                () -> taskRepo.isMember(taskId, ((UserDetails) this.getPrincipal()).getUsername()));
     }
 
     public boolean isCommentAuthor(Long commentId) {
-        final User user = userRepo.findByEmail(((UserDetails) this.getPrincipal()).getUsername())
-                .orElseThrow(() -> new AccessDeniedException("Отказано в доступе"));
-
-        try {
-            commentRepo.findById(commentId).ifPresentOrElse(t -> {
-                if(!Objects.equals(t.getAuthor().getId(), user.getId())) {
-                    throw new AccessDeniedException("Отказано в доступе");
-                }
-            }, () -> {
-                throw new AccessDeniedException("Отказано в доступе");
-            });
-        } catch (AccessDeniedException e) {
-            return false;
-        }
-
-        return true;
+        return Shard.call(shardRouter.forId(commentId),
+                () -> commentRepo.isAuthor(commentId, ((UserDetails) this.getPrincipal()).getUsername()));
     }
 
     @Override
@@ -5,11 +5,16 @@ import org.springframework.data.jpa.domain.Specification;
 import ru.em.tms.model.db.Comment;
 import ru.em.tms.model.db.Task;
 
+import java.time.LocalDateTime;
+
 @UtilityClass
 public class CommentSpecifications {
     public static Specification<Comment> byTask(Task task) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("task"), task);
     }
+    public static Specification<Comment> createdSince(LocalDateTime from) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
     public static Specification<Comment> byId(Long id) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("id"), id);
     }
@@ -4,13 +4,24 @@ import lombok.experimental.UtilityClass;
 import org.springframework.data.jpa.domain.Specification;
 import ru.em.tms.model.db.Task;
 
+/**
+ * Условия по полям задачи. Кроме {@link #byId}, подходят и для {@link ru.em.tms.model.db.ArchivedTask}.
+ */
 @UtilityClass
 public class TaskSpecifications {
-    public static Specification<Task> byAuthorId(Integer authorId) {
+    public static Specification<Task> byId(Long id) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("id"), id);
+    }
+
+    public static <T> Specification<T> byProjectId(Long projectId) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("project").get("id"), projectId);
+    }
+
+    public static <T> Specification<T> byAuthorId(Integer authorId) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("author").get("id"), authorId);
     }
 
-    public static Specification<Task> byExecutorId(Integer executorId) {
+    public static <T> Specification<T> byExecutorId(Integer executorId) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("executor").get("id"), executorId);
     }
 }
@@ -0,0 +1,12 @@
+package ru.em.tms.lib.specification;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.data.jpa.domain.Specification;
+import ru.em.tms.model.db.User;
+
+@UtilityClass
+public class UserSpecifications {
+    public static Specification<User> byId(Integer id) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("id"), id);
+    }
+}
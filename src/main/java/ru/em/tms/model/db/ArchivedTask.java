@@ -0,0 +1,42 @@
+package ru.em.tms.model.db;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import ru.em.tms.model.enums.task.Priority;
+import ru.em.tms.model.enums.task.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * Закрытая задача, перенесенная из {@code tasks} архиватором. Записи только читаются.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Immutable
+@Table(name = "tasks_archive")
+public class ArchivedTask implements IEntity<Long> {
+    @Id
+    private Long id;
+    private String title;
+    private String description;
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    @Enumerated(EnumType.STRING)
+    private Priority priority;
+    @ManyToOne
+    private User author;
+    @ManyToOne
+    private User executor;
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Project project;
+    private Long version;
+    private Integer commentCount;
+    private LocalDateTime lastActivityAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime archivedAt;
+}
@@ -2,6 +2,7 @@ package ru.em.tms.model.db;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name = "comments")
 public class Comment extends AuditEntity<Long> {
     @Id
@@ -18,6 +20,8 @@ public class Comment extends AuditEntity<Long> {
     private String content;
     @ManyToOne
     private Task task;
+    @Version
+    private Long version;
 
     @Builder
     public Comment(LocalDateTime createdAt, LocalDateTime updatedAt, User author, Long id, String content, Task task) {
@@ -0,0 +1,39 @@
+package ru.em.tms.model.db;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+@EqualsAndHashCode(callSuper = true, exclude = "members")
+@ToString(exclude = "members")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@DynamicUpdate
+@Table(name = "projects")
+public class Project extends AuditEntity<Long> {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String name;
+    @ManyToMany
+    @BatchSize(size = 100)
+    @JoinTable(name = "project_members",
+            joinColumns = @JoinColumn(name = "project_id"),
+            inverseJoinColumns = @JoinColumn(name = "user_id"))
+    private Set<User> members = new HashSet<>();
+
+    @Builder
+    public Project(LocalDateTime createdAt, LocalDateTime updatedAt, User author, Long id, String name, Set<User> members) {
+        super(createdAt, updatedAt, author);
+        this.id = id;
+        this.name = name;
+        this.members = members == null ? new HashSet<>() : members;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.em.tms.model.db;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "signing_keys")
+public class SigningKey implements IEntity<String> {
+    @Id
+    private String id;
+    @Column(length = 4096)
+    private String privateKey;
+    @Column(length = 1024)
+    private String publicKey;
+    private LocalDateTime createdAt;
+}
@@ -2,6 +2,8 @@ package ru.em.tms.model.db;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
 import ru.em.tms.model.enums.task.Priority;
 import ru.em.tms.model.enums.task.Status;
 
@@ -14,6 +16,8 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
+@SQLRestriction("deleted_at is null")
 @Table(name = "tasks")
 public class Task extends AuditEntity<Long> {
     @Id
@@ -27,11 +31,22 @@ public class Task extends AuditEntity<Long> {
     private Priority priority;
     @ManyToOne
     private User executor;
-    @OneToMany(mappedBy = "task", cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(updatable = false)
+    private Project project;
+    @Version
+    private Long version;
+    @Column(updatable = false)
+    private Integer commentCount = 0;
+    @Column(updatable = false)
+    private LocalDateTime lastActivityAt;
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
+    @OneToMany(mappedBy = "task")
     private List<Comment> comments = new ArrayList<>();
 
     @Builder
-    public Task(LocalDateTime createdAt, LocalDateTime updatedAt, User author, Long id, String title, String description, Status status, Priority priority, User executor, List<Comment> comments) {
+    public Task(LocalDateTime createdAt, LocalDateTime updatedAt, User author, Long id, String title, String description, Status status, Priority priority, User executor, Project project, List<Comment> comments) {
         super(createdAt, updatedAt, author);
         this.id = id;
         this.title = title;
@@ -39,6 +54,12 @@ public class Task extends AuditEntity<Long> {
         this.status = status;
         this.priority = priority;
         this.executor = executor;
+        this.project = project;
         this.comments = comments;
     }
+
+    @PrePersist
+    public void initActivity() {
+        if (lastActivityAt == null) lastActivityAt = getCreatedAt();
+    }
 }
@@ -0,0 +1,47 @@
+package ru.em.tms.model.db;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.em.tms.model.enums.task.Priority;
+import ru.em.tms.model.enums.task.Status;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "task_counters")
+public class TaskCounter implements IEntity<Long> {
+    public static final int NO_EXECUTOR = 0;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Integer authorId;
+    private Integer executorId;
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    @Enumerated(EnumType.STRING)
+    private Priority priority;
+    private Long taskCount;
+
+    public TaskCounter(Integer authorId, Integer executorId, Status status, Priority priority, Long taskCount) {
+        this(null, authorId, executorId, status, priority, taskCount);
+    }
+
+    public Key key() {
+        return new Key(authorId, executorId, status, priority);
+    }
+
+    public record Key(Integer authorId, Integer executorId, Status status, Priority priority) {
+        public static Key of(Task task) {
+            return new Key(task.getAuthor().getId(),
+                    task.getExecutor() == null ? NO_EXECUTOR : task.getExecutor().getId(),
+                    task.getStatus(),
+                    task.getPriority());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.em.tms.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Schema(name = "RefreshToken")
+@Value
+@Jacksonized
+@Builder
+public class RefreshTokenDTO implements IDTO {
+    @Schema(description = "Refresh-токен", example = "q3Yx0d7kM2cV9pLr8nE4tWbZ1aF6hJ5sG0uK3oPiQ2w")
+    @JsonProperty("refresh_token")
+    @NotBlank(message = "Refresh-токен не может быть пустым")
+    String refreshToken;
+}
@@ -1,10 +1,14 @@
 package ru.em.tms.model.dto.comment;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Value;
+import ru.em.tms.lib.json.DateTimeSerializer;
+import ru.em.tms.lib.json.SparseFields;
 import ru.em.tms.model.dto.IDTO;
 
 import java.time.LocalDateTime;
@@ -12,6 +16,7 @@ import java.time.LocalDateTime;
 @Schema(description = "CommentGet")
 @Value
 @Builder
+@JsonFilter(SparseFields.FILTER)
 public class CommentGetDTO implements IDTO {
     @Schema(description = "Идентификатор комментария", example = "1")
     Long id;
@@ -23,12 +28,16 @@ public class CommentGetDTO implements IDTO {
     @Schema(description = "Автор", example = "1")
     @JsonProperty("author_id")
     Integer authorId;
+    @Schema(description = "Версия, увеличивается при каждом изменении", example = "0")
+    Long version;
     @Schema(description = "Дата создания", example = "2024-11-19 00:00:00")
     @JsonProperty("created_at")
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DateTimeSerializer.PATTERN)
+    @JsonSerialize(using = DateTimeSerializer.class)
     LocalDateTime createdAt;
     @Schema(description = "Дата обновления", example = "2024-11-19 23:59:59")
     @JsonProperty("updated_at")
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DateTimeSerializer.PATTERN)
+    @JsonSerialize(using = DateTimeSerializer.class)
     LocalDateTime updatedAt;
 }
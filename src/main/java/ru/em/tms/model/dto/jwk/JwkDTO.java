@@ -0,0 +1,24 @@
+package ru.em.tms.model.dto.jwk;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import ru.em.tms.model.dto.IDTO;
+
+@Schema(description = "Jwk")
+@Value
+@Builder
+public class JwkDTO implements IDTO {
+    @Schema(description = "Тип ключа", example = "RSA")
+    String kty;
+    @Schema(description = "Идентификатор ключа", example = "0b6d3c1e-8f43-4a57-9d0e-4b3f8f0f4c2a")
+    String kid;
+    @Schema(description = "Назначение ключа", example = "sig")
+    String use;
+    @Schema(description = "Алгоритм подписи", example = "RS256")
+    String alg;
+    @Schema(description = "Модуль (base64url)")
+    String n;
+    @Schema(description = "Экспонента (base64url)", example = "AQAB")
+    String e;
+}
@@ -0,0 +1,16 @@
+package ru.em.tms.model.dto.jwk;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import ru.em.tms.model.dto.IDTO;
+
+import java.util.List;
+
+@Schema(description = "JwkSet")
+@Value
+@AllArgsConstructor(staticName = "of")
+public class JwkSetDTO implements IDTO {
+    @Schema(description = "Список открытых ключей для проверки JWT-токенов")
+    List<JwkDTO> keys;
+}
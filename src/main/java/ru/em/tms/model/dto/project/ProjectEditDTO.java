@@ -0,0 +1,26 @@
+package ru.em.tms.model.dto.project;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Value;
+import ru.em.tms.model.dto.IDTO;
+
+import java.util.Set;
+
+@Schema(description = "ProjectEdit")
+@Value
+@Builder
+public class ProjectEditDTO implements IDTO {
+    @Schema(description = "Название", example = "Тест")
+    @NotBlank(message = "Название не может быть пустым")
+    @Size(max = 255, message = "Название должно содержать не более 255 символов")
+    String name;
+    @Schema(description = "Участники", example = "[1, 2]")
+    @JsonProperty("member_ids")
+    @NotNull(message = "Участники должны быть указаны")
+    Set<Integer> memberIds;
+}
@@ -0,0 +1,39 @@
+package ru.em.tms.model.dto.project;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import ru.em.tms.lib.json.DateTimeSerializer;
+import ru.em.tms.model.dto.IDTO;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Schema(description = "ProjectGet")
+@Value
+@Builder
+public class ProjectGetDTO implements IDTO {
+    @Schema(description = "Идентификатор проекта", example = "1")
+    Long id;
+    @Schema(description = "Название", example = "Тест")
+    String name;
+    @Schema(description = "Автор", example = "1")
+    @JsonProperty("author_id")
+    Integer authorId;
+    @Schema(description = "Участники", example = "[1, 2]")
+    @JsonProperty("member_ids")
+    Set<Integer> memberIds;
+    @Schema(description = "Дата создания", example = "2024-11-19 00:00:00")
+    @JsonProperty("created_at")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DateTimeSerializer.PATTERN)
+    @JsonSerialize(using = DateTimeSerializer.class)
+    LocalDateTime createdAt;
+    @Schema(description = "Дата обновления", example = "2024-11-19 23:59:59")
+    @JsonProperty("updated_at")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DateTimeSerializer.PATTERN)
+    @JsonSerialize(using = DateTimeSerializer.class)
+    LocalDateTime updatedAt;
+}
@@ -0,0 +1,31 @@
+package ru.em.tms.model.dto.task;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import ru.em.tms.model.dto.IDTO;
+import ru.em.tms.model.enums.task.Priority;
+import ru.em.tms.model.enums.task.Status;
+
+import java.util.Map;
+
+@Schema(description = "TaskCounters")
+@Value
+@Builder
+public class TaskCountersDTO implements IDTO {
+    @Schema(description = "Всего задач", example = "42")
+    Long total;
+    @Schema(description = "Количество задач по статусам", example = "{\"NEW\": 30, \"DONE\": 12}")
+    @JsonProperty("by_status")
+    Map<Status, Long> byStatus;
+    @Schema(description = "Количество задач по приоритетам и статусам", example = "{\"LOW\": {\"NEW\": 30}}")
+    @JsonProperty("by_priority")
+    Map<Priority, Map<Status, Long>> byPriority;
+    @Schema(description = "Количество задач по исполнителям и статусам, 0 — задачи без исполнителя", example = "{\"1\": {\"NEW\": 30}}")
+    @JsonProperty("by_executor")
+    Map<Integer, Map<Status, Long>> byExecutor;
+    @Schema(description = "Количество задач по авторам и статусам", example = "{\"1\": {\"NEW\": 30}}")
+    @JsonProperty("by_author")
+    Map<Integer, Map<Status, Long>> byAuthor;
+}
@@ -25,4 +25,8 @@ public class TaskCreateDTO implements IDTO {
     @JsonProperty("executor_id")
     @NotNull(message = "Исполнитель должен быть выбран")
     Integer executorId;
+    @Schema(description = "Проект", example = "1")
+    @JsonProperty("project_id")
+    @NotNull(message = "Проект должен быть выбран")
+    Long projectId;
 }
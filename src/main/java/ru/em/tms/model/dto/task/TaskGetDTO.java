@@ -1,10 +1,14 @@
 package ru.em.tms.model.dto.task;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Value;
+import ru.em.tms.lib.json.DateTimeSerializer;
+import ru.em.tms.lib.json.SparseFields;
 import ru.em.tms.model.dto.IDTO;
 import ru.em.tms.model.enums.task.Priority;
 import ru.em.tms.model.enums.task.Status;
@@ -14,6 +18,7 @@ import java.time.LocalDateTime;
 @Schema(description = "TaskGet")
 @Value
 @Builder
+@JsonFilter(SparseFields.FILTER)
 public class TaskGetDTO implements IDTO {
     @Schema(description = "Идентификатор задачи", example = "1")
     Long id;
@@ -30,13 +35,28 @@ public class TaskGetDTO implements IDTO {
     Integer authorId;
     @Schema(description = "Дата создания", example = "2024-11-19 00:00:00")
     @JsonProperty("created_at")
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DateTimeSerializer.PATTERN)
+    @JsonSerialize(using = DateTimeSerializer.class)
     LocalDateTime createdAt;
     @Schema(description = "Дата обновления", example = "2024-11-19 23:59:59")
     @JsonProperty("updated_at")
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DateTimeSerializer.PATTERN)
+    @JsonSerialize(using = DateTimeSerializer.class)
     LocalDateTime updatedAt;
     @Schema(description = "Исполнитель", example = "1")
     @JsonProperty("executor_id")
     Integer executorId;
+    @Schema(description = "Проект", example = "1")
+    @JsonProperty("project_id")
+    Long projectId;
+    @Schema(description = "Версия, увеличивается при каждом изменении", example = "0")
+    Long version;
+    @Schema(description = "Количество комментариев", example = "3")
+    @JsonProperty("comment_count")
+    Integer commentCount;
+    @Schema(description = "Дата последней активности: создания задачи или последнего комментария", example = "2024-11-19 23:59:59")
+    @JsonProperty("last_activity_at")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DateTimeSerializer.PATTERN)
+    @JsonSerialize(using = DateTimeSerializer.class)
+    LocalDateTime lastActivityAt;
 }
@@ -0,0 +1,6 @@
+package ru.em.tms.model.event;
+
+import java.util.Set;
+
+public record ProjectMembersChangedEvent(Set<String> emails) {
+}
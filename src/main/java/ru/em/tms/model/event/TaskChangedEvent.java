@@ -0,0 +1,13 @@
+package ru.em.tms.model.event;
+
+import ru.em.tms.model.db.TaskCounter;
+
+public record TaskChangedEvent(Long taskId, TaskCounter.Key before, TaskCounter.Key after) {
+    public static TaskChangedEvent created(Long taskId, TaskCounter.Key after) {
+        return new TaskChangedEvent(taskId, null, after);
+    }
+
+    public static TaskChangedEvent deleted(Long taskId, TaskCounter.Key before) {
+        return new TaskChangedEvent(taskId, before, null);
+    }
+}
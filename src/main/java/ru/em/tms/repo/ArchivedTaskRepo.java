@@ -0,0 +1,26 @@
+package ru.em.tms.repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.em.tms.model.db.ArchivedTask;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ArchivedTaskRepo extends JpaRepository<ArchivedTask, Long>, JpaSpecificationExecutor<ArchivedTask> {
+    @Modifying
+    @Query(value = "insert into tasks_archive (id, project_id, title, description, status, priority, executor_id, " +
+            "author_id, created_at, updated_at, comment_count, last_activity_at, version, archived_at) " +
+            "select id, project_id, title, description, status, priority, executor_id, author_id, created_at, " +
+            "updated_at, comment_count, last_activity_at, version, :at from tasks where id in (:ids)", nativeQuery = true)
+    int copyTasks(@Param("ids") Collection<Long> ids, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @Query(value = "insert into comments_archive (id, task_id, content, author_id, created_at, updated_at, version, archived_at) " +
+            "select id, task_id, content, author_id, created_at, updated_at, version, :at from comments " +
+            "where task_id in (:ids)", nativeQuery = true)
+    int copyComments(@Param("ids") Collection<Long> taskIds, @Param("at") LocalDateTime at);
+}
@@ -2,7 +2,47 @@ package ru.em.tms.repo;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.em.tms.model.db.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+
 public interface CommentRepo extends JpaRepository<Comment, Long>, JpaSpecificationExecutor<Comment> {
+    /**
+     * Автор комментария, если задача комментария не удалена.
+     */
+    @Query("select case when count(c) > 0 then true else false end from Comment c " +
+            "where c.id = :id and c.author.email = :email and exists (select t.id from Task t where t.id = c.task.id)")
+    boolean isAuthor(@Param("id") Long id, @Param("email") String email);
+
+    @Modifying
+    @Query("delete from Comment c where c.task.id in :taskIds")
+    int deleteAllByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    @Modifying
+    @Query("delete from Comment c where c.id = :id and c.task.id = :taskId " +
+            "and exists (select t.id from Task t where t.id = :taskId)")
+    int deleteFromTask(@Param("taskId") Long taskId, @Param("id") Long id);
+
+    /**
+     * Меняет текст комментария, если его задача не удалена. Версия увеличивается, а если передана
+     * {@code version}, строка обновляется только при совпадении версии.
+     */
+    @Modifying
+    @Query("update Comment c set c.content = :content, c.updatedAt = :at, c.version = c.version + 1 " +
+            "where c.id = :id and c.task.id = :taskId and (:version is null or c.version = :version) " +
+            "and exists (select t.id from Task t where t.id = :taskId)")
+    int updateContent(@Param("taskId") Long taskId, @Param("id") Long id, @Param("content") String content,
+                      @Param("version") Long version, @Param("at") LocalDateTime at);
+
+    @Query("select case when count(c) > 0 then true else false end from Comment c " +
+            "where c.id = :id and c.task.id = :taskId and exists (select t.id from Task t where t.id = :taskId)")
+    boolean existsInTask(@Param("taskId") Long taskId, @Param("id") Long id);
+
+    @Modifying
+    @Query(value = "delete from comments where task_id in (:taskIds) limit :limit", nativeQuery = true)
+    int purgeByTaskIds(@Param("taskIds") Collection<Long> taskIds, @Param("limit") int limit);
 }
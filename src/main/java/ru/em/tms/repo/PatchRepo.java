@@ -0,0 +1,44 @@
+package ru.em.tms.repo;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+import ru.em.tms.model.db.AuditEntity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class PatchRepo {
+    private final EntityManager entityManager;
+
+    /**
+     * Меняет только переданные атрибуты одним {@code UPDATE} без загрузки сущности. Версия сущности увеличивается,
+     * а если передана {@code version}, строка обновляется только при совпадении версии.
+     *
+     * @return количество обновленных строк
+     */
+    public <T> int update(Class<T> type, Specification<T> spec, Long version, Map<String, Object> values) {
+        var builder = entityManager.getCriteriaBuilder();
+        var update = builder.createCriteriaUpdate(type);
+        var root = update.from(type);
+
+        values.forEach((attribute, value) -> update.set(root.get(attribute), value));
+        if (AuditEntity.class.isAssignableFrom(type))
+            update.set(root.<LocalDateTime>get("updatedAt"), LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+
+        var predicate = spec.toPredicate(root, null, builder);
+        var entity = entityManager.getMetamodel().entity(type);
+        if (entity.hasVersionAttribute()) {
+            var versionPath = root.get(entity.getVersion(Long.class));
+            update.set(versionPath, builder.sum(versionPath, 1L));
+            if (version != null) predicate = builder.and(predicate, builder.equal(versionPath, version));
+        }
+        update.where(predicate);
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
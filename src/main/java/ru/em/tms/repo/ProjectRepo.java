@@ -0,0 +1,19 @@
+package ru.em.tms.repo;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.em.tms.model.db.Project;
+
+import java.util.List;
+
+public interface ProjectRepo extends JpaRepository<Project, Long> {
+    @Query(value = "select p from Project p where p.id in (select pm.id from Project pm join pm.members m where m.email = :email)",
+            countQuery = "select count(p) from Project p join p.members m where m.email = :email")
+    Page<Project> findAllByMember(@Param("email") String email, Pageable pageable);
+
+    @Query("select p.id from Project p join p.members m where m.email = :email")
+    List<Long> findIdsByMemberEmail(@Param("email") String email);
+}
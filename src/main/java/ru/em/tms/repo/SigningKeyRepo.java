@@ -0,0 +1,26 @@
+package ru.em.tms.repo;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.em.tms.model.db.SigningKey;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SigningKeyRepo extends JpaRepository<SigningKey, String> {
+    List<SigningKey> findAllByCreatedAtAfterOrderByCreatedAtDesc(LocalDateTime moment);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select k from SigningKey k")
+    List<SigningKey> lockAll();
+
+    @Transactional
+    @Modifying
+    @Query("delete from SigningKey k where k.createdAt < :moment")
+    int deleteRetired(@Param("moment") LocalDateTime moment);
+}
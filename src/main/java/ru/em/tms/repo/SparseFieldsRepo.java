@@ -0,0 +1,63 @@
+package ru.em.tms.repo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class SparseFieldsRepo {
+    private final EntityManager entityManager;
+
+    public <T> Page<Tuple> findAll(Class<T> type, Specification<T> spec, Pageable pageable, Map<String, String> selection) {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createTupleQuery();
+        var root = query.from(type);
+
+        var columns = new ArrayList<Selection<?>>(selection.size());
+        selection.forEach((alias, path) -> columns.add(path(root, path).alias(alias)));
+        query.multiselect(columns);
+
+        var predicate = spec.toPredicate(root, query, builder);
+        if (predicate != null) query.where(predicate);
+        if (pageable.getSort().isSorted()) query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+        var typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(type, spec));
+    }
+
+    private <T> long count(Class<T> type, Specification<T> spec) {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createQuery(Long.class);
+        var root = query.from(type);
+
+        var predicate = spec.toPredicate(root, query, builder);
+        if (predicate != null) query.where(predicate);
+        query.select(builder.count(root));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Path<?> path(From<?, ?> root, String path) {
+        Path<?> result = root;
+        for (var part : path.split("\\.")) result = result.get(part);
+        return result;
+    }
+}
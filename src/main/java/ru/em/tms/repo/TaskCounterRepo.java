@@ -0,0 +1,51 @@
+package ru.em.tms.repo;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.em.tms.model.db.TaskCounter;
+import ru.em.tms.model.enums.task.Status;
+
+import java.util.List;
+
+public interface TaskCounterRepo extends JpaRepository<TaskCounter, Long> {
+    /**
+     * Атомарно добавляет {@code delta} к счетчику группы, создавая его при первом изменении.
+     */
+    @Modifying
+    @Query(value = "insert into task_counters (author_id, executor_id, status, priority, task_count) " +
+            "values (:authorId, :executorId, :status, :priority, :delta) " +
+            "on duplicate key update task_count = task_count + :delta", nativeQuery = true)
+    int add(@Param("authorId") Integer authorId, @Param("executorId") Integer executorId,
+            @Param("status") String status, @Param("priority") String priority, @Param("delta") long delta);
+
+    /**
+     * Все счетчики с блокировкой на запись: на время сверки изменения счетчиков ждут ее завершения.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from TaskCounter c")
+    List<TaskCounter> lockAll();
+
+    @Query("select c.priority as groupKey, c.status as status, sum(c.taskCount) as taskCount from TaskCounter c " +
+            "group by c.priority, c.status having sum(c.taskCount) > 0")
+    List<GroupCount> countByPriority();
+
+    @Query("select c.executorId as groupKey, c.status as status, sum(c.taskCount) as taskCount from TaskCounter c " +
+            "group by c.executorId, c.status having sum(c.taskCount) > 0")
+    List<GroupCount> countByExecutor();
+
+    @Query("select c.authorId as groupKey, c.status as status, sum(c.taskCount) as taskCount from TaskCounter c " +
+            "group by c.authorId, c.status having sum(c.taskCount) > 0")
+    List<GroupCount> countByAuthor();
+
+    interface GroupCount {
+        Object getGroupKey();
+
+        Status getStatus();
+
+        Long getTaskCount();
+    }
+}
@@ -1,8 +1,76 @@
 package ru.em.tms.repo;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.em.tms.model.db.Task;
+import ru.em.tms.model.db.TaskCounter;
+import ru.em.tms.model.enums.task.Status;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface TaskRepo extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task> {
+    @Modifying
+    @Query("update Task t set t.commentCount = t.commentCount + 1, t.lastActivityAt = :at where t.id = :id")
+    int incrementCommentCount(@Param("id") Long id, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @Query("update Task t set t.commentCount = t.commentCount - :count where t.id = :id")
+    int decrementCommentCount(@Param("id") Long id, @Param("count") long count);
+
+    @Query("select case when count(t) > 0 then true else false end from Task t left join t.executor e " +
+            "where t.id = :id and (t.author.email = :email or e.email = :email)")
+    boolean isMember(@Param("id") Long id, @Param("email") String email);
+
+    @Query("select t.project.id from Task t where t.id = :id")
+    Optional<Long> findProjectId(@Param("id") Long id);
+
+    @Query("select new ru.em.tms.model.db.TaskCounter(t.author.id, coalesce(t.executor.id, 0), t.status, t.priority, 1L) " +
+            "from Task t where t.id = :id")
+    Optional<TaskCounter> findCounter(@Param("id") Long id);
+
+    /**
+     * Группа задачи с блокировкой строки до конца транзакции, чтобы параллельные изменения группы
+     * читали ее по очереди.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new ru.em.tms.model.db.TaskCounter(t.author.id, coalesce(t.executor.id, 0), t.status, t.priority, 1L) " +
+            "from Task t where t.id = :id")
+    Optional<TaskCounter> lockCounter(@Param("id") Long id);
+
+    @Query("select new ru.em.tms.model.db.TaskCounter(t.author.id, coalesce(t.executor.id, 0), t.status, t.priority, count(t)) " +
+            "from Task t group by t.author.id, t.executor.id, t.status, t.priority")
+    List<TaskCounter> countGroups();
+
+    @Query("select new ru.em.tms.model.db.TaskCounter(t.author.id, coalesce(t.executor.id, 0), t.status, t.priority, count(t)) " +
+            "from Task t where t.id in :ids group by t.author.id, t.executor.id, t.status, t.priority")
+    List<TaskCounter> countGroups(@Param("ids") Collection<Long> ids);
+
+    @Query("select t.id from Task t where t.status in :statuses and t.updatedAt < :before " +
+            "and coalesce(t.lastActivityAt, t.updatedAt) < :before order by t.id")
+    List<Long> findClosedBefore(@Param("statuses") Collection<Status> statuses, @Param("before") LocalDateTime before,
+                                Pageable pageable);
+
+    @Modifying
+    @Query("delete from Task t where t.id in :ids")
+    int deleteAllByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Task t set t.deletedAt = :at where t.id = :id and t.deletedAt is null")
+    int markDeleted(@Param("id") Long id, @Param("at") LocalDateTime at);
+
+    @Query(value = "select id from tasks where deleted_at is not null order by id limit :limit", nativeQuery = true)
+    List<Long> findDeletedIds(@Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from tasks where id in (:ids) and deleted_at is not null", nativeQuery = true)
+    int purgeDeleted(@Param("ids") Collection<Long> ids);
 }
@@ -3,48 +3,61 @@ package ru.em.tms.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import ru.em.tms.lib.datasource.UsePool;
+import ru.em.tms.lib.datasource.Workload;
+import ru.em.tms.model.db.User;
+import ru.em.tms.model.dto.JwtDTO;
 import ru.em.tms.model.dto.user.UserEditDTO;
 import ru.em.tms.model.dto.user.UserAuthDTO;
 import ru.em.tms.model.enums.Role;
 import ru.em.tms.service.util.JwtService;
+import ru.em.tms.service.util.RefreshTokenService;
+import ru.em.tms.service.util.TokenRevocationService;
 
 @Service
 @RequiredArgsConstructor
+@UsePool(Workload.AUTH)
 public class AuthService {
     private final UserService userService;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService revocationService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
 
-    public String signUp(UserAuthDTO request) {
+    public JwtDTO signUp(UserAuthDTO request) {
         userService.create(UserEditDTO.builder()
                 .email(request.getEmail())
                 .password(passwordEncoder.encode(request.getPassword()))
                 .role(Role.USER)
                 .build());
 
-        var user = loadUser(request.getEmail());
-
-        return jwtService.generateToken(user);
+        return issueTokens(userService.getByEmail(request.getEmail()));
     }
 
-    public String signIn(UserAuthDTO request) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
+    public JwtDTO signIn(UserAuthDTO request) {
+        var authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
                 request.getEmail(),
                 request.getPassword()
         ));
 
-        var user = loadUser(request.getEmail());
+        return issueTokens((User) authentication.getPrincipal());
+    }
+
+    public JwtDTO refresh(String refreshToken) {
+        var user = refreshTokenService.refresh(refreshToken);
+
+        return JwtDTO.of(jwtService.generateToken(user), refreshToken);
+    }
 
-        return jwtService.generateToken(user);
+    public void revoke(String jwt, String refreshToken) {
+        revocationService.revoke(jwtService.extractId(jwt), jwtService.extractExpiration(jwt));
+        if (refreshToken != null) refreshTokenService.revoke(refreshToken);
     }
 
-    public UserDetails loadUser(String email) {
-        return userService
-                .userDetailsService()
-                .loadUserByUsername(email);
+    private JwtDTO issueTokens(User user) {
+        return JwtDTO.of(jwtService.generateToken(user), refreshTokenService.issue(user));
     }
 }
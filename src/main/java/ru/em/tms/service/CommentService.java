@@ -1,10 +1,16 @@
 package ru.em.tms.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.em.tms.lib.concurrency.VersionTag;
+import ru.em.tms.lib.datasource.ShardKey;
+import ru.em.tms.lib.json.MergePatch;
+import ru.em.tms.lib.json.SparseFields;
 import ru.em.tms.lib.mapper.CommentMapper;
 import ru.em.tms.model.db.Comment;
 import ru.em.tms.model.db.Task;
@@ -12,25 +18,45 @@ import ru.em.tms.model.dto.PageableResponse;
 import ru.em.tms.model.dto.comment.CommentEditDTO;
 import ru.em.tms.model.dto.comment.CommentGetDTO;
 import ru.em.tms.repo.CommentRepo;
+import ru.em.tms.repo.SparseFieldsRepo;
 import ru.em.tms.repo.TaskRepo;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static ru.em.tms.lib.specification.CommentSpecifications.byId;
 import static ru.em.tms.lib.specification.CommentSpecifications.byTask;
+import static ru.em.tms.lib.specification.CommentSpecifications.createdSince;
 
+/**
+ * Комментарии хранятся на шарде своей задачи, шард выбирается по {@code taskId}.
+ */
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class CommentService {
+    private static final SparseFields FIELDS = new SparseFields(Map.of(
+            "id", "id",
+            "task_id", "task.id",
+            "content", "content",
+            "author_id", "author.id",
+            "created_at", "createdAt",
+            "updated_at", "updatedAt",
+            "version", "version"));
+
     private final CommentRepo repo;
+    private final SparseFieldsRepo sparseFieldsRepo;
     private final TaskRepo taskRepo;
     private final UserService userService;
     private final CommentMapper mapper;
 
     @Transactional(readOnly = true)
-    public PageableResponse<CommentGetDTO> getAll(Long taskId, Pageable pageable) {
-        var page = repo.findAll(byTask(getTask(taskId)), pageable);
+    public PageableResponse<CommentGetDTO> getAll(@ShardKey Long taskId, Pageable pageable) {
+        var page = repo.findAll(ofTask(getTask(taskId)), pageable);
 
         return new PageableResponse<>(page.get()
                 .map(mapper::sourceToDestination)
@@ -41,35 +67,102 @@ public class CommentService {
     }
 
     @Transactional(readOnly = true)
-    public Optional<CommentGetDTO> getById(Long taskId, Long id) {
-        return repo.findOne(byTask(getTask(taskId)).and(byId(id)))
+    public PageableResponse<CommentGetDTO> getAll(@ShardKey Long taskId, Pageable pageable, Set<String> fields) {
+        if (!SparseFields.isRequested(fields)) return getAll(taskId, pageable);
+
+        var page = sparseFieldsRepo.findAll(Comment.class, ofTask(getTask(taskId)), pageable, FIELDS.select(fields));
+
+        return new PageableResponse<>(page.get()
+                .map(CommentService::fromTuple)
+                .toList(),
+                page.getTotalPages(),
+                page.getPageable().getPageNumber(),
+                page.getPageable().getPageSize());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<CommentGetDTO> getById(@ShardKey Long taskId, Long id) {
+        return repo.findOne(ofTask(getTask(taskId)).and(byId(id)))
                 .map(mapper::sourceToDestination);
     }
 
-    public CommentGetDTO create(Long taskId, CommentEditDTO dto) {
+    public CommentGetDTO create(@ShardKey Long taskId, CommentEditDTO dto) {
         var comment = repo.save(Comment.builder()
                 .task(getTask(taskId))
                 .content(dto.getContent())
                 .author(userService.getCurrentUser())
                 .build());
+        taskRepo.incrementCommentCount(taskId, comment.getCreatedAt());
 
         return mapper.sourceToDestination(comment);
     }
 
-    public CommentGetDTO update(Long taskId, Long id, CommentEditDTO dto) {
-        var saved = repo.findOne(byTask(getTask(taskId)).and(byId(id)))
+    public CommentGetDTO update(@ShardKey Long taskId, Long id, CommentEditDTO dto) {
+        return update(taskId, id, dto, null);
+    }
+
+    public CommentGetDTO update(@ShardKey Long taskId, Long id, CommentEditDTO dto, VersionTag ifMatch) {
+        var saved = repo.findOne(ofTask(getTask(taskId)).and(byId(id)))
                 .orElseThrow(() -> new EntityNotFoundException("Комментарий не найден"));
+        var base = ifMatch == null ? new VersionTag(saved.getVersion(), List.of()) : ifMatch;
 
-        saved.setContent(dto.getContent());
+        saved.setContent(base.merge(saved.getVersion(), 0, saved.getContent(), dto.getContent()));
+        repo.flush();
 
         return mapper.sourceToDestination(saved);
     }
 
-    public void delete(Long taskId, Long id) {
-        repo.delete(byTask(getTask(taskId)).and(byId(id)));
+    public static String versionTag(CommentGetDTO comment) {
+        return VersionTag.format(comment.getVersion(), comment.getContent());
+    }
+
+    /**
+     * Изменяет текст комментария одним {@code UPDATE}, не загружая комментарий и задачу: как и при удалении,
+     * условие на существование задачи исключает комментарии удаленных задач.
+     */
+    public void patch(@ShardKey Long taskId, Long id, MergePatch<CommentEditDTO> patch, Long version) {
+        if (!patch.has("content")) {
+            if (!repo.existsInTask(taskId, id)) throw new EntityNotFoundException("Комментарий не найден");
+            return;
+        }
+
+        var at = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        if (repo.updateContent(taskId, id, patch.value().getContent(), version, at) == 0)
+            throw repo.existsInTask(taskId, id) ? VersionTag.conflict() : new EntityNotFoundException("Комментарий не найден");
+    }
+
+    /**
+     * Удаляет комментарий одним {@code DELETE}, не загружая задачу: условие на существование задачи исключает
+     * комментарии удаленных задач. Задача читается, только если комментарий не найден.
+     */
+    public void delete(@ShardKey Long taskId, Long id) {
+        if (repo.deleteFromTask(taskId, id) > 0) taskRepo.decrementCommentCount(taskId, 1);
+        else if (!taskRepo.existsById(taskId)) throw new EntityNotFoundException("Задача не найдена");
+    }
+
+    /**
+     * Комментарии задачи. Комментарий не может быть старше задачи, поэтому условие по {@code created_at}
+     * не меняет результат, но при секционировании comments по {@code created_at} исключает партиции
+     * до создания задачи.
+     */
+    private static Specification<Comment> ofTask(Task task) {
+        var spec = byTask(task);
+        return task.getCreatedAt() == null ? spec : spec.and(createdSince(task.getCreatedAt()));
     }
 
     private Task getTask(Long taskId) {
         return taskRepo.findById(taskId).orElseThrow(() -> new EntityNotFoundException("Задача не найдена"));
     }
+
+    private static CommentGetDTO fromTuple(Tuple tuple) {
+        return CommentGetDTO.builder()
+                .id(SparseFields.get(tuple, "id", Long.class))
+                .taskId(SparseFields.get(tuple, "task_id", Long.class))
+                .content(SparseFields.get(tuple, "content", String.class))
+                .authorId(SparseFields.get(tuple, "author_id", Integer.class))
+                .createdAt(SparseFields.get(tuple, "created_at", LocalDateTime.class))
+                .updatedAt(SparseFields.get(tuple, "updated_at", LocalDateTime.class))
+                .version(SparseFields.get(tuple, "version", Long.class))
+                .build();
+    }
 }
@@ -0,0 +1,97 @@
+package ru.em.tms.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.em.tms.lib.mapper.ProjectMapper;
+import ru.em.tms.model.db.Project;
+import ru.em.tms.model.db.User;
+import ru.em.tms.model.dto.PageableResponse;
+import ru.em.tms.model.dto.project.ProjectEditDTO;
+import ru.em.tms.model.dto.project.ProjectGetDTO;
+import ru.em.tms.model.enums.Role;
+import ru.em.tms.model.event.ProjectMembersChangedEvent;
+import ru.em.tms.repo.ProjectRepo;
+import ru.em.tms.repo.UserRepo;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ProjectService {
+    private final ProjectRepo repo;
+    private final UserRepo userRepo;
+    private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProjectMapper mapper;
+
+    @Transactional(readOnly = true)
+    public PageableResponse<ProjectGetDTO> getAll(Pageable pageable) {
+        var user = userService.getCurrentUser();
+        var page = user.getAuthorities().stream().anyMatch(role -> role.getAuthority().equals(Role.ADMIN.name()))
+                ? repo.findAll(pageable)
+                : repo.findAllByMember(user.getEmail(), pageable);
+
+        return new PageableResponse<>(page.get()
+                .map(mapper::sourceToDestination)
+                .toList(),
+                page.getTotalPages(),
+                page.getPageable().getPageNumber(),
+                page.getPageable().getPageSize());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ProjectGetDTO> getById(Long id) {
+        return repo.findById(id).map(mapper::sourceToDestination);
+    }
+
+    public ProjectGetDTO create(ProjectEditDTO dto) {
+        var project = repo.save(Project.builder()
+                .name(dto.getName())
+                .author(userService.getCurrentUser())
+                .members(members(dto.getMemberIds()))
+                .build());
+        membersChanged(project.getMembers(), Set.of());
+
+        return mapper.sourceToDestination(project);
+    }
+
+    public ProjectGetDTO update(Long id, ProjectEditDTO dto) {
+        var project = repo.findById(id).orElseThrow(() -> new EntityNotFoundException("Проект не найден"));
+        var before = project.getMembers();
+
+        project.setName(dto.getName());
+        project.setMembers(members(dto.getMemberIds()));
+        membersChanged(before, project.getMembers());
+
+        return mapper.sourceToDestination(project);
+    }
+
+    /**
+     * Кэш участников сбрасывается после фиксации транзакции, иначе параллельный запрос успеет прочитать
+     * и закэшировать старый состав проекта.
+     */
+    private void membersChanged(Collection<User> before, Collection<User> after) {
+        var emails = Stream.concat(before.stream(), after.stream())
+                .map(User::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (!emails.isEmpty()) eventPublisher.publishEvent(new ProjectMembersChangedEvent(emails));
+    }
+
+    private Set<User> members(Set<Integer> ids) {
+        var users = userRepo.findAllById(ids);
+        if (users.size() != ids.size()) throw new EntityNotFoundException("Участник не найден");
+        return new HashSet<>(users);
+    }
+}
@@ -0,0 +1,75 @@
+package ru.em.tms.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.em.tms.lib.datasource.ShardTemplate;
+import ru.em.tms.lib.datasource.UsePool;
+import ru.em.tms.lib.datasource.Workload;
+import ru.em.tms.model.enums.task.Status;
+import ru.em.tms.repo.ArchivedTaskRepo;
+import ru.em.tms.repo.CommentRepo;
+import ru.em.tms.repo.TaskRepo;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Переносит задачи, закрытые и не менявшиеся дольше {@code tasks.archive.after}, вместе с комментариями
+ * в таблицы {@code tasks_archive} и {@code comments_archive}. Задачи переносятся пачками по
+ * {@code tasks.archive.batch-size}, каждая пачка - в своей транзакции, чтобы не держать долгих блокировок.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskArchiveService {
+    private static final Set<Status> CLOSED = EnumSet.of(Status.DONE, Status.CANCELED);
+
+    private final TaskRepo taskRepo;
+    private final CommentRepo commentRepo;
+    private final ArchivedTaskRepo repo;
+    private final TaskCounterService counterService;
+    private final ShardTemplate shards;
+    private final TransactionTemplate transaction;
+
+    @Value("${tasks.archive.after:P180D}")
+    private Duration after = Duration.ofDays(180);
+    @Value("${tasks.archive.batch-size:500}")
+    private int batchSize = 500;
+
+    @UsePool(Workload.BATCH)
+    @Scheduled(fixedDelayString = "${tasks.archive.interval:PT1H}")
+    public void archive() {
+        var before = LocalDateTime.now().minus(after);
+        var archived = 0L;
+        boolean full;
+        do {
+            var moved = shards.executeAll(() -> transaction.execute(status -> archiveBatch(before)));
+            archived += moved.stream().mapToInt(Integer::intValue).sum();
+            full = moved.stream().anyMatch(count -> count == batchSize);
+        } while (full);
+
+        if (archived > 0) log.info("В архив перенесено задач: {}", archived);
+    }
+
+    int archiveBatch(LocalDateTime before) {
+        var ids = taskRepo.findClosedBefore(CLOSED, before, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) return 0;
+
+        var at = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        counterService.remove(taskRepo.countGroups(ids));
+        repo.copyComments(ids, at);
+        repo.copyTasks(ids, at);
+        commentRepo.deleteAllByTaskIds(ids);
+        taskRepo.deleteAllByIds(ids);
+
+        return ids.size();
+    }
+}
@@ -0,0 +1,128 @@
+package ru.em.tms.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.em.tms.lib.datasource.ShardTemplate;
+import ru.em.tms.lib.datasource.UsePool;
+import ru.em.tms.lib.datasource.Workload;
+import ru.em.tms.model.db.TaskCounter;
+import ru.em.tms.model.dto.task.TaskCountersDTO;
+import ru.em.tms.model.enums.task.Priority;
+import ru.em.tms.model.enums.task.Status;
+import ru.em.tms.model.event.TaskChangedEvent;
+import ru.em.tms.repo.TaskCounterRepo;
+import ru.em.tms.repo.TaskRepo;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class TaskCounterService {
+    private final TaskCounterRepo repo;
+    private final TaskRepo taskRepo;
+    private final ShardTemplate shards;
+
+    /**
+     * Счетчики ведутся на шарде задачи, поэтому группы с разных шардов складываются.
+     */
+    @Transactional(readOnly = true)
+    public TaskCountersDTO getCounters() {
+        var counts = shards.gather(() -> new Counts(repo.countByPriority(), repo.countByExecutor(), repo.countByAuthor()));
+        var byPriority = group(counts, Counts::byPriority, Priority.class);
+        var byStatus = new EnumMap<Status, Long>(Status.class);
+        byPriority.values().forEach(counts -> counts.forEach((status, count) -> byStatus.merge(status, count, Long::sum)));
+
+        return TaskCountersDTO.builder()
+                .total(byStatus.values().stream().mapToLong(Long::longValue).sum())
+                .byStatus(byStatus)
+                .byPriority(byPriority)
+                .byExecutor(group(counts, Counts::byExecutor, Integer.class))
+                .byAuthor(group(counts, Counts::byAuthor, Integer.class))
+                .build();
+    }
+
+    /**
+     * Применяется в транзакции изменения задачи: при откате изменение счетчика откатывается вместе с задачей,
+     * а блокировка строки счетчика упорядочивает его со сверкой.
+     */
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (Objects.equals(event.before(), event.after())) return;
+
+        if (event.before() != null) add(event.before(), -1);
+        if (event.after() != null) add(event.after(), 1);
+    }
+
+    /**
+     * Вычитает группы задач, удаленных из {@code tasks} одним запросом, например при архивировании.
+     */
+    public void remove(List<TaskCounter> groups) {
+        groups.forEach(group -> add(group.key(), -group.getTaskCount()));
+    }
+
+    @UsePool(Workload.BATCH)
+    @Scheduled(fixedDelayString = "${task-counters.reconcile-interval:PT1H}")
+    public void reconcile() {
+        var drift = shards.executeAll(this::reconcileShard).stream().mapToInt(Integer::intValue).sum();
+
+        if (drift > 0) log.warn("Счётчики задач расходились с данными в {} группах и были пересчитаны", drift);
+    }
+
+    /**
+     * Счетчики блокируются до сравнения с задачами. Транзакция задачи, уже изменившая счетчик, завершается
+     * до блокировки и попадает в пересчет; следующие ждут конца сверки и применяют изменение к пересчитанному
+     * значению, поэтому изменения не теряются и не учитываются дважды.
+     */
+    private int reconcileShard() {
+        var counters = repo.lockAll();
+        var actual = taskRepo.countGroups().stream()
+                .collect(Collectors.toMap(TaskCounter::key, Function.identity()));
+        var drift = 0;
+
+        for (var counter : counters) {
+            var expected = actual.remove(counter.key());
+            if (expected == null) {
+                if (counter.getTaskCount() != 0) drift++;
+                repo.delete(counter);
+            } else if (!counter.getTaskCount().equals(expected.getTaskCount())) {
+                counter.setTaskCount(expected.getTaskCount());
+                drift++;
+            }
+        }
+        drift += actual.size();
+        repo.saveAll(actual.values());
+
+        return drift;
+    }
+
+    private void add(TaskCounter.Key key, long delta) {
+        repo.add(key.authorId(), key.executorId(), key.status().name(), key.priority().name(), delta);
+    }
+
+    private static <K> Map<K, Map<Status, Long>> group(List<Counts> perShard,
+                                                       Function<Counts, List<TaskCounterRepo.GroupCount>> dimension,
+                                                       Class<K> keyType) {
+        var result = new TreeMap<K, Map<Status, Long>>();
+        perShard.stream().flatMap(counts -> dimension.apply(counts).stream()).forEach(count -> result
+                .computeIfAbsent(keyType.cast(count.getGroupKey()), k -> new EnumMap<>(Status.class))
+                .merge(count.getStatus(), count.getTaskCount(), Long::sum));
+        return result;
+    }
+
+    private record Counts(List<TaskCounterRepo.GroupCount> byPriority,
+                          List<TaskCounterRepo.GroupCount> byExecutor,
+                          List<TaskCounterRepo.GroupCount> byAuthor) {
+    }
+}
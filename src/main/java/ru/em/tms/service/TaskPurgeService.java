@@ -0,0 +1,90 @@
+package ru.em.tms.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.em.tms.lib.datasource.ShardTemplate;
+import ru.em.tms.lib.datasource.UsePool;
+import ru.em.tms.lib.datasource.Workload;
+import ru.em.tms.repo.CommentRepo;
+import ru.em.tms.repo.TaskRepo;
+
+import java.time.Duration;
+
+/**
+ * Физически удаляет задачи, помеченные удаленными ({@code deleted_at}), вместе с комментариями. Запускается
+ * в часы низкой нагрузки ({@code tasks.purge.cron}) и работает короткими транзакциями: каждая удаляет не больше
+ * {@code tasks.purge.batch-size} комментариев, а задачи - когда их комментарии удалены. Запуск прекращается
+ * через {@code tasks.purge.max-duration}, оставшиеся строки удаляются следующими запусками. Время каждой
+ * транзакции публикуется в метрике {@code tms.tasks.purge}.
+ */
+@Slf4j
+@Service
+public class TaskPurgeService {
+    private final TaskRepo taskRepo;
+    private final CommentRepo commentRepo;
+    private final ShardTemplate shards;
+    private final TransactionTemplate transaction;
+    private final Timer timer;
+
+    @Value("${tasks.purge.batch-size:1000}")
+    private int batchSize = 1000;
+    @Value("${tasks.purge.max-duration:PT9M}")
+    private Duration maxDuration = Duration.ofMinutes(9);
+
+    public TaskPurgeService(TaskRepo taskRepo, CommentRepo commentRepo, ShardTemplate shards,
+                            TransactionTemplate transaction, MeterRegistry meterRegistry) {
+        this.taskRepo = taskRepo;
+        this.commentRepo = commentRepo;
+        this.shards = shards;
+        this.transaction = transaction;
+        this.timer = meterRegistry.timer("tms.tasks.purge");
+    }
+
+    @UsePool(Workload.BATCH)
+    @Scheduled(cron = "${tasks.purge.cron:0 */10 1-5 * * *}")
+    public void purge() {
+        var deadline = System.nanoTime() + maxDuration.toNanos();
+        var purged = 0L;
+        boolean found;
+        do {
+            found = false;
+            for (int shard = 0; shard < shards.count(); shard++) {
+                var removed = purgeShard(shard);
+                purged += removed;
+                found |= removed > 0;
+            }
+        } while (found && System.nanoTime() < deadline);
+
+        if (purged > 0) log.info("Удалено строк задач и комментариев: {}", purged);
+        if (found) log.info("Очистка прервана по tasks.purge.max-duration, продолжится при следующем запуске");
+    }
+
+    /**
+     * Одна транзакция на шарде. Время измеряется вместе с фиксацией: на шарде транзакция
+     * {@link ShardTemplate#execute} фиксируется только после возврата из него.
+     */
+    private int purgeShard(int shard) {
+        var sample = Timer.start();
+        try {
+            Integer removed = shards.execute(shard, () -> transaction.execute(status -> purgeBatch()));
+            return removed == null ? 0 : removed;
+        } finally {
+            sample.stop(timer);
+        }
+    }
+
+    int purgeBatch() {
+        var ids = taskRepo.findDeletedIds(batchSize);
+        if (ids.isEmpty()) return 0;
+
+        var comments = commentRepo.purgeByTaskIds(ids, batchSize);
+        if (comments == batchSize) return comments;
+
+        return comments + taskRepo.purgeDeleted(ids);
+    }
+}
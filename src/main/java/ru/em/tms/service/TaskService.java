@@ -1,91 +1,296 @@
 package ru.em.tms.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.em.tms.lib.concurrency.VersionTag;
+import ru.em.tms.lib.datasource.ShardKey;
+import ru.em.tms.lib.datasource.ShardTemplate;
 import ru.em.tms.lib.filter.db.TaskFilter;
+import ru.em.tms.lib.json.MergePatch;
+import ru.em.tms.lib.json.SparseFields;
 import ru.em.tms.lib.mapper.TaskMapper;
 import ru.em.tms.lib.specification.TaskSpecifications;
+import ru.em.tms.model.db.ArchivedTask;
 import ru.em.tms.model.db.Task;
+import ru.em.tms.model.db.TaskCounter;
 import ru.em.tms.model.dto.PageableResponse;
 import ru.em.tms.model.dto.task.TaskCreateDTO;
 import ru.em.tms.model.dto.task.TaskGetDTO;
 import ru.em.tms.model.dto.task.TaskUpdateDTO;
 import ru.em.tms.model.enums.Role;
+import ru.em.tms.model.enums.task.Priority;
 import ru.em.tms.model.enums.task.Status;
+import ru.em.tms.model.event.TaskChangedEvent;
+import ru.em.tms.repo.ArchivedTaskRepo;
+import ru.em.tms.repo.PatchRepo;
+import ru.em.tms.repo.ProjectRepo;
+import ru.em.tms.repo.SparseFieldsRepo;
 import ru.em.tms.repo.TaskRepo;
 import ru.em.tms.repo.UserRepo;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class TaskService {
+    private static final int TITLE = 0;
+    private static final int DESCRIPTION = 1;
+    private static final int STATUS = 2;
+    private static final int PRIORITY = 3;
+    private static final int EXECUTOR = 4;
+    private static final SparseFields FIELDS = new SparseFields(Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("title", "title"),
+            Map.entry("description", "description"),
+            Map.entry("status", "status"),
+            Map.entry("priority", "priority"),
+            Map.entry("author_id", "author.id"),
+            Map.entry("executor_id", "executor.id"),
+            Map.entry("project_id", "project.id"),
+            Map.entry("created_at", "createdAt"),
+            Map.entry("updated_at", "updatedAt"),
+            Map.entry("comment_count", "commentCount"),
+            Map.entry("last_activity_at", "lastActivityAt"),
+            Map.entry("version", "version")));
+
     private final TaskRepo repo;
+    private final SparseFieldsRepo sparseFieldsRepo;
+    private final PatchRepo patchRepo;
     private final UserRepo userRepo;
+    private final ProjectRepo projectRepo;
+    private final ArchivedTaskRepo archivedRepo;
     private final TaskMapper mapper;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardTemplate shards;
 
+    /**
+     * Задачи лежат на разных шардах, поэтому страница собирается со всех шардов с общей сортировкой.
+     */
     @Transactional(readOnly = true)
     public PageableResponse<TaskGetDTO> getAll(Pageable pageable, TaskFilter filter) {
-        Specification<Task> spec = Specification.where(null);
+        Specification<Task> spec = specification(filter);
+        var page = shards.page(pageable, shardPageable -> repo.findAll(spec, shardPageable),
+                ShardTemplate::property, mapper::sourceToDestination);
+
+        return new PageableResponse<>(page.getContent(),
+                page.getTotalPages(),
+                page.getPageable().getPageNumber(),
+                page.getPageable().getPageSize());
+    }
+
+    @Transactional(readOnly = true)
+    public PageableResponse<TaskGetDTO> getAll(Pageable pageable, TaskFilter filter, Set<String> fields) {
+        if (!SparseFields.isRequested(fields)) return getAll(pageable, filter);
+
+        Specification<Task> spec = specification(filter);
+        var selection = FIELDS.select(fields);
+        if (shards.isSharded()) shards.sort(pageable)
+                .forEach(order -> selection.putIfAbsent(sortAlias(order.getProperty()), order.getProperty()));
+        var page = shards.page(pageable, shardPageable -> sparseFieldsRepo.findAll(Task.class, spec, shardPageable, selection),
+                (tuple, property) -> tuple.get(sortAlias(property)), TaskService::fromTuple);
+
+        return new PageableResponse<>(page.getContent(),
+                page.getTotalPages(),
+                page.getPageable().getPageNumber(),
+                page.getPageable().getPageSize());
+    }
+
+    /**
+     * Задачи проекта лежат на одном шарде и выбираются по индексам, начинающимся с {@code project_id}.
+     * Доступ к проекту проверяется до вызова, поэтому список не ограничивается задачами исполнителя.
+     */
+    @Transactional(readOnly = true)
+    public PageableResponse<TaskGetDTO> getAll(@ShardKey(tenant = true) Long projectId, Pageable pageable,
+                                               TaskFilter filter, Set<String> fields) {
+        var spec = TaskSpecifications.byProjectId(projectId);
         if (filter.getAuthorId() != null) spec = spec.and(TaskSpecifications.byAuthorId(filter.getAuthorId()));
+        if (filter.getExecutorId() != null) spec = spec.and(TaskSpecifications.byExecutorId(filter.getExecutorId()));
 
-        var user = userService.getCurrentUser();
-        if (user.getAuthorities().stream().noneMatch(role -> role.getAuthority().equals(Role.ADMIN.name())))
-            spec = spec.and(TaskSpecifications.byExecutorId(user.getId()));
-        else if (filter.getExecutorId() != null)
-            spec = spec.and(TaskSpecifications.byExecutorId(filter.getExecutorId()));
+        var page = SparseFields.isRequested(fields)
+                ? sparseFieldsRepo.findAll(Task.class, spec, pageable, FIELDS.select(fields)).map(TaskService::fromTuple)
+                : repo.findAll(spec, pageable).map(mapper::sourceToDestination);
+
+        return new PageableResponse<>(page.getContent(),
+                page.getTotalPages(),
+                page.getPageable().getPageNumber(),
+                page.getPageable().getPageSize());
+    }
 
-        var page = repo.findAll(spec, pageable);
+    /**
+     * Задачи, перенесенные в архив. Видимость та же, что и у {@link #getAll(Pageable, TaskFilter)}.
+     */
+    @Transactional(readOnly = true)
+    public PageableResponse<TaskGetDTO> getArchived(Pageable pageable, TaskFilter filter) {
+        Specification<ArchivedTask> spec = specification(filter);
+        var page = shards.page(pageable, shardPageable -> archivedRepo.findAll(spec, shardPageable),
+                ShardTemplate::property, mapper::archivedToDestination);
 
-        return new PageableResponse<>(page.get()
-                .map(mapper::sourceToDestination)
-                .toList(),
+        return new PageableResponse<>(page.getContent(),
                 page.getTotalPages(),
                 page.getPageable().getPageNumber(),
                 page.getPageable().getPageSize());
     }
 
     @Transactional(readOnly = true)
-    public Optional<TaskGetDTO> getById(Long id) {
+    public Optional<TaskGetDTO> getById(@ShardKey Long id) {
         return repo.findById(id).map(mapper::sourceToDestination);
     }
 
+    /**
+     * Задача создается на шарде своего проекта, ее идентификатор дальше определяет шард сам.
+     */
     public TaskGetDTO create(TaskCreateDTO dto) {
-        var task = repo.save(Task.builder()
-                .title(dto.getTitle())
-                .description(dto.getDescription())
-                .status(Status.NEW)
-                .priority(dto.getPriority())
-                .author(userService.getCurrentUser())
-                .executor(userRepo.findById(dto.getExecutorId()).orElseThrow(() -> new EntityNotFoundException("Исполнитель не найден")))
-                .build());
-
-        return mapper.sourceToDestination(task);
+        var author = userService.getCurrentUser();
+        if (!projectRepo.existsById(dto.getProjectId())) throw new EntityNotFoundException("Проект не найден");
+
+        return shards.execute(shards.forTenant(dto.getProjectId()), () -> {
+            var task = repo.save(Task.builder()
+                    .title(dto.getTitle())
+                    .description(dto.getDescription())
+                    .status(Status.NEW)
+                    .priority(dto.getPriority())
+                    .author(author)
+                    .project(projectRepo.getReferenceById(dto.getProjectId()))
+                    .executor(userRepo.findById(dto.getExecutorId()).orElseThrow(() -> new EntityNotFoundException("Исполнитель не найден")))
+                    .build());
+            eventPublisher.publishEvent(TaskChangedEvent.created(task.getId(), TaskCounter.Key.of(task)));
+
+            return mapper.sourceToDestination(task);
+        });
     }
 
-    public TaskGetDTO update(Long id, TaskUpdateDTO dto) {
-        var saved = repo.findById(id).orElseThrow(() -> new EntityNotFoundException("Задача не найдена"));
+    public TaskGetDTO update(@ShardKey Long id, TaskUpdateDTO dto) {
+        return update(id, dto, null);
+    }
+
+    public TaskGetDTO update(@ShardKey Long id, TaskUpdateDTO dto, VersionTag ifMatch) {
+        var saved = repo.findById(id).orElseThrow(() -> new EntityNotFoundException("Задача не найдена"));
+        var before = TaskCounter.Key.of(saved);
+        var base = ifMatch == null ? new VersionTag(saved.getVersion(), List.of()) : ifMatch;
+        var version = saved.getVersion();
 
-        saved.setStatus(dto.getStatus());
+        saved.setStatus(base.merge(version, STATUS, saved.getStatus(), dto.getStatus()));
 
         var user = userService.getCurrentUser();
         if(user.getAuthorities().stream().anyMatch(role -> role.getAuthority().equals(Role.ADMIN.name()))) {
-            saved.setTitle(dto.getTitle());
-            saved.setDescription(dto.getDescription());
-            saved.setPriority(dto.getPriority());
-            saved.setExecutor(userRepo.findById(dto.getExecutorId()).orElseThrow(() -> new EntityNotFoundException("Исполнитель не найден")));
+            saved.setTitle(base.merge(version, TITLE, saved.getTitle(), dto.getTitle()));
+            saved.setDescription(base.merge(version, DESCRIPTION, saved.getDescription(), dto.getDescription()));
+            saved.setPriority(base.merge(version, PRIORITY, saved.getPriority(), dto.getPriority()));
+            var executorId = base.merge(version, EXECUTOR, saved.getExecutor() == null ? null : saved.getExecutor().getId(), dto.getExecutorId());
+            saved.setExecutor(userRepo.findById(executorId).orElseThrow(() -> new EntityNotFoundException("Исполнитель не найден")));
         }
+        repo.flush();
+        eventPublisher.publishEvent(new TaskChangedEvent(id, before, TaskCounter.Key.of(saved)));
 
         return mapper.sourceToDestination(saved);
     }
 
-    public void delete(Long id) {
-        repo.deleteById(id);
+    public static String versionTag(TaskGetDTO task) {
+        return VersionTag.format(task.getVersion(), task.getTitle(), task.getDescription(), task.getStatus(),
+                task.getPriority(), task.getExecutorId());
+    }
+
+    /**
+     * Изменяет только переданные поля одним {@code UPDATE}, не загружая задачу. Если меняются статус, приоритет
+     * или исполнитель, для счетчиков читается только группа задачи с блокировкой строки: параллельный запрос
+     * прочитает уже новую группу. Пользователь может менять только статус.
+     */
+    public void patch(@ShardKey Long id, MergePatch<TaskUpdateDTO> patch, Long version) {
+        var user = userService.getCurrentUser();
+        if (user.getAuthorities().stream().noneMatch(role -> role.getAuthority().equals(Role.ADMIN.name()))
+                && patch.fields().stream().anyMatch(field -> !field.equals("status")))
+            throw new AccessDeniedException("Пользователь может изменить только статус задачи");
+
+        var dto = patch.value();
+        var values = new HashMap<String, Object>();
+        if (patch.has("title")) values.put("title", dto.getTitle());
+        if (patch.has("description")) values.put("description", dto.getDescription());
+        if (patch.has("status")) values.put("status", dto.getStatus());
+        if (patch.has("priority")) values.put("priority", dto.getPriority());
+        if (patch.has("executorId")) {
+            if (!userRepo.existsById(dto.getExecutorId())) throw new EntityNotFoundException("Исполнитель не найден");
+            values.put("executor", userRepo.getReferenceById(dto.getExecutorId()));
+        }
+
+        var counted = patch.has("status") || patch.has("priority") || patch.has("executorId");
+        var before = counted ? repo.lockCounter(id).map(TaskCounter::key).orElseThrow(TaskService::notFound) : null;
+
+        if (values.isEmpty()) {
+            if (!repo.existsById(id)) throw notFound();
+            return;
+        }
+        if (patchRepo.update(Task.class, TaskSpecifications.byId(id), version, values) == 0)
+            throw repo.existsById(id) ? VersionTag.conflict() : notFound();
+
+        if (before != null) eventPublisher.publishEvent(new TaskChangedEvent(id, before, new TaskCounter.Key(
+                before.authorId(),
+                patch.has("executorId") ? dto.getExecutorId() : before.executorId(),
+                patch.has("status") ? dto.getStatus() : before.status(),
+                patch.has("priority") ? dto.getPriority() : before.priority())));
+    }
+
+    /**
+     * Помечает задачу удаленной одним {@code UPDATE}: задача и ее комментарии сразу перестают быть видны,
+     * а строки физически удаляет {@link TaskPurgeService}.
+     */
+    public void delete(@ShardKey Long id) {
+        repo.findCounter(id).map(TaskCounter::key).ifPresent(key -> {
+            if (repo.markDeleted(id, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)) > 0)
+                eventPublisher.publishEvent(TaskChangedEvent.deleted(id, key));
+        });
+    }
+
+    private static String sortAlias(String property) {
+        return "sort_" + property.replace('.', '_');
+    }
+
+    private static EntityNotFoundException notFound() {
+        return new EntityNotFoundException("Задача не найдена");
+    }
+
+    private <T> Specification<T> specification(TaskFilter filter) {
+        Specification<T> spec = Specification.where(null);
+        if (filter.getAuthorId() != null) spec = spec.and(TaskSpecifications.byAuthorId(filter.getAuthorId()));
+
+        var user = userService.getCurrentUser();
+        if (user.getAuthorities().stream().noneMatch(role -> role.getAuthority().equals(Role.ADMIN.name())))
+            spec = spec.and(TaskSpecifications.byExecutorId(user.getId()));
+        else if (filter.getExecutorId() != null)
+            spec = spec.and(TaskSpecifications.byExecutorId(filter.getExecutorId()));
+
+        return spec;
+    }
+
+    private static TaskGetDTO fromTuple(Tuple tuple) {
+        return TaskGetDTO.builder()
+                .id(SparseFields.get(tuple, "id", Long.class))
+                .title(SparseFields.get(tuple, "title", String.class))
+                .description(SparseFields.get(tuple, "description", String.class))
+                .status(SparseFields.get(tuple, "status", Status.class))
+                .priority(SparseFields.get(tuple, "priority", Priority.class))
+                .authorId(SparseFields.get(tuple, "author_id", Integer.class))
+                .executorId(SparseFields.get(tuple, "executor_id", Integer.class))
+                .projectId(SparseFields.get(tuple, "project_id", Long.class))
+                .createdAt(SparseFields.get(tuple, "created_at", LocalDateTime.class))
+                .updatedAt(SparseFields.get(tuple, "updated_at", LocalDateTime.class))
+                .commentCount(SparseFields.get(tuple, "comment_count", Integer.class))
+                .lastActivityAt(SparseFields.get(tuple, "last_activity_at", LocalDateTime.class))
+                .version(SparseFields.get(tuple, "version", Long.class))
+                .build();
     }
 }
@@ -10,13 +10,18 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.em.tms.lib.json.MergePatch;
 import ru.em.tms.lib.mapper.UserMapper;
+import ru.em.tms.lib.specification.UserSpecifications;
 import ru.em.tms.model.db.User;
 import ru.em.tms.model.dto.PageableResponse;
 import ru.em.tms.model.dto.user.UserEditDTO;
 import ru.em.tms.model.dto.user.UserGetDTO;
+import ru.em.tms.repo.PatchRepo;
 import ru.em.tms.repo.UserRepo;
+import ru.em.tms.service.util.RefreshTokenService;
 
+import java.util.HashMap;
 import java.util.Optional;
 
 @Service
@@ -24,7 +29,9 @@ import java.util.Optional;
 @Transactional
 public class UserService {
     private final UserRepo repo;
+    private final PatchRepo patchRepo;
     private final UserMapper mapper;
+    private final RefreshTokenService refreshTokenService;
 
     @Transactional(readOnly = true)
     public PageableResponse<UserGetDTO> getAll(Pageable pageable) {
@@ -59,14 +66,35 @@ public class UserService {
         saved.setEmail(dto.getEmail());
         saved.setPassword(dto.getPassword());
         saved.setRole(dto.getRole());
+        refreshTokenService.revokeAll(id);
 
         return mapper.sourceToDestination(saved);
     }
 
+    /**
+     * Изменяет только переданные поля одним {@code UPDATE}, не загружая пользователя.
+     */
+    public void patch(Integer id, MergePatch<UserEditDTO> patch) {
+        var dto = patch.value();
+        var values = new HashMap<String, Object>();
+        if (patch.has("email")) values.put("email", dto.getEmail());
+        if (patch.has("password")) values.put("password", dto.getPassword());
+        if (patch.has("role")) values.put("role", dto.getRole());
+
+        if (values.isEmpty()) {
+            if (!repo.existsById(id)) throw new EntityNotFoundException("Пользователь не найден");
+            return;
+        }
+        if (patchRepo.update(User.class, UserSpecifications.byId(id), null, values) == 0)
+            throw new EntityNotFoundException("Пользователь не найден");
+        refreshTokenService.revokeAll(id);
+    }
+
     public void delete(Integer id) {
         if(getCurrentUser().getId().equals(id))
             throw new AccessDeniedException("Нельзя удалить текущий аккаунт");
 
+        refreshTokenService.revokeAll(id);
         repo.deleteById(id);
     }
 
@@ -0,0 +1,126 @@
+package ru.em.tms.service.util;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.em.tms.lib.datasource.ShardTemplate;
+import ru.em.tms.lib.datasource.UsePool;
+import ru.em.tms.lib.datasource.Workload;
+
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Поддерживает месячные партиции таблицы {@code comments}, секционированной по {@code created_at}
+ * (см. data/comments-partitioning.sql): заранее создает партиции на {@code comments.partitioning.months-ahead}
+ * месяцев вперед, отделяя их от пустой партиции {@code pmax}, и удаляет партиции старше
+ * {@code comments.partitioning.retention}, если срок хранения задан. Перед удалением партиции счетчики
+ * {@code comment_count} и {@code last_activity_at} ее задач пересчитываются по оставшимся комментариям.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty("comments.partitioning.enabled")
+public class CommentPartitionService {
+    static final String MAX = "pmax";
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final Pattern MONTHLY = Pattern.compile("p\\d{6}");
+    private static final int RECOUNT_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardTemplate shards;
+
+    @Value("${comments.partitioning.months-ahead:3}")
+    private int monthsAhead = 3;
+    @Value("${comments.partitioning.retention:#{null}}")
+    private Period retention;
+
+    @UsePool(Workload.BATCH)
+    @Scheduled(initialDelayString = "${comments.partitioning.initial-delay:PT10M}",
+            fixedDelayString = "${comments.partitioning.interval:P1D}")
+    public void maintain() {
+        shards.executeAll(() -> {
+            var partitions = jdbcTemplate.queryForList("select partition_name from information_schema.partitions " +
+                    "where table_schema = database() and table_name = 'comments' and partition_name is not null", String.class);
+            if (!partitions.contains(MAX)) {
+                log.warn("Таблица comments не секционирована по месяцам, партиции не обслуживаются");
+                return null;
+            }
+
+            var now = YearMonth.now();
+            plan(partitions, now, monthsAhead).ifPresent(this::execute);
+            if (retention != null) expired(partitions, now, retention).forEach(this::drop);
+            return null;
+        });
+    }
+
+    /**
+     * Одно выражение, отделяющее от {@code pmax} недостающие месяцы до {@code now + monthsAhead}, начиная с месяца
+     * после последней месячной партиции. Исторические партиции создает скрипт секционирования, поэтому
+     * {@code pmax} пуста и реорганизация не переносит строк.
+     */
+    static Optional<String> plan(List<String> partitions, YearMonth now, int monthsAhead) {
+        var monthly = monthly(partitions);
+        var from = monthly.isEmpty() ? now : monthly.last().plusMonths(1);
+        var until = now.plusMonths(monthsAhead);
+        if (from.isAfter(until)) return Optional.empty();
+
+        var definitions = new StringBuilder();
+        for (var month = from; !month.isAfter(until); month = month.plusMonths(1)) {
+            definitions.append("PARTITION ").append(month.format(NAME))
+                    .append(" VALUES LESS THAN ('").append(month.plusMonths(1).atDay(1)).append("'), ");
+        }
+        return Optional.of("ALTER TABLE comments REORGANIZE PARTITION " + MAX + " INTO (" + definitions +
+                "PARTITION " + MAX + " VALUES LESS THAN (MAXVALUE))");
+    }
+
+    static List<YearMonth> expired(List<String> partitions, YearMonth now, Period retention) {
+        var keepFrom = YearMonth.from(now.atDay(1).minus(retention));
+        return List.copyOf(monthly(partitions).headSet(keepFrom));
+    }
+
+    /**
+     * Пересчитывает счетчики задач партиции без ее комментариев и удаляет ее. Пересчет идемпотентен,
+     * поэтому если удаление не выполнилось, следующий запуск повторит оба шага.
+     */
+    void drop(YearMonth month) {
+        var name = month.format(NAME);
+        var keepFrom = month.plusMonths(1).atDay(1);
+        var taskIds = jdbcTemplate.queryForList("select distinct task_id from comments partition (" + name + ")", Long.class);
+        for (var from = 0; from < taskIds.size(); from += RECOUNT_BATCH) {
+            var batch = taskIds.subList(from, Math.min(from + RECOUNT_BATCH, taskIds.size()));
+            var args = new ArrayList<Object>(List.of(keepFrom, keepFrom));
+            args.addAll(batch);
+            jdbcTemplate.update("update tasks t set " +
+                    "t.comment_count = (select count(*) from comments c where c.task_id = t.id and c.created_at >= ?), " +
+                    "t.last_activity_at = coalesce((select max(c.created_at) from comments c " +
+                    "where c.task_id = t.id and c.created_at >= ?), t.created_at) " +
+                    "where t.id in (" + String.join(", ", Collections.nCopies(batch.size(), "?")) + ")", args.toArray());
+        }
+        log.info("Пересчитаны счетчики задач перед удалением партиции {}: {}", name, taskIds.size());
+        execute("ALTER TABLE comments DROP PARTITION " + name);
+    }
+
+    private void execute(String statement) {
+        log.info("Партиции комментариев: {}", statement);
+        jdbcTemplate.execute(statement);
+    }
+
+    private static TreeSet<YearMonth> monthly(List<String> partitions) {
+        var monthly = new TreeSet<YearMonth>();
+        partitions.stream().filter(name -> MONTHLY.matcher(name).matches())
+                .forEach(name -> monthly.add(YearMonth.parse(name, NAME)));
+        return monthly;
+    }
+}
@@ -0,0 +1,220 @@
+package ru.em.tms.service.util;
+
+import io.jsonwebtoken.io.Decoders;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.em.tms.lib.datasource.UsePool;
+import ru.em.tms.lib.datasource.Workload;
+import ru.em.tms.model.db.SigningKey;
+import ru.em.tms.model.dto.jwk.JwkDTO;
+import ru.em.tms.model.dto.jwk.JwkSetDTO;
+import ru.em.tms.repo.SigningKeyRepo;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.*;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@RequiredArgsConstructor
+@UsePool(Workload.AUTH)
+public class JwtKeyStore {
+    private static final String KEY_ALGORITHM = "RSA";
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final long RELOAD_COOLDOWN_MS = 5_000;
+
+    private final SigningKeyRepo repo;
+    private final TransactionOperations transaction;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, PublicKey> verificationKeys = new ConcurrentHashMap<>();
+    private final AtomicLong lastReload = new AtomicLong();
+    private volatile ActiveKey current;
+
+    @Value("${token.signing.key}")
+    private String masterKey;
+    @Value("${token.signing.rotation-interval:P7D}")
+    private Duration rotationInterval = Duration.ofDays(7);
+    @Value("${token.access.lifetime:PT24H}")
+    private Duration accessTokenLifetime = Duration.ofHours(24);
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    public ActiveKey signingKey() {
+        return current;
+    }
+
+    public PublicKey verificationKey(String keyId) {
+        if (keyId == null) return null;
+
+        var key = verificationKeys.get(keyId);
+        if (key == null && System.currentTimeMillis() - lastReload.get() > RELOAD_COOLDOWN_MS) {
+            refresh();
+            key = verificationKeys.get(keyId);
+        }
+        return key;
+    }
+
+    public JwkSetDTO jwks() {
+        return JwkSetDTO.of(verificationKeys.entrySet().stream()
+                .map(e -> {
+                    var key = (RSAPublicKey) e.getValue();
+                    return JwkDTO.builder()
+                            .kty(KEY_ALGORITHM)
+                            .kid(e.getKey())
+                            .use("sig")
+                            .alg("RS256")
+                            .n(base64Url(key.getModulus()))
+                            .e(base64Url(key.getPublicExponent()))
+                            .build();
+                })
+                .toList());
+    }
+
+    /**
+     * Обслуживание ключей: удаляет выведенные из оборота, перечитывает остальные и ротирует ключ подписи, если он
+     * устарел. Выполняется по расписанию под блокировкой строк {@code signing_keys}, чтобы несколько экземпляров
+     * не ротировали ключ одновременно.
+     */
+    @UsePool(Workload.BATCH)
+    @Scheduled(fixedDelayString = "${token.signing.sync-interval:PT1M}")
+    public synchronized void reload() {
+        transaction.executeWithoutResult(status -> {
+            repo.lockAll();
+            repo.deleteRetired(retiredBefore());
+
+            var keys = load();
+            if (keys.isEmpty() || keys.getFirst().getCreatedAt().isBefore(LocalDateTime.now().minus(rotationInterval)))
+                rotate();
+        });
+    }
+
+    /**
+     * Только перечитывает ключи из БД. Вызывается при проверке токена с неизвестным {@code kid}, поэтому ничего
+     * не записывает.
+     */
+    public synchronized void refresh() {
+        load();
+    }
+
+    public synchronized void rotate() {
+        var pair = generateKeyPair();
+        var id = UUID.randomUUID().toString();
+
+        repo.save(SigningKey.builder()
+                .id(id)
+                .privateKey(encrypt(pair.getPrivate().getEncoded()))
+                .publicKey(Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()))
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        verificationKeys.put(id, pair.getPublic());
+        current = new ActiveKey(id, pair.getPrivate());
+    }
+
+    private List<SigningKey> load() {
+        lastReload.set(System.currentTimeMillis());
+
+        var keys = repo.findAllByCreatedAtAfterOrderByCreatedAtDesc(retiredBefore());
+        var loaded = new HashMap<String, PublicKey>();
+        keys.forEach(k -> loaded.put(k.getId(), decodePublicKey(k.getPublicKey())));
+        verificationKeys.putAll(loaded);
+        verificationKeys.keySet().retainAll(loaded.keySet());
+
+        if (!keys.isEmpty() && (current == null || !current.id().equals(keys.getFirst().getId()))) {
+            var newest = keys.getFirst();
+            current = new ActiveKey(newest.getId(), decodePrivateKey(decrypt(newest.getPrivateKey())));
+        }
+        return keys;
+    }
+
+    private LocalDateTime retiredBefore() {
+        return LocalDateTime.now().minus(rotationInterval).minus(accessTokenLifetime);
+    }
+
+    private KeyPair generateKeyPair() {
+        try {
+            var generator = KeyPairGenerator.getInstance(KEY_ALGORITHM);
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private PublicKey decodePublicKey(String encoded) {
+        try {
+            return KeyFactory.getInstance(KEY_ALGORITHM)
+                    .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(encoded)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private PrivateKey decodePrivateKey(byte[] encoded) {
+        try {
+            return KeyFactory.getInstance(KEY_ALGORITHM).generatePrivate(new PKCS8EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String encrypt(byte[] data) {
+        try {
+            var iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            var cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey(), new GCMParameterSpec(128, iv));
+            var encrypted = cipher.doFinal(data);
+
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + encrypted.length)
+                    .put(iv)
+                    .put(encrypted)
+                    .array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] decrypt(String data) {
+        try {
+            var bytes = Base64.getDecoder().decode(data);
+            var cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, encryptionKey(), new GCMParameterSpec(128, bytes, 0, IV_LENGTH));
+            return cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private SecretKeySpec encryptionKey() throws NoSuchAlgorithmException {
+        var digest = MessageDigest.getInstance("SHA-256").digest(Decoders.BASE64.decode(masterKey));
+        return new SecretKeySpec(digest, "AES");
+    }
+
+    private static String base64Url(BigInteger value) {
+        var bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public record ActiveKey(String id, PrivateKey privateKey) {
+    }
+}
@@ -1,30 +1,40 @@
 package ru.em.tms.service.util;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.*;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import ru.em.tms.model.db.User;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
-    @Value("${token.signing.key}")
-    private String jwtSigningKey;
+    private final JwtKeyStore keyStore;
+    private final JwtParser parser = Jwts.parser().keyLocator(this::locateKey).build();
+    @Value("${token.access.lifetime:PT24H}")
+    private Duration accessTokenLifetime = Duration.ofHours(24);
 
     public String extractUserName(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
+    public String extractId(String token) {
+        return extractClaim(token, Claims::getId);
+    }
+
+    public Date extractExpiration(String token) {
+        return extractClaim(token, Claims::getExpiration);
+    }
+
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         if (userDetails instanceof User customUserDetails) {
@@ -36,42 +46,39 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return !isTokenExpired(token) && (userName.equals(userDetails.getUsername()));
-    }
-
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolvers) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolvers.apply(claims);
-    }
-
-    private String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return Jwts.builder().claims(extraClaims).subject(userDetails.getUsername())
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + 1000L * 60 * 60 * 24))
-                .signWith(getSigningKey(), Jwts.SIG.HS256).compact();
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isTokenValid(parse(token), userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return !claims.getExpiration().before(new Date()) && claims.getSubject().equals(userDetails.getUsername());
     }
 
-    private Claims extractAllClaims(String token) {
+    public Claims parse(String token) {
         try {
-            return Jwts.parser().verifyWith(getSigningKey()).build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return parser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException ex) {
             return ex.getClaims();
         }
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSigningKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private <T> T extractClaim(String token, Function<Claims, T> claimsResolvers) {
+        final Claims claims = parse(token);
+        return claimsResolvers.apply(claims);
+    }
+
+    private String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
+        var signingKey = keyStore.signingKey();
+        return Jwts.builder().header().keyId(signingKey.id()).and()
+                .claims(extraClaims).subject(userDetails.getUsername())
+                .id(UUID.randomUUID().toString())
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + accessTokenLifetime.toMillis()))
+                .signWith(signingKey.privateKey(), Jwts.SIG.RS256).compact();
+    }
+
+    private Key locateKey(Header header) {
+        return header instanceof ProtectedHeader protectedHeader
+                ? keyStore.verificationKey(protectedHeader.getKeyId())
+                : null;
     }
 }
@@ -0,0 +1,58 @@
+package ru.em.tms.service.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.em.tms.model.event.ProjectMembersChangedEvent;
+import ru.em.tms.repo.ProjectRepo;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Проекты пользователя для проверки доступа. Список читается одним запросом и хранится
+ * {@code projects.membership-cache-ttl}; после фиксации изменения участников проекта записи его участников сбрасываются.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProjectMembershipService {
+    private final ProjectRepo repo;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Membership> memberships = new ConcurrentHashMap<>();
+
+    @Value("${projects.membership-cache-ttl:PT1M}")
+    private Duration ttl = Duration.ofMinutes(1);
+
+    public boolean isMember(Long projectId, String email) {
+        var membership = memberships.get(email);
+        var hit = membership != null && !membership.isExpired();
+        meterRegistry.counter("tms.cache", "cache", "project_members", "result", hit ? "hit" : "miss").increment();
+        if (!hit) {
+            membership = new Membership(Set.copyOf(repo.findIdsByMemberEmail(email)), System.currentTimeMillis() + ttl.toMillis());
+            memberships.put(email, membership);
+        }
+
+        return membership.projectIds().contains(projectId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembersChanged(ProjectMembersChangedEvent event) {
+        event.emails().forEach(memberships::remove);
+    }
+
+    @Scheduled(fixedDelayString = "${projects.membership-cache-ttl:PT1M}")
+    public void evictExpired() {
+        memberships.values().removeIf(Membership::isExpired);
+    }
+
+    private record Membership(Set<Long> projectIds, long expiresAt) {
+        boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ru.em.tms.service.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.em.tms.lib.datasource.UsePool;
+import ru.em.tms.lib.datasource.Workload;
+import ru.em.tms.model.db.RefreshToken;
+import ru.em.tms.model.db.User;
+import ru.em.tms.model.enums.Role;
+import ru.em.tms.repo.RefreshTokenRepo;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@UsePool(Workload.AUTH)
+public class RefreshTokenService {
+    private final RefreshTokenRepo repo;
+    private final MeterRegistry meterRegistry;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    @Value("${token.refresh.lifetime:P30D}")
+    private Duration lifetime = Duration.ofDays(30);
+
+    @Transactional
+    public String issue(User user) {
+        var bytes = new byte[32];
+        random.nextBytes(bytes);
+        var token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        var hash = hash(token);
+        var expiresAt = LocalDateTime.now().plus(lifetime);
+
+        repo.save(RefreshToken.builder()
+                .tokenHash(hash)
+                .user(user)
+                .expiresAt(expiresAt)
+                .build());
+        sessions.put(hash, new Session(user.getId(), user.getEmail(), user.getRole(), expiresAt));
+
+        return token;
+    }
+
+    public User refresh(String token) {
+        var hash = hash(token);
+        var session = sessions.get(hash);
+        meterRegistry.counter("tms.cache", "cache", "refresh_tokens", "result", session == null ? "miss" : "hit").increment();
+        if (session == null) {
+            session = repo.findByTokenHash(hash)
+                    .map(t -> new Session(t.getUser().getId(), t.getUser().getEmail(), t.getUser().getRole(), t.getExpiresAt()))
+                    .orElseThrow(() -> new CredentialsExpiredException("Недействительный refresh-токен"));
+            sessions.put(hash, session);
+        }
+
+        if (session.isExpired()) {
+            sessions.remove(hash);
+            throw new CredentialsExpiredException("Недействительный refresh-токен");
+        }
+
+        return User.builder()
+                .id(session.userId())
+                .email(session.email())
+                .role(session.role())
+                .build();
+    }
+
+    @Transactional
+    public void revoke(String token) {
+        var hash = hash(token);
+        sessions.remove(hash);
+        repo.deleteByTokenHash(hash);
+    }
+
+    @Transactional
+    public void revokeAll(Integer userId) {
+        sessions.values().removeIf(s -> Objects.equals(s.userId(), userId));
+        repo.deleteByUserId(userId);
+    }
+
+    @Transactional
+    @UsePool(Workload.BATCH)
+    @Scheduled(fixedDelayString = "${token.refresh.purge-interval:PT1H}")
+    public void purgeExpired() {
+        sessions.values().removeIf(Session::isExpired);
+        repo.deleteExpired(LocalDateTime.now());
+    }
+
+    private static String hash(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Session(Integer userId, String email, Role role, LocalDateTime expiresAt) {
+        boolean isExpired() {
+            return expiresAt.isBefore(LocalDateTime.now());
+        }
+    }
+}
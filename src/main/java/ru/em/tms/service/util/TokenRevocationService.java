@@ -0,0 +1,54 @@
+package ru.em.tms.service.util;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.em.tms.lib.datasource.UsePool;
+import ru.em.tms.lib.datasource.Workload;
+import ru.em.tms.model.db.RevokedToken;
+import ru.em.tms.repo.RevokedTokenRepo;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@UsePool(Workload.AUTH)
+public class TokenRevocationService {
+    private final RevokedTokenRepo repo;
+    private final Map<String, LocalDateTime> revoked = new ConcurrentHashMap<>();
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.containsKey(tokenId);
+    }
+
+    @Transactional
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId == null) return;
+
+        var expires = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        repo.save(RevokedToken.builder().id(tokenId).expiresAt(expires).build());
+        revoked.put(tokenId, expires);
+    }
+
+    @PostConstruct
+    public void load() {
+        repo.findAllByExpiresAtAfter(LocalDateTime.now())
+                .forEach(t -> revoked.put(t.getId(), t.getExpiresAt()));
+    }
+
+    @Transactional
+    @UsePool(Workload.BATCH)
+    @Scheduled(fixedDelayString = "${token.revocation.sync-interval:PT1M}")
+    public void sync() {
+        var now = LocalDateTime.now();
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        repo.deleteExpired(now);
+        load();
+    }
+}
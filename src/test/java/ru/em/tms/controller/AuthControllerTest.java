@@ -1,26 +1,30 @@
 package ru.em.tms.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.observation.ObservationAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.em.tms.config.TestSecurityConfig;
+import ru.em.tms.lib.ratelimit.RateLimiter;
 import ru.em.tms.model.dto.JwtDTO;
+import ru.em.tms.model.dto.RefreshTokenDTO;
 import ru.em.tms.model.dto.user.UserAuthDTO;
 import ru.em.tms.service.AuthService;
 import ru.em.tms.service.UserService;
 import ru.em.tms.service.util.JwtService;
-
-import java.lang.reflect.Field;
+import ru.em.tms.service.util.TokenRevocationService;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
@@ -31,6 +35,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @ExtendWith(MockitoExtension.class)
 @WebMvcTest(AuthController.class)
+@AutoConfigureObservability
+@ImportAutoConfiguration(ObservationAutoConfiguration.class)
 @Import(TestSecurityConfig.class)
 class AuthControllerTest {
     @MockBean
@@ -39,23 +45,20 @@ class AuthControllerTest {
     private JwtService jwtService;
     @MockBean
     private UserService userService;
+    @MockBean
+    private TokenRevocationService revocationService;
+    @MockBean
+    private RateLimiter rateLimiter;
     @Autowired
     private MockMvc mockMvc;
 
-    @BeforeEach
-    void setUp() throws Exception {
-        Field field = JwtService.class.getDeclaredField("jwtSigningKey");
-        field.setAccessible(true);
-        field.set(jwtService, "A5C26D3F7B2A48E6F1D4E0A753965F423D6F237E5C1B784E6A3A5F278D635B56");
-    }
-
     @Test
     void signUp_whenValidRequest_shouldReturnJwtDTO() throws Exception {
         var token = "token";
         UserAuthDTO request = new UserAuthDTO("test@test.ru", "12345zxC!");
-        JwtDTO expectedResponse = JwtDTO.of(token);
+        JwtDTO expectedResponse = JwtDTO.of(token, "refresh");
 
-        when(authService.signUp(request)).thenReturn(token);
+        when(authService.signUp(request)).thenReturn(expectedResponse);
 
         mockMvc.perform(post("/register")
                         .with(csrf())
@@ -88,9 +91,9 @@ class AuthControllerTest {
     void signIn_whenValidRequest_shouldReturnJwtDTO() throws Exception {
         var token = "token";
         UserAuthDTO request = new UserAuthDTO("test@test.ru", "12345zxC!");
-        JwtDTO expectedResponse = JwtDTO.of(token);
+        JwtDTO expectedResponse = JwtDTO.of(token, "refresh");
 
-        when(authService.signIn(request)).thenReturn(token);
+        when(authService.signIn(request)).thenReturn(expectedResponse);
 
         mockMvc.perform(post("/login")
                         .with(csrf())
@@ -98,7 +101,8 @@ class AuthControllerTest {
                         .content(new ObjectMapper().writeValueAsString(request)))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.jwt").value(expectedResponse.getJwt()));
+                .andExpect(jsonPath("$.jwt").value(expectedResponse.getJwt()))
+                .andExpect(jsonPath("$.refresh_token").value(expectedResponse.getRefreshToken()));
 
         verify(authService).signIn(any(UserAuthDTO.class));
     }
@@ -120,4 +124,36 @@ class AuthControllerTest {
 
         verify(authService).signIn(any(UserAuthDTO.class));
     }
+
+    @Test
+    void refresh_whenValidRequest_shouldReturnJwtDTO() throws Exception {
+        var request = RefreshTokenDTO.builder().refreshToken("refresh").build();
+        JwtDTO expectedResponse = JwtDTO.of("token", "refresh");
+
+        when(authService.refresh("refresh")).thenReturn(expectedResponse);
+
+        mockMvc.perform(post("/refresh")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.jwt").value(expectedResponse.getJwt()))
+                .andExpect(jsonPath("$.refresh_token").value(expectedResponse.getRefreshToken()));
+    }
+
+    @Test
+    void refresh_whenTokenInvalid_shouldReturnUnauthorized() throws Exception {
+        var request = RefreshTokenDTO.builder().refreshToken("invalid").build();
+
+        when(authService.refresh("invalid")).thenThrow(new CredentialsExpiredException("Недействительный refresh-токен"));
+
+        mockMvc.perform(post("/refresh")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(request)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.jwt").doesNotExist())
+                .andExpect(jsonPath("$.message").isNotEmpty());
+    }
 }
\ No newline at end of file
@@ -17,9 +17,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.LinkedMultiValueMap;
 import ru.em.tms.TMSApp;
 import ru.em.tms.TestTMSApp;
+import ru.em.tms.lib.json.DateTimeSerializer;
 import ru.em.tms.lib.mapper.CommentMapper;
 import ru.em.tms.lib.mapper.TaskMapper;
 import ru.em.tms.model.db.Comment;
+import ru.em.tms.model.db.Project;
 import ru.em.tms.model.db.Task;
 import ru.em.tms.model.dto.PageableResponse;
 import ru.em.tms.model.dto.comment.CommentEditDTO;
@@ -31,16 +33,20 @@ import ru.em.tms.model.enums.Role;
 import ru.em.tms.model.enums.task.Priority;
 import ru.em.tms.model.enums.task.Status;
 import ru.em.tms.repo.CommentRepo;
+import ru.em.tms.repo.ProjectRepo;
 import ru.em.tms.repo.TaskRepo;
 import ru.em.tms.repo.UserRepo;
 import ru.em.tms.service.CommentService;
 import ru.em.tms.service.UserService;
 
 import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -79,10 +85,16 @@ public class CommentControllerIT {
         var taskRepo = context.getBean(TaskRepo.class);
         var userRepo = context.getBean(UserRepo.class);
         var admin = userRepo.findById(initialUsers.getFirst().getId()).get();
+        var project = context.getBean(ProjectRepo.class).save(Project.builder()
+                .name("project")
+                .author(admin)
+                .members(new HashSet<>(Set.of(admin, userRepo.findByEmail("user1@test.ru").get())))
+                .build());
         for (int i = 0; i < initialUsers.size(); i++) {
             var user = i > 0 ? userRepo.findById(initialUsers.get(i).getId()).get() : admin;
 
             initialTasks.add(taskMapper.sourceToDestination(taskRepo.save(Task.builder()
+                    .project(project)
                     .title("task")
                     .description("task")
                     .status(Status.NEW)
@@ -159,6 +171,17 @@ public class CommentControllerIT {
         Assertions.assertEquals(excepted, actual);
     }
 
+    @Test
+    @WithMockUser(username = "user1@test.ru", password = "user1", authorities = "USER")
+    void getAll_whenUserIsProjectMember_returnsOk() throws Exception {
+        var task = initialTasks.get(1);
+
+        mockMvc.perform(get("/tasks/" + task.getId() + "/comments")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
     @Test
     @WithMockUser(username = "user0@test.ru", password = "user2", authorities = "USER")
     void getAll_whenUserHasNoAccess_returnsError() throws Exception {
@@ -353,6 +376,27 @@ public class CommentControllerIT {
                 .andExpect(jsonPath("$.message").isNotEmpty());
     }
 
+    @Test
+    void createAndDelete_whenAdmin_updatesTaskCommentCount() throws Exception {
+        var task = initialTasks.getFirst();
+        var comments = new ArrayList<CommentGetDTO>();
+        for (int i = 1; i <= 3; i++) {
+            comments.add(service.create(task.getId(), CommentEditDTO.builder()
+                    .content("comment" + i)
+                    .build()));
+        }
+        service.delete(task.getId(), comments.getFirst().getId());
+
+        mockMvc.perform(get("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("fields", "id,comment_count,last_activity_at"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result[?(@.id == " + task.getId() + ")].comment_count").value(2))
+                .andExpect(jsonPath("$.result[?(@.id == " + task.getId() + ")].last_activity_at")
+                        .value(DateTimeFormatter.ofPattern(DateTimeSerializer.PATTERN).format(comments.getLast().getCreatedAt())));
+    }
+
     @Test
     void delete_whenAdminAndCorrect_returnsOk() throws Exception {
         var task = initialTasks.getFirst();
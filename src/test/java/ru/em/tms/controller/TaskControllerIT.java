@@ -3,12 +3,16 @@ package ru.em.tms.controller;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.*;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.TestConstructor;
@@ -17,7 +21,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.LinkedMultiValueMap;
 import ru.em.tms.TMSApp;
 import ru.em.tms.TestTMSApp;
+import ru.em.tms.lib.json.MergePatch;
 import ru.em.tms.lib.mapper.TaskMapper;
+import ru.em.tms.model.db.Project;
 import ru.em.tms.model.db.Task;
 import ru.em.tms.model.dto.PageableResponse;
 import ru.em.tms.model.dto.task.TaskCreateDTO;
@@ -28,14 +34,21 @@ import ru.em.tms.model.dto.user.UserGetDTO;
 import ru.em.tms.model.enums.Role;
 import ru.em.tms.model.enums.task.Priority;
 import ru.em.tms.model.enums.task.Status;
+import ru.em.tms.repo.ProjectRepo;
 import ru.em.tms.repo.TaskRepo;
 import ru.em.tms.repo.UserRepo;
+import ru.em.tms.service.TaskArchiveService;
+import ru.em.tms.service.TaskCounterService;
 import ru.em.tms.service.TaskService;
 import ru.em.tms.service.UserService;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.*;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -46,14 +59,17 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Transactional
 @WithMockUser(username = "admin@test.ru", password = "admin", authorities = "ADMIN")
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Slf4j
 class TaskControllerIT {
     private final MockMvc mockMvc;
     private final TaskService service;
+    private final TaskCounterService counterService;
     private final ApplicationContext context;
     private final UserService userService;
     private final ObjectMapper mapper;
 
     private final List<UserGetDTO> initialUsers = new ArrayList<>(5);
+    private Long projectId;
 
     @BeforeAll
     void setUp() {
@@ -66,6 +82,13 @@ class TaskControllerIT {
             initialUsers.add(userService.create(UserEditDTO.builder()
                     .email("user" + i + "@test.ru").password(password).role(Role.USER).build()));
         }
+
+        var userRepo = context.getBean(UserRepo.class);
+        projectId = context.getBean(ProjectRepo.class).save(Project.builder()
+                .name("project")
+                .author(userRepo.findById(initialUsers.getFirst().getId()).orElseThrow())
+                .members(new HashSet<>(userRepo.findAllById(initialUsers.stream().map(UserGetDTO::getId).toList())))
+                .build()).getId();
     }
 
     @Test
@@ -73,6 +96,7 @@ class TaskControllerIT {
         var tasksExcepted = new ArrayList<TaskGetDTO>(){{
             for (int i = 1; i <= 10; i++) {
                 add(service.create(TaskCreateDTO.builder()
+                        .projectId(projectId)
                         .title("task №" + i)
                         .executorId(initialUsers.get(i % 4).getId())
                         .build()));
@@ -97,12 +121,137 @@ class TaskControllerIT {
         Assertions.assertEquals(excepted, actual);
     }
 
+    @Test
+    void getAll_whenAcceptCbor_returnsSamePageInSmallerBody() throws Exception {
+        for (int i = 1; i <= 50; i++) {
+            service.create(TaskCreateDTO.builder()
+                    .projectId(projectId)
+                    .title("task №" + i)
+                    .description("description of task №" + i)
+                    .executorId(initialUsers.get(i % 4).getId())
+                    .build());
+        }
+
+        var json = getAllAs(MediaType.APPLICATION_JSON);
+        var cbor = getAllAs(MediaType.APPLICATION_CBOR);
+
+        var type = new TypeReference<PageableResponse<TaskGetDTO>>() {};
+        var cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+        var fromJson = mapper.readValue(json, type);
+        var fromCbor = cborMapper.readValue(cbor, type);
+
+        var jsonParse = System.nanoTime();
+        for (int i = 0; i < 100; i++) mapper.readValue(json, type);
+        jsonParse = System.nanoTime() - jsonParse;
+        var cborParse = System.nanoTime();
+        for (int i = 0; i < 100; i++) cborMapper.readValue(cbor, type);
+        cborParse = System.nanoTime() - cborParse;
+
+        log.info("Страница из {} задач: JSON {} байт, разбор {} мкс; CBOR {} байт, разбор {} мкс",
+                fromJson.getResult().size(), json.length, jsonParse / 100_000, cbor.length, cborParse / 100_000);
+
+        Assertions.assertEquals(fromJson, fromCbor);
+        Assertions.assertTrue(cbor.length < json.length);
+    }
+
+    private byte[] getAllAs(MediaType mediaType) throws Exception {
+        return mockMvc.perform(get("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(mediaType)
+                        .param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(mediaType))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+    }
+
+    @Test
+    void getAll_whenFieldsRequested_returnsOnlyThem() throws Exception {
+        var task = service.create(TaskCreateDTO.builder()
+                .projectId(projectId)
+                .title("task")
+                .description("description")
+                .executorId(initialUsers.getFirst().getId())
+                .build());
+
+        mockMvc.perform(get("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("fields", "id,title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result[0].id").value(task.getId()))
+                .andExpect(jsonPath("$.result[0].title").value(task.getTitle()))
+                .andExpect(jsonPath("$.result[0].description").doesNotExist())
+                .andExpect(jsonPath("$.result[0].executor_id").doesNotExist())
+                .andExpect(jsonPath("$.total_pages").value(1));
+    }
+
+    @Test
+    void getAll_whenUnknownField_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Неизвестное поле: password"));
+    }
+
+    @Test
+    @WithMockUser(username = "user1@test.ru", password = "user1", authorities = "USER")
+    void getAllByProject_whenMember_returnsProjectTasks() throws Exception {
+        var userRepo = context.getBean(UserRepo.class);
+        var otherProjectId = context.getBean(ProjectRepo.class).save(Project.builder()
+                .name("other")
+                .author(userRepo.findById(initialUsers.getFirst().getId()).orElseThrow())
+                .build()).getId();
+        var tasksExcepted = new ArrayList<TaskGetDTO>(){{
+            for (int i = 1; i <= 4; i++) {
+                var task = service.create(TaskCreateDTO.builder()
+                        .projectId(i % 2 == 0 ? projectId : otherProjectId)
+                        .title("task №" + i)
+                        .executorId(initialUsers.get(i % 4).getId())
+                        .build());
+                if (i % 2 == 0) add(task);
+            }
+        }};
+
+        var content = mockMvc.perform(get("/projects/" + projectId + "/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("sort", "id"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        var actual = mapper.readValue(content, new TypeReference<PageableResponse<TaskGetDTO>>() {});
+
+        Assertions.assertEquals(tasksExcepted, actual.getResult());
+    }
+
+    @Test
+    @WithMockUser(username = "user1@test.ru", password = "user1", authorities = "USER")
+    void getAllByProject_whenNotMember_returnsForbidden() throws Exception {
+        var userRepo = context.getBean(UserRepo.class);
+        var otherProjectId = context.getBean(ProjectRepo.class).save(Project.builder()
+                .name("other")
+                .author(userRepo.findById(initialUsers.getFirst().getId()).orElseThrow())
+                .build()).getId();
+
+        mockMvc.perform(get("/projects/" + otherProjectId + "/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void getAll_whenAdminAndExecutorFilter_returnsAllFiltered() throws Exception {
         var executorId = initialUsers.getFirst().getId();
         var tasksExcepted = new ArrayList<TaskGetDTO>(){{
             for (int i = 1; i <= 10; i++) {
                 add(service.create(TaskCreateDTO.builder()
+                        .projectId(projectId)
                         .title("task №" + i)
                         .executorId(initialUsers.get(i % 4).getId())
                         .build()));
@@ -129,9 +278,69 @@ class TaskControllerIT {
         Assertions.assertEquals(excepted, actual);
     }
 
+    @Test
+    void getArchived_whenClosedTaskArchived_movesItFromActiveList() throws Exception {
+        var active = service.create(TaskCreateDTO.builder()
+                .projectId(projectId)
+                .title("active")
+                .executorId(initialUsers.get(1).getId())
+                .build());
+        var closed = service.create(TaskCreateDTO.builder()
+                .projectId(projectId)
+                .title("closed")
+                .executorId(initialUsers.get(1).getId())
+                .build());
+        var longAgo = LocalDateTime.now().minusYears(1);
+        context.getBean(JdbcTemplate.class).update("update tasks set status = 'DONE', updated_at = ?, last_activity_at = ? where id = ?",
+                longAgo, longAgo, closed.getId());
+
+        context.getBean(TaskArchiveService.class).archive();
+
+        mockMvc.perform(get("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result[*].id").value(hasItem(active.getId().intValue())))
+                .andExpect(jsonPath("$.result[*].id").value(not(hasItem(closed.getId().intValue()))));
+        mockMvc.perform(get("/tasks/archive")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result[*].id").value(contains(closed.getId().intValue())))
+                .andExpect(jsonPath("$.result[0].status").value("DONE"));
+    }
+
+    @Test
+    void getCounters_whenAdmin_returnsCountsByGroup() throws Exception {
+        var executorId = initialUsers.get(1).getId();
+        for (int i = 1; i <= 3; i++) {
+            var task = service.create(TaskCreateDTO.builder()
+                    .projectId(projectId)
+                    .title("task №" + i)
+                    .priority(i == 1 ? Priority.HIGH : Priority.LOW)
+                    .executorId(executorId)
+                    .build());
+            if (i == 3) service.update(task.getId(), TaskUpdateDTO.builder()
+                    .title(task.getTitle())
+                    .status(Status.DONE)
+                    .priority(Priority.LOW)
+                    .executorId(executorId)
+                    .build());
+        }
+        counterService.reconcile();
+
+        mockMvc.perform(get("/tasks/counters")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.by_executor['" + executorId + "'].NEW").value(2))
+                .andExpect(jsonPath("$.by_executor['" + executorId + "'].DONE").value(1));
+    }
+
     @Test
     void create_whenAdminAndCorrect_returnsCreated() throws Exception {
         var taskCreateDTO = TaskCreateDTO.builder()
+                .projectId(projectId)
                 .title("task")
                 .description("task")
                 .priority(Priority.LOW)
@@ -163,6 +372,7 @@ class TaskControllerIT {
     @WithMockUser(username = "user2@test.ru", password = "user2", authorities = "USER")
     void create_whenUserAndCorrect_returnsError() throws Exception {
         var taskCreateDTO = TaskCreateDTO.builder()
+                .projectId(projectId)
                 .title("task")
                 .description("task")
                 .priority(Priority.LOW)
@@ -181,6 +391,7 @@ class TaskControllerIT {
     @Test
     void update_whenAdminAndCorrect_returnsUpdated() throws Exception {
         var created = service.create(TaskCreateDTO.builder()
+                .projectId(projectId)
                 .title("task")
                 .description("task")
                 .priority(Priority.LOW)
@@ -216,6 +427,90 @@ class TaskControllerIT {
         );
     }
 
+    @Test
+    void update_whenIfMatchStaleAndChangesDisjoint_mergesChanges() throws Exception {
+        var created = service.create(TaskCreateDTO.builder()
+                .projectId(projectId)
+                .title("task")
+                .description("task")
+                .priority(Priority.LOW)
+                .executorId(initialUsers.get(1).getId())
+                .build());
+        var etag = mockMvc.perform(get("/tasks/" + created.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, TaskService.versionTag(created)))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        service.update(created.getId(), TaskUpdateDTO.builder()
+                .title(created.getTitle())
+                .description("changed concurrently")
+                .status(created.getStatus())
+                .priority(created.getPriority())
+                .executorId(created.getExecutorId())
+                .build());
+
+        var taskUpdateDTO = TaskUpdateDTO.builder()
+                .title(created.getTitle())
+                .description(created.getDescription())
+                .status(created.getStatus())
+                .priority(Priority.HIGH)
+                .executorId(created.getExecutorId())
+                .build();
+
+        var content = mockMvc.perform(put("/tasks/" + created.getId())
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(taskUpdateDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        var actual = mapper.readValue(content, TaskGetDTO.class);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals("changed concurrently", actual.getDescription()),
+                () -> Assertions.assertEquals(Priority.HIGH, actual.getPriority()),
+                () -> Assertions.assertEquals(created.getVersion() + 2, actual.getVersion())
+        );
+    }
+
+    @Test
+    void update_whenIfMatchStaleAndSameFieldChanged_returnsConflict() throws Exception {
+        var created = service.create(TaskCreateDTO.builder()
+                .projectId(projectId)
+                .title("task")
+                .description("task")
+                .priority(Priority.LOW)
+                .executorId(initialUsers.get(1).getId())
+                .build());
+        var etag = TaskService.versionTag(created);
+        var concurrent = TaskUpdateDTO.builder()
+                .title(created.getTitle())
+                .description("changed concurrently")
+                .status(created.getStatus())
+                .priority(created.getPriority())
+                .executorId(created.getExecutorId())
+                .build();
+
+        service.update(created.getId(), concurrent);
+
+        mockMvc.perform(put("/tasks/" + created.getId())
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(TaskUpdateDTO.builder()
+                                .title(created.getTitle())
+                                .description("changed by client")
+                                .status(created.getStatus())
+                                .priority(created.getPriority())
+                                .executorId(created.getExecutorId())
+                                .build())))
+                .andExpect(status().isConflict());
+    }
+
     @SuppressWarnings("OptionalGetWithoutIsPresent")
     @Test
     @WithMockUser(username = "user1@test.ru", password = "user1", roles = "USER")
@@ -224,6 +519,7 @@ class TaskControllerIT {
         var taskRepo = context.getBean(TaskRepo.class);
         var userRepo = context.getBean(UserRepo.class);
         var created = taskMapper.sourceToDestination(taskRepo.save(Task.builder()
+                .project(context.getBean(ProjectRepo.class).getReferenceById(projectId))
                 .title("task")
                 .description("task")
                 .status(Status.NEW)
@@ -269,6 +565,7 @@ class TaskControllerIT {
         var taskRepo = context.getBean(TaskRepo.class);
         var userRepo = context.getBean(UserRepo.class);
         var created = taskMapper.sourceToDestination(taskRepo.save(Task.builder()
+                .project(context.getBean(ProjectRepo.class).getReferenceById(projectId))
                 .title("task")
                 .description("task")
                 .status(Status.NEW)
@@ -295,9 +592,71 @@ class TaskControllerIT {
         Assertions.assertEquals(service.getById(created.getId()), Optional.of(created));
     }
 
+    @Test
+    void patch_whenAdminChangesStatus_updatesOnlyStatus() throws Exception {
+        var created = service.create(TaskCreateDTO.builder()
+                .projectId(projectId)
+                .title("task")
+                .description("task")
+                .priority(Priority.LOW)
+                .executorId(initialUsers.get(1).getId())
+                .build());
+
+        mockMvc.perform(patch("/tasks/" + created.getId())
+                        .contentType(MergePatch.MEDIA_TYPE)
+                        .header(HttpHeaders.IF_MATCH, TaskService.versionTag(created))
+                        .content("{\"status\":\"DONE\"}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("fields", "id,title,status,priority,version"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result[0].id").value(created.getId()))
+                .andExpect(jsonPath("$.result[0].status").value(Status.DONE.name()))
+                .andExpect(jsonPath("$.result[0].title").value(created.getTitle()))
+                .andExpect(jsonPath("$.result[0].priority").value(Priority.LOW.name()))
+                .andExpect(jsonPath("$.result[0].version").value(created.getVersion() + 1));
+    }
+
+    @Test
+    void patch_whenVersionStale_returnsConflict() throws Exception {
+        var created = service.create(TaskCreateDTO.builder()
+                .projectId(projectId)
+                .title("task")
+                .description("task")
+                .priority(Priority.LOW)
+                .executorId(initialUsers.get(1).getId())
+                .build());
+
+        mockMvc.perform(patch("/tasks/" + created.getId())
+                        .contentType(MergePatch.MEDIA_TYPE)
+                        .header(HttpHeaders.IF_MATCH, "\"" + (created.getVersion() + 1) + "\"")
+                        .content("{\"priority\":\"HIGH\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void patch_whenUnknownField_returnsBadRequest() throws Exception {
+        var created = service.create(TaskCreateDTO.builder()
+                .projectId(projectId)
+                .title("task")
+                .priority(Priority.LOW)
+                .executorId(initialUsers.get(1).getId())
+                .build());
+
+        mockMvc.perform(patch("/tasks/" + created.getId())
+                        .contentType(MergePatch.MEDIA_TYPE)
+                        .content("{\"author_id\":1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Неизвестное поле: author_id"));
+    }
+
     @Test
     void delete_whenAdminAndCorrect_returnsOk() throws Exception {
         var created = service.create(TaskCreateDTO.builder()
+                .projectId(projectId)
                 .title("task")
                 .description("task")
                 .priority(Priority.LOW)
@@ -310,6 +669,8 @@ class TaskControllerIT {
                 .andExpect(status().isOk());
 
         Assertions.assertEquals(service.getById(created.getId()), Optional.empty());
+        Assertions.assertNotNull(context.getBean(JdbcTemplate.class)
+                .queryForObject("select deleted_at from tasks where id = ?", LocalDateTime.class, created.getId()));
     }
 
     @Test
@@ -319,6 +680,7 @@ class TaskControllerIT {
         var taskRepo = context.getBean(TaskRepo.class);
         var userRepo = context.getBean(UserRepo.class);
         var created = taskMapper.sourceToDestination(taskRepo.save(Task.builder()
+                .project(context.getBean(ProjectRepo.class).getReferenceById(projectId))
                 .title("task")
                 .description("task")
                 .status(Status.NEW)
@@ -0,0 +1,82 @@
+package ru.em.tms.lib.concurrency;
+
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionTagTest {
+    @Test
+    void parse_whenFormatted_returnsVersionAndHashes() {
+        var tag = VersionTag.parse("W/" + VersionTag.format(3L, "title", null));
+
+        assertAll(
+                () -> assertEquals(3L, tag.version()),
+                () -> assertEquals(List.of(VersionTag.hash("title"), ""), tag.fieldHashes())
+        );
+    }
+
+    @Test
+    void parse_whenVersionOnly_returnsNoHashes() {
+        var tag = VersionTag.parse("\"5\"");
+
+        assertEquals(new VersionTag(5L, List.of()), tag);
+    }
+
+    @Test
+    void parse_whenEmptyOrAny_returnsNull() {
+        assertAll(
+                () -> assertNull(VersionTag.parse(null)),
+                () -> assertNull(VersionTag.parse(" ")),
+                () -> assertNull(VersionTag.parse("*"))
+        );
+    }
+
+    @Test
+    void parse_whenMalformed_throwsException() {
+        var ex = assertThrows(ValidationException.class, () -> VersionTag.parse("\"abc:1\""));
+
+        assertEquals("Некорректный заголовок If-Match", ex.getMessage());
+    }
+
+    @Test
+    void merge_whenVersionCurrent_returnsDesired() {
+        var tag = new VersionTag(1L, List.of());
+
+        assertEquals("new", tag.merge(1L, 0, "old", "new"));
+    }
+
+    @Test
+    void merge_whenOnlyOtherSideChangedField_keepsCurrent() {
+        var tag = VersionTag.parse(VersionTag.format(1L, "base"));
+
+        assertEquals("other", tag.merge(2L, 0, "other", "base"));
+    }
+
+    @Test
+    void merge_whenOnlyClientChangedField_returnsDesired() {
+        var tag = VersionTag.parse(VersionTag.format(1L, "base"));
+
+        assertEquals("client", tag.merge(2L, 0, "base", "client"));
+    }
+
+    @Test
+    void merge_whenBothChangedField_throwsException() {
+        var tag = VersionTag.parse(VersionTag.format(1L, "base"));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> tag.merge(2L, 0, "other", "client"));
+    }
+
+    @Test
+    void merge_whenStaleVersionWithoutHashes_throwsException() {
+        var tag = new VersionTag(1L, List.of());
+
+        assertAll(
+                () -> assertEquals("same", tag.merge(2L, 0, "same", "same")),
+                () -> assertThrows(OptimisticLockingFailureException.class, () -> tag.merge(2L, 0, "other", "client"))
+        );
+    }
+}
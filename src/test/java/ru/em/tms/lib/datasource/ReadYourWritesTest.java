@@ -0,0 +1,63 @@
+package ru.em.tms.lib.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadYourWritesTest {
+    private final ReadYourWrites readYourWrites = new ReadYourWrites();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void isSticky_whenWriteCommittedInThread_returnsTrue() {
+        readYourWrites.afterCommit(transaction(false), null);
+
+        assertTrue(readYourWrites.isSticky());
+    }
+
+    @Test
+    void isSticky_whenOnlyReadOnlyCommitted_returnsFalse() {
+        readYourWrites.afterCommit(transaction(true), null);
+
+        assertFalse(readYourWrites.isSticky());
+    }
+
+    @Test
+    void isSticky_whenCommitFailed_returnsFalse() {
+        readYourWrites.afterCommit(transaction(false), new RuntimeException());
+
+        assertFalse(readYourWrites.isSticky());
+    }
+
+    @Test
+    void isSticky_whenSameUserWroteInOtherRequest_returnsTrue() throws Exception {
+        var authentication = new UsernamePasswordAuthenticationToken("user@test.ru", null, null);
+        var writer = new Thread(() -> {
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            readYourWrites.afterCommit(transaction(false), null);
+        });
+        writer.start();
+        writer.join();
+
+        assertFalse(readYourWrites.isSticky());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        assertTrue(readYourWrites.isSticky());
+    }
+
+    private static TransactionExecution transaction(boolean readOnly) {
+        var transaction = mock(TransactionExecution.class);
+        when(transaction.isReadOnly()).thenReturn(readOnly);
+        return transaction;
+    }
+}
@@ -0,0 +1,96 @@
+package ru.em.tms.lib.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRouterTest {
+    private final ReadYourWrites readYourWrites = mock(ReadYourWrites.class);
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    @Test
+    void lookupKey_whenReplicaNotChecked_returnsPrimary() {
+        var router = new ReplicaRouter(List.of(replica), properties(0), readYourWrites);
+
+        assertEquals(ReplicaRouter.PRIMARY, router.lookupKey());
+    }
+
+    @Test
+    void lookupKey_whenReplicasUpToDate_alternatesReplicas() {
+        var router = new ReplicaRouter(List.of(replica, replica), properties(0), readYourWrites);
+        router.checkLag();
+
+        assertEquals(List.of("replica-0", "replica-1", "replica-0"),
+                List.of(router.lookupKey(), router.lookupKey(), router.lookupKey()));
+    }
+
+    @Test
+    void lookupKey_whenReplicaLagging_returnsPrimary() {
+        var router = new ReplicaRouter(List.of(replica), properties(10), readYourWrites);
+        router.checkLag();
+
+        assertEquals(ReplicaRouter.PRIMARY, router.lookupKey());
+    }
+
+    @Test
+    void lookupKey_whenUserWroteRecently_returnsPrimary() {
+        var router = new ReplicaRouter(List.of(replica), properties(0), readYourWrites);
+        router.checkLag();
+        when(readYourWrites.isSticky()).thenReturn(true);
+
+        assertEquals(ReplicaRouter.PRIMARY, router.lookupKey());
+    }
+
+    @Test
+    void dataSource_whenTransactionReadOnly_readsFromReplica() {
+        var router = new ReplicaRouter(List.of(replica), properties(0), readYourWrites);
+        router.checkLag();
+
+        var proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(router.dataSource(primary));
+        var jdbc = new JdbcTemplate(proxy);
+        var transactions = new TransactionTemplate(new DataSourceTransactionManager(proxy));
+
+        transactions.setReadOnly(true);
+        var read = transactions.execute(status -> jdbc.queryForObject("select name from node", String.class));
+        transactions.setReadOnly(false);
+        var write = transactions.execute(status -> jdbc.queryForObject("select name from node", String.class));
+
+        assertEquals("replica", read);
+        assertEquals("primary", write);
+    }
+
+    private static ReplicaProperties properties(long lagSeconds) {
+        return new ReplicaProperties(List.of(), Duration.ofSeconds(2), Duration.ofSeconds(5),
+                "select " + lagSeconds + " as Seconds_Behind_Master", "Seconds_Behind_Master");
+    }
+
+    private static DataSource database(String name) {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists node (name varchar(16))");
+        jdbc.update("delete from node");
+        jdbc.update("insert into node values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.em.tms.lib.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShardRouterTest {
+    @Test
+    void forId_followsAutoIncrementOffsets() {
+        var router = new ShardRouter(List.of(mock(DataSource.class), mock(DataSource.class)));
+
+        assertEquals(List.of(0, 1, 2, 0), List.of(router.forId(1), router.forId(2), router.forId(3), router.forId(4)));
+    }
+
+    @Test
+    void forTenant_spreadsTenantsOverShards() {
+        var router = new ShardRouter(List.of(mock(DataSource.class)));
+
+        assertEquals(List.of(0, 1, 0), List.of(router.forTenant(2), router.forTenant(3), router.forTenant(4)));
+    }
+
+    @Test
+    void dataSource_whenNotSharded_returnsPrimary() {
+        var router = new ShardRouter(List.of());
+        var primary = mock(DataSource.class);
+
+        assertFalse(router.isSharded());
+        assertEquals(0, router.forId(42));
+        assertSame(primary, router.dataSource(primary));
+    }
+
+    @Test
+    void dataSource_routesByCurrentShard() throws SQLException {
+        var primary = mock(DataSource.class);
+        var shard = mock(DataSource.class);
+        var primaryConnection = mock(Connection.class);
+        var shardConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(shard.getConnection()).thenReturn(shardConnection);
+        var dataSource = new ShardRouter(List.of(shard)).dataSource(primary);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(shardConnection, Shard.call(1, () -> connection(dataSource)));
+    }
+
+    private static Connection connection(DataSource dataSource) {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
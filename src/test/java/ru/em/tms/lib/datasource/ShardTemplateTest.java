@@ -0,0 +1,89 @@
+package ru.em.tms.lib.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class ShardTemplateTest {
+    private static final Map<Integer, List<Item>> SHARDS = Map.of(
+            0, List.of(new Item(1, 1), new Item(3, 4), new Item(5, 5)),
+            1, List.of(new Item(2, 2), new Item(4, 3), new Item(6, 6)));
+
+    private final ShardTemplate template = new ShardTemplate(new ShardRouter(List.of(mock(DataSource.class))),
+            mock(PlatformTransactionManager.class));
+    private final List<Pageable> requests = new ArrayList<>();
+
+    @Test
+    void page_mergesShardsInSortOrder() {
+        var pageable = PageRequest.of(1, 2, Sort.by("rank"));
+
+        var page = template.page(pageable, this::query, ShardTemplateTest::property, Item::rank);
+
+        assertAll(
+                () -> assertEquals(List.of(3, 4), page.getContent()),
+                () -> assertEquals(6, page.getTotalElements()),
+                () -> assertEquals(3, page.getTotalPages()),
+                () -> assertEquals(List.of(PageRequest.of(0, 4, Sort.by("rank", "id")),
+                        PageRequest.of(0, 4, Sort.by("rank", "id"))), requests)
+        );
+    }
+
+    @Test
+    void page_whenDescending_mergesFromLargest() {
+        var pageable = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "rank"));
+
+        var page = template.page(pageable, this::query, ShardTemplateTest::property, Item::rank);
+
+        assertEquals(List.of(6, 5, 4), page.getContent());
+    }
+
+    @Test
+    void gather_runsOnEveryShard() {
+        assertEquals(List.of(0, 1), template.gather(Shard::current));
+    }
+
+    @Test
+    void page_whenNotSharded_queriesCurrentTransaction() {
+        var local = new ShardTemplate(new ShardRouter(List.of()), null);
+        var pageable = PageRequest.of(0, 2, Sort.by("rank"));
+
+        var page = local.page(pageable, this::query, ShardTemplateTest::property, Item::rank);
+
+        assertAll(
+                () -> assertEquals(List.of(1, 4), page.getContent()),
+                () -> assertEquals(List.of(pageable), requests)
+        );
+    }
+
+    private Page<Item> query(Pageable pageable) {
+        requests.add(pageable);
+        var items = SHARDS.get(Shard.current()).stream()
+                .sorted(pageable.getSort().getOrderFor("rank").isAscending()
+                        ? Comparator.comparing(Item::rank)
+                        : Comparator.comparing(Item::rank).reversed())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(items, pageable, SHARDS.get(Shard.current()).size());
+    }
+
+    private static Object property(Item item, String property) {
+        return property.equals("id") ? item.id() : item.rank();
+    }
+
+    private record Item(long id, int rank) {
+    }
+}
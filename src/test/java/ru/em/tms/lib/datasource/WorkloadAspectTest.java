@@ -0,0 +1,57 @@
+package ru.em.tms.lib.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WorkloadAspectTest {
+    @Test
+    void usePool_onClass_setsWorkloadForMethods() {
+        var service = proxy(new AuthWork());
+
+        assertEquals(Workload.AUTH, service.current());
+        assertEquals(Workload.INTERACTIVE, Workload.current());
+    }
+
+    @Test
+    void usePool_onMethod_overridesClass() {
+        var service = proxy(new AuthWork());
+
+        assertEquals(Workload.BATCH, service.scheduled());
+    }
+
+    @Test
+    void usePool_whenMethodThrows_restoresWorkload() {
+        var service = proxy(new AuthWork());
+
+        try {
+            service.fail();
+        } catch (IllegalStateException ignored) {
+        }
+        assertEquals(Workload.INTERACTIVE, Workload.current());
+    }
+
+    private static <T> T proxy(T target) {
+        var factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new WorkloadAspect());
+        return factory.getProxy();
+    }
+
+    @UsePool(Workload.AUTH)
+    static class AuthWork {
+        public Workload current() {
+            return Workload.current();
+        }
+
+        @UsePool(Workload.BATCH)
+        public Workload scheduled() {
+            return Workload.current();
+        }
+
+        public void fail() {
+            throw new IllegalStateException();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.em.tms.lib.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WorkloadRoutingDataSourceTest {
+    private final DataSource interactive = mock(DataSource.class);
+    private final DataSource batch = mock(DataSource.class);
+    private final Connection interactiveConnection = mock(Connection.class);
+    private final Connection batchConnection = mock(Connection.class);
+
+    @Test
+    void getConnection_byDefault_usesInteractivePool() throws SQLException {
+        var dataSource = dataSource();
+
+        assertSame(interactiveConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_whenWorkloadHasPool_usesItsPool() throws SQLException {
+        var dataSource = dataSource();
+
+        assertSame(batchConnection, Workload.BATCH.call(() -> connection(dataSource)));
+        assertSame(interactiveConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_whenWorkloadHasNoPool_usesInteractivePool() throws SQLException {
+        var dataSource = dataSource();
+
+        assertSame(interactiveConnection, Workload.AUTH.call(() -> connection(dataSource)));
+    }
+
+    private DataSource dataSource() throws SQLException {
+        when(interactive.getConnection()).thenReturn(interactiveConnection);
+        when(batch.getConnection()).thenReturn(batchConnection);
+        return new WorkloadRoutingDataSource(interactive, Map.of(Workload.BATCH, batch));
+    }
+
+    private static Connection connection(DataSource dataSource) {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package ru.em.tms.lib.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CompressionFilterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CompressionFilter filter = new CompressionFilter(meterRegistry);
+
+    @Test
+    void doFilter_whenLargeJson_compressesBody() throws ServletException, IOException {
+        var body = "{\"description\":\"" + "a".repeat(10_000) + "\"}";
+        var response = new MockHttpServletResponse();
+
+        filter.doFilter(request("gzip, deflate, br"), response, write(MediaType.APPLICATION_JSON_VALUE, body));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertTrue(response.getContentAsByteArray().length < body.length());
+        assertEquals(body, gunzip(response.getContentAsByteArray()));
+        assertEquals(body.length(), meterRegistry.get(CompressionFilter.INPUT).tag("encoding", "gzip").summary().totalAmount());
+        assertEquals(response.getContentAsByteArray().length,
+                meterRegistry.get(CompressionFilter.OUTPUT).tag("encoding", "gzip").summary().totalAmount());
+        assertEquals(1, meterRegistry.get(CompressionFilter.TIME).timer().count());
+    }
+
+    @Test
+    void doFilter_whenBelowThreshold_sendsIdentity() throws ServletException, IOException {
+        var body = "{\"id\":1}";
+        var response = new MockHttpServletResponse();
+
+        filter.doFilter(request("gzip"), response, write(MediaType.APPLICATION_JSON_VALUE, body));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body.length(), response.getContentLength());
+        assertEquals(body, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_whenContentTypeNotCompressible_sendsIdentity() throws ServletException, IOException {
+        var body = "a".repeat(10_000);
+        var response = new MockHttpServletResponse();
+
+        filter.doFilter(request("gzip"), response, write(MediaType.IMAGE_PNG_VALUE, body));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body, response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_whenGzipNotAccepted_passesResponseThrough() throws ServletException, IOException {
+        var response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> assertSame(response, res);
+
+        filter.doFilter(request("br, gzip;q=0"), response, chain);
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void doFilter_whenStreamingFlushes_sendsCompressedChunkImmediately() throws ServletException, IOException {
+        var response = new MockHttpServletResponse();
+
+        filter.doFilter(request("gzip"), response, (req, res) -> {
+            res.setContentType("application/x-ndjson");
+            var out = res.getOutputStream();
+            out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+            assertTrue(response.getContentAsByteArray().length > 0);
+
+            out.write("{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void doFilter_whenCompressed_weakensETag() throws ServletException, IOException {
+        var body = "{\"description\":\"" + "a".repeat(10_000) + "\"}";
+        var response = new MockHttpServletResponse();
+
+        filter.doFilter(request("gzip"), response, (req, res) -> {
+            ((HttpServletResponse) res).setHeader(HttpHeaders.ETAG, "\"3:abc\"");
+            write(MediaType.APPLICATION_JSON_VALUE, body).doFilter(req, res);
+        });
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("W/\"3:abc\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void doFilter_whenChainThrows_discardsPartialBody() {
+        var body = "{\"description\":\"" + "a".repeat(10_000) + "\"}";
+        var response = new MockHttpServletResponse();
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request("gzip"), response, (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getWriter().write(body);
+            throw new IllegalStateException("ошибка");
+        }));
+
+        assertFalse(response.isCommitted());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void doFilter_whenWriteListenerSet_writesUncompressed() throws ServletException, IOException {
+        var stream = mock(ServletOutputStream.class);
+        var listener = mock(WriteListener.class);
+        var response = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return stream;
+            }
+        };
+        var body = "a".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+        when(stream.isReady()).thenReturn(true);
+
+        filter.doFilter(request("gzip"), response, (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            var out = res.getOutputStream();
+            out.setWriteListener(listener);
+            assertTrue(out.isReady());
+            out.write(body, 0, body.length);
+        });
+
+        verify(stream).setWriteListener(listener);
+        verify(stream).write(body, 0, body.length);
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    private static MockHttpServletRequest request(String acceptEncoding) {
+        var request = new MockHttpServletRequest("GET", "/tasks");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return request;
+    }
+
+    private static FilterChain write(String contentType, String body) {
+        return (req, res) -> {
+            res.setContentType(contentType);
+            res.setContentLength(body.length());
+            res.getWriter().write(body);
+            res.flushBuffer();
+        };
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package ru.em.tms.lib.filter;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.MalformedJwtException;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,12 +14,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import ru.em.tms.service.UserService;
 import ru.em.tms.service.util.JwtService;
+import ru.em.tms.service.util.TokenRevocationService;
 
 import java.io.IOException;
 
@@ -26,6 +33,8 @@ class JwtAuthenticationFilterTest {
     @Mock
     private JwtService jwtService;
     @Mock
+    private TokenRevocationService revocationService;
+    @Mock
     private UserDetailsService userDetailsService;
     @Mock
     private UserService userService;
@@ -37,6 +46,11 @@ class JwtAuthenticationFilterTest {
     private HttpServletResponse response;
     @Mock
     private UserDetails userDetails;
+    @Mock
+    private Claims claims;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private ObservationRegistry observationRegistry = observationRegistry(meterRegistry);
     @InjectMocks
     private JwtAuthenticationFilter filter;
 
@@ -65,8 +79,9 @@ class JwtAuthenticationFilterTest {
         String username = "test@test.ru";
         String token = "valid";
         when(request.getHeader(JwtAuthenticationFilter.HEADER)).thenReturn(JwtAuthenticationFilter.PREFIX + token);
-        when(jwtService.extractUserName(token)).thenReturn(username);
-        when(jwtService.isTokenValid(eq(token), any(UserDetails.class))).thenReturn(true);
+        when(jwtService.parse(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(username);
+        when(jwtService.isTokenValid(eq(claims), any(UserDetails.class))).thenReturn(true);
         when(userService.userDetailsService()).thenReturn(userDetailsService);
         when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
 
@@ -75,13 +90,32 @@ class JwtAuthenticationFilterTest {
         verify(filterChain).doFilter(request, response);
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         assertEquals(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        assertEquals(1, meterRegistry.get(JwtAuthenticationFilter.OBSERVATION).tag("result", "authenticated").timer().count());
+    }
+
+    @Test
+    void doFilterInternal_whenTokenRevoked_shouldNotLoadUser() throws ServletException, IOException {
+        String username = "test@test.ru";
+        String token = "revoked";
+        when(request.getHeader(JwtAuthenticationFilter.HEADER)).thenReturn(JwtAuthenticationFilter.PREFIX + token);
+        when(jwtService.parse(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(username);
+        when(claims.getId()).thenReturn("jti");
+        when(revocationService.isRevoked("jti")).thenReturn(true);
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(userService);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
     @Test
     void doFilterInternal_whenTokenInvalid_shouldNotAuthenticate() throws ServletException, IOException {
         String token = "invalid";
         when(request.getHeader(JwtAuthenticationFilter.HEADER)).thenReturn(JwtAuthenticationFilter.PREFIX + token);
-        when(jwtService.extractUserName(token)).thenReturn(null);
+        when(jwtService.parse(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(null);
 
         filter.doFilterInternal(request, response, filterChain);
 
@@ -89,6 +123,26 @@ class JwtAuthenticationFilterTest {
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
+    @Test
+    void doFilterInternal_whenTokenMalformed_shouldNotAuthenticate() throws ServletException, IOException {
+        String token = "malformed";
+        when(request.getHeader(JwtAuthenticationFilter.HEADER)).thenReturn(JwtAuthenticationFilter.PREFIX + token);
+        when(jwtService.parse(token)).thenThrow(new MalformedJwtException("malformed"));
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(userService);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, meterRegistry.get(JwtAuthenticationFilter.OBSERVATION).tag("result", "invalid").timer().count());
+    }
+
+    private static ObservationRegistry observationRegistry(SimpleMeterRegistry meterRegistry) {
+        var registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        return registry;
+    }
+
     @AfterEach
     void tearDown() {
         SecurityContextHolder.clearContext();
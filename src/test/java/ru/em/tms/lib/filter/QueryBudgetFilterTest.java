@@ -0,0 +1,106 @@
+package ru.em.tms.lib.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.em.tms.lib.metrics.QueryCountInspector;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class QueryBudgetFilterTest {
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Mock
+    private FilterChain filterChain;
+    @InjectMocks
+    private QueryBudgetFilter filter;
+
+    private final QueryCountInspector inspector = new QueryCountInspector();
+
+    @Test
+    void doFilterInternal_countsStatementsAndRecordsMetric() throws ServletException, IOException {
+        var request = new MockHttpServletRequest("GET", "/tasks/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/tasks/{id}");
+        var response = new MockHttpServletResponse();
+
+        executeStatements("select * from tasks where id=?", "select * from users where id=?");
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        assertEquals("2", response.getHeader(QueryBudgetFilter.HEADER));
+        var summary = meterRegistry.get(QueryBudgetFilter.SUMMARY)
+                .tag("method", "GET")
+                .tag("uri", "/tasks/{id}")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(2, summary.totalAmount());
+    }
+
+    @Test
+    void doFilterInternal_whenOutsideRequest_doesNotCount() throws ServletException, IOException {
+        inspector.inspect("select * from tasks");
+
+        var response = new MockHttpServletResponse();
+        filter.doFilterInternal(new MockHttpServletRequest("GET", "/tasks"), response, filterChain);
+
+        assertEquals("0", response.getHeader(QueryBudgetFilter.HEADER));
+    }
+
+    @Test
+    void doFilterInternal_whenBudgetExceededAndStrict_throwsException() throws ServletException, IOException {
+        ReflectionTestUtils.setField(filter, "maxStatements", 2);
+        ReflectionTestUtils.setField(filter, "strict", true);
+
+        executeStatements("select 1", "select 2", "select 3");
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilterInternal(
+                new MockHttpServletRequest("PUT", "/tasks/1"), new MockHttpServletResponse(), filterChain));
+    }
+
+    @Test
+    void doFilterInternal_whenStatementRepeatedAndStrict_throwsException() throws ServletException, IOException {
+        ReflectionTestUtils.setField(filter, "maxRepeats", 1);
+        ReflectionTestUtils.setField(filter, "strict", true);
+
+        executeStatements("select * from users where id=?", "select * from users where id=?");
+
+        var ex = assertThrows(IllegalStateException.class, () -> filter.doFilterInternal(
+                new MockHttpServletRequest("GET", "/tasks"), new MockHttpServletResponse(), filterChain));
+        assertTrue(ex.getMessage().contains("N+1"));
+    }
+
+    @Test
+    void doFilterInternal_whenBudgetExceededAndNotStrict_completesRequest() throws ServletException, IOException {
+        ReflectionTestUtils.setField(filter, "maxStatements", 1);
+
+        executeStatements("select 1", "select 2");
+
+        var response = new MockHttpServletResponse();
+        assertDoesNotThrow(() -> filter.doFilterInternal(
+                new MockHttpServletRequest("GET", "/tasks"), response, filterChain));
+        assertEquals("2", response.getHeader(QueryBudgetFilter.HEADER));
+    }
+
+    private void executeStatements(String... statements) throws ServletException, IOException {
+        doAnswer(invocation -> {
+            for (var sql : statements) inspector.inspect(sql);
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+    }
+}
@@ -0,0 +1,85 @@
+package ru.em.tms.lib.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import ru.em.tms.lib.ratelimit.RateLimiter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+    @Mock
+    private RateLimiter rateLimiter;
+    @Mock
+    private FilterChain filterChain;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RateLimitFilter(rateLimiter, new ObjectMapper());
+    }
+
+    @Test
+    void doFilterInternal_whenAnonymous_limitsByRemoteAddress() throws ServletException, IOException {
+        var request = new MockHttpServletRequest("GET", "/tasks");
+        request.setRemoteAddr("10.0.0.1");
+        var response = new MockHttpServletResponse();
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        verify(rateLimiter).tryAcquire("/tasks", "ip:10.0.0.1");
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_whenAuthenticated_limitsBySubject() throws ServletException, IOException {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("test@test.ru", null, List.of()));
+        var request = new MockHttpServletRequest("GET", "/tasks");
+        var response = new MockHttpServletResponse();
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        verify(rateLimiter).tryAcquire("/tasks", "user:test@test.ru");
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_whenLimited_returnsTooManyRequests() throws ServletException, IOException {
+        var request = new MockHttpServletRequest("GET", "/tasks");
+        var response = new MockHttpServletResponse();
+
+        when(rateLimiter.tryAcquire(anyString(), anyString())).thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        verify(filterChain, never()).doFilter(any(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,41 @@
+package ru.em.tms.lib.filter;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.TransactionExecution;
+import ru.em.tms.lib.datasource.ReadYourWrites;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ReadYourWritesFilterTest {
+    private final ReadYourWrites readYourWrites = new ReadYourWrites();
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(readYourWrites);
+
+    @Test
+    void doFilter_whenRequestWrote_clearsThreadAfterRequest() throws ServletException, IOException {
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> {
+            readYourWrites.afterCommit(mock(TransactionExecution.class), null);
+            assertTrue(readYourWrites.isSticky());
+        });
+
+        assertFalse(readYourWrites.isSticky());
+    }
+
+    @Test
+    void doFilter_whenChainThrows_clearsThread() {
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(new MockHttpServletRequest(),
+                new MockHttpServletResponse(), (req, res) -> {
+                    readYourWrites.afterCommit(mock(TransactionExecution.class), null);
+                    throw new IllegalStateException();
+                }));
+
+        assertFalse(readYourWrites.isSticky());
+    }
+}
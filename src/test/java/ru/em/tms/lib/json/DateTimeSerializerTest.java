@@ -0,0 +1,39 @@
+package ru.em.tms.lib.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DateTimeSerializerTest {
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new SimpleModule().addSerializer(LocalDateTime.class, new DateTimeSerializer()));
+
+    @Test
+    void serialize_writesPattern() throws JsonProcessingException {
+        var value = LocalDateTime.of(2024, 1, 9, 7, 5, 3, 999_000_000);
+
+        assertEquals("\"2024-01-09 07:05:03\"", mapper.writeValueAsString(value));
+    }
+
+    @Test
+    void serialize_matchesFormatter() throws JsonProcessingException {
+        var formatter = DateTimeFormatter.ofPattern(DateTimeSerializer.PATTERN);
+        var value = LocalDateTime.of(987, 12, 31, 23, 59, 59);
+
+        assertEquals("\"" + formatter.format(value) + "\"", mapper.writeValueAsString(value));
+    }
+
+    @Test
+    void serialize_whenYearOutOfRange_fallsBackToFormatter() throws JsonProcessingException {
+        var value = LocalDateTime.of(12024, 1, 1, 0, 0);
+
+        assertEquals("\"" + DateTimeFormatter.ofPattern(DateTimeSerializer.PATTERN).format(value) + "\"",
+                mapper.writeValueAsString(value));
+    }
+}
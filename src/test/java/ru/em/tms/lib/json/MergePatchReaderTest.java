@@ -0,0 +1,65 @@
+package ru.em.tms.lib.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.em.tms.model.dto.task.TaskUpdateDTO;
+import ru.em.tms.model.enums.task.Status;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MergePatchReaderTest {
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private final MergePatchReader reader = new MergePatchReader(mapper,
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void read_whenFieldsGiven_returnsOnlyThem() throws Exception {
+        var patch = reader.read(mapper.readTree("{\"status\":\"DONE\",\"executor_id\":2,\"description\":null}"),
+                TaskUpdateDTO.class);
+
+        assertAll(
+                () -> assertEquals(Set.of("status", "executorId", "description"), patch.fields()),
+                () -> assertEquals(Status.DONE, patch.value().getStatus()),
+                () -> assertEquals(2, patch.value().getExecutorId()),
+                () -> assertNull(patch.value().getDescription()),
+                () -> assertFalse(patch.has("title"))
+        );
+    }
+
+    @Test
+    void read_whenUnknownField_throwsException() throws Exception {
+        var patch = mapper.readTree("{\"author_id\":1}");
+
+        var ex = assertThrows(ValidationException.class, () -> reader.read(patch, TaskUpdateDTO.class));
+
+        assertEquals("Неизвестное поле: author_id", ex.getMessage());
+    }
+
+    @Test
+    void read_whenRequiredFieldCleared_throwsException() throws Exception {
+        var patch = mapper.readTree("{\"title\":null}");
+
+        var ex = assertThrows(ValidationException.class, () -> reader.read(patch, TaskUpdateDTO.class));
+
+        assertEquals("Заголовок не может быть пустым", ex.getMessage());
+    }
+
+    @Test
+    void read_whenWrongType_throwsException() throws Exception {
+        var patch = mapper.readTree("{\"status\":\"UNKNOWN\"}");
+
+        assertThrows(ValidationException.class, () -> reader.read(patch, TaskUpdateDTO.class));
+    }
+
+    @Test
+    void read_whenNotObject_throwsException() throws Exception {
+        var patch = mapper.readTree("[]");
+
+        assertThrows(ValidationException.class, () -> reader.read(patch, TaskUpdateDTO.class));
+    }
+}
@@ -0,0 +1,68 @@
+package ru.em.tms.lib.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import ru.em.tms.model.dto.task.TaskGetDTO;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SparseFieldsTest {
+    private final SparseFields fields = new SparseFields(Map.of(
+            "id", "id",
+            "title", "title",
+            "author_id", "author.id"));
+
+    @Test
+    void select_whenKnownFields_returnsPathsInRequestOrder() {
+        var selection = fields.select(new LinkedHashSet<>(List.of("author_id", "id")));
+
+        assertEquals(List.of("author_id", "id"), List.copyOf(selection.keySet()));
+        assertEquals("author.id", selection.get("author_id"));
+    }
+
+    @Test
+    void select_whenUnknownField_throwsException() {
+        var ex = assertThrows(ValidationException.class, () -> fields.select(Set.of("password")));
+
+        assertEquals("Неизвестное поле: password", ex.getMessage());
+    }
+
+    @Test
+    void get_whenFieldNotSelected_returnsNull() {
+        var tuple = mock(Tuple.class);
+        var element = mock(TupleElement.class);
+        when(element.getAlias()).thenReturn("id");
+        doReturn(List.of(element)).when(tuple).getElements();
+        doReturn(1L).when(tuple).get(eq("id"), any(Class.class));
+
+        assertAll(
+                () -> assertEquals(1L, SparseFields.get(tuple, "id", Long.class)),
+                () -> assertNull(SparseFields.get(tuple, "title", String.class))
+        );
+    }
+
+    @Test
+    void filterProvider_whenFieldsGiven_writesOnlyThem() throws Exception {
+        var task = TaskGetDTO.builder().id(1L).title("Тест").description("Описание").authorId(2).build();
+        var mapper = new ObjectMapper();
+
+        var all = mapper.writer(SparseFields.filterProvider()).writeValueAsString(task);
+        var narrowed = mapper.writer(SparseFields.filterProvider(Set.of("id", "author_id"))).writeValueAsString(task);
+
+        assertAll(
+                () -> assertTrue(all.contains("\"description\"")),
+                () -> assertEquals("{\"id\":1,\"author_id\":2}", narrowed)
+        );
+    }
+}
@@ -0,0 +1,56 @@
+package ru.em.tms.lib.mapper;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.em.tms.model.db.Project;
+import ru.em.tms.model.db.User;
+import ru.em.tms.model.dto.project.ProjectGetDTO;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+class ProjectMapperImplTest {
+    private final ProjectMapperImpl projectMapperImpl = new ProjectMapperImpl();
+
+    @Test
+    void sourceToDestination_whenFullObject_returnsDTO() {
+        var project = Project.builder()
+                .id(1L).name("test")
+                .author(User.builder().id(1).build())
+                .members(Set.of(User.builder().id(1).build(), User.builder().id(2).build()))
+                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now())
+                .build();
+        var expected = ProjectGetDTO.builder()
+                .id(project.getId()).name(project.getName())
+                .authorId(project.getAuthor().getId())
+                .memberIds(Set.of(1, 2))
+                .createdAt(project.getCreatedAt()).updatedAt(project.getUpdatedAt())
+                .build();
+
+        var actual = projectMapperImpl.sourceToDestination(project);
+
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    void sourceToDestination_whenRelationsIsNull_returnsDTO() {
+        var project = Project.builder()
+                .id(1L).name("test")
+                .build();
+        var expected = ProjectGetDTO.builder()
+                .id(project.getId()).name(project.getName())
+                .memberIds(Set.of())
+                .build();
+
+        var actual = projectMapperImpl.sourceToDestination(project);
+
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    void sourceToDestination_whenNull_returnsNull() {
+        var actual = projectMapperImpl.sourceToDestination(null);
+
+        Assertions.assertNull(actual);
+    }
+}
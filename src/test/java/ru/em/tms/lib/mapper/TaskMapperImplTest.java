@@ -2,6 +2,7 @@ package ru.em.tms.lib.mapper;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import ru.em.tms.model.db.Project;
 import ru.em.tms.model.db.Task;
 import ru.em.tms.model.db.User;
 import ru.em.tms.model.dto.task.TaskGetDTO;
@@ -19,6 +20,7 @@ class TaskMapperImplTest {
                 .id(1L).title("test").description("test")
                 .author(User.builder().id(1).build())
                 .executor(User.builder().id(2).build())
+                .project(Project.builder().id(3L).build())
                 .priority(Priority.MEDIUM).status(Status.DONE)
                 .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now())
                 .build();
@@ -26,6 +28,7 @@ class TaskMapperImplTest {
                 .id(task.getId()).title(task.getTitle()).description(task.getDescription())
                 .authorId(task.getAuthor().getId())
                 .executorId(task.getExecutor().getId())
+                .projectId(task.getProject().getId())
                 .status(task.getStatus()).priority(task.getPriority())
                 .createdAt(task.getCreatedAt()).updatedAt(task.getUpdatedAt())
                 .build();
@@ -0,0 +1,78 @@
+package ru.em.tms.lib.metrics;
+
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import ru.em.tms.repo.RevokedTokenRepo;
+import ru.em.tms.service.util.TokenRevocationService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LayerObservationAspectTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+    private final RevokedTokenRepo repo = mock(RevokedTokenRepo.class);
+
+    {
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+    }
+
+    @Test
+    void observeService_recordsServiceMethodCall() {
+        var service = proxy(new TokenRevocationService(repo));
+
+        service.isRevoked("jti");
+
+        var timer = meterRegistry.get(LayerObservationAspect.SERVICE)
+                .tag("class", "TokenRevocationService")
+                .tag("method", "isRevoked")
+                .tag("error", "none")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void observeService_whenMethodThrows_recordsErrorTag() {
+        when(repo.findAllByExpiresAtAfter(any())).thenThrow(new IllegalStateException());
+        var service = proxy(new TokenRevocationService(repo));
+
+        assertThrows(IllegalStateException.class, service::load);
+
+        var timer = meterRegistry.get(LayerObservationAspect.SERVICE)
+                .tag("method", "load")
+                .tag("error", "IllegalStateException")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void observeRepository_recordsRepositoryInterfaceName() {
+        var factory = new AspectJProxyFactory(repo);
+        factory.addInterface(RevokedTokenRepo.class);
+        factory.addAspect(new LayerObservationAspect(observationRegistry));
+        RevokedTokenRepo proxy = factory.getProxy();
+
+        proxy.deleteExpired(LocalDateTime.now());
+
+        var timer = meterRegistry.get(LayerObservationAspect.REPOSITORY)
+                .tag("class", "RevokedTokenRepo")
+                .tag("method", "deleteExpired")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    private TokenRevocationService proxy(TokenRevocationService target) {
+        var factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new LayerObservationAspect(observationRegistry));
+        return factory.getProxy();
+    }
+}
@@ -0,0 +1,71 @@
+package ru.em.tms.lib.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    private final RateLimiter rateLimiter = new RateLimiter(new RateLimitProperties(true,
+            new RateLimitProperties.Budget(5, Duration.ofHours(1)),
+            new LinkedHashMap<>(Map.of("/login", new RateLimitProperties.Budget(2, Duration.ofHours(1))))));
+
+    @Test
+    void tryAcquire_whenWithinBudget_allows() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("/tasks", "user:test@test.ru"));
+        }
+    }
+
+    @Test
+    void tryAcquire_whenBudgetExceeded_returnsWaitTime() {
+        for (int i = 0; i < 5; i++) rateLimiter.tryAcquire("/tasks", "user:test@test.ru");
+
+        assertTrue(rateLimiter.tryAcquire("/tasks", "user:test@test.ru") > 0);
+    }
+
+    @Test
+    void tryAcquire_usesEndpointBudget() {
+        assertEquals(0, rateLimiter.tryAcquire("/login", "ip:127.0.0.1"));
+        assertEquals(0, rateLimiter.tryAcquire("/login", "ip:127.0.0.1"));
+        assertTrue(rateLimiter.tryAcquire("/login", "ip:127.0.0.1") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("/tasks", "ip:127.0.0.1"));
+    }
+
+    @Test
+    void tryAcquire_keepsClientsIndependent() {
+        for (int i = 0; i < 5; i++) rateLimiter.tryAcquire("/tasks", "user:first@test.ru");
+
+        assertTrue(rateLimiter.tryAcquire("/tasks", "user:first@test.ru") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("/tasks", "user:second@test.ru"));
+    }
+
+    @Test
+    void tryAcquire_whenDisabled_alwaysAllows() {
+        var disabled = new RateLimiter(new RateLimitProperties(false,
+                new RateLimitProperties.Budget(1, Duration.ofHours(1)), null));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, disabled.tryAcquire("/tasks", "ip:127.0.0.1"));
+        }
+    }
+
+    @Test
+    void tryAcquire_whenConcurrent_neverExceedsBudget() throws Exception {
+        var allowed = new AtomicInteger();
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 100; i++) {
+                executor.submit(() -> {
+                    if (rateLimiter.tryAcquire("/tasks", "user:test@test.ru") == 0) allowed.incrementAndGet();
+                });
+            }
+        }
+
+        assertEquals(5, allowed.get());
+    }
+}
@@ -7,19 +7,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
-import ru.em.tms.model.db.Comment;
-import ru.em.tms.model.db.Task;
+import ru.em.tms.lib.datasource.ShardRouter;
 import ru.em.tms.model.db.User;
 import ru.em.tms.model.enums.Role;
 import ru.em.tms.repo.CommentRepo;
 import ru.em.tms.repo.TaskRepo;
-import ru.em.tms.repo.UserRepo;
+import ru.em.tms.service.util.ProjectMembershipService;
 
 import java.util.Optional;
 
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,66 +26,88 @@ class TMSMethodSecurityExpressionRootTest {
     @Mock
     private CommentRepo commentRepo;
     @Mock
-    private UserRepo userRepo;
+    private ShardRouter shardRouter;
+    @Mock
+    private ProjectMembershipService membershipService;
     @Mock
     private Authentication authentication;
     @InjectMocks
     private TMSMethodSecurityExpressionRoot root;
 
     @Test
-    void isTaskMember_whenUserIsExecutor_returnsTrue() {
-        var taskId = 1L;
+    void isProjectMember_whenUserIsMember_returnsTrue() {
+        var projectId = 1L;
         var currentUser = User.builder().id(1).email("admin@test.ru").role(Role.USER).build();
-        var task = Task.builder().id(taskId).executor(User.builder().id(3).build())
-                .author(currentUser).build();
 
-        var securityContext = mock(SecurityContext.class);
-        SecurityContextHolder.setContext(securityContext);
+        when(authentication.getPrincipal()).thenReturn(currentUser);
+        when(membershipService.isMember(projectId, currentUser.getEmail())).thenReturn(true);
+
+        var result = root.isProjectMember(projectId);
+
+        Assertions.assertTrue(result);
+        verifyNoInteractions(taskRepo, commentRepo);
+    }
+
+    @Test
+    void isProjectMember_whenNotProjectMember_returnsFalse() {
+        var projectId = 1L;
+        var currentUser = User.builder().id(4).email("admin@test.ru").role(Role.USER).build();
 
         when(authentication.getPrincipal()).thenReturn(currentUser);
-        when(userRepo.findByEmail(currentUser.getEmail())).thenReturn(Optional.of(currentUser));
-        when(root.getPrincipal()).thenReturn(currentUser);
-        when(taskRepo.findById(taskId)).thenReturn(Optional.ofNullable(task));
+        when(membershipService.isMember(projectId, currentUser.getEmail())).thenReturn(false);
 
-        var result = root.isTaskMember(taskId);
+        var result = root.isProjectMember(projectId);
+
+        Assertions.assertFalse(result);
+    }
+
+    @Test
+    void isTaskProjectMember_whenUserIsProjectMember_returnsTrue() {
+        var taskId = 1L;
+        var currentUser = User.builder().id(1).email("admin@test.ru").role(Role.USER).build();
+
+        when(authentication.getPrincipal()).thenReturn(currentUser);
+        when(taskRepo.findProjectId(taskId)).thenReturn(Optional.of(2L));
+        when(membershipService.isMember(2L, currentUser.getEmail())).thenReturn(true);
+
+        var result = root.isTaskProjectMember(taskId);
 
         Assertions.assertTrue(result);
     }
 
     @Test
-    void isTaskMember_whenUserIsAuthor_returnsTrue() {
+    void isTaskProjectMember_whenTaskNotExists_returnsFalse() {
         var taskId = 1L;
-        var currentUser = User.builder().id(3).email("admin@test.ru").role(Role.USER).build();
-        var task = Task.builder().id(taskId).executor(currentUser)
-                .author(User.builder().id(1).build()).build();
 
-        var securityContext = mock(SecurityContext.class);
-        SecurityContextHolder.setContext(securityContext);
+        when(taskRepo.findProjectId(taskId)).thenReturn(Optional.empty());
+
+        var result = root.isTaskProjectMember(taskId);
+
+        Assertions.assertFalse(result);
+        verifyNoInteractions(membershipService);
+    }
+
+    @Test
+    void isTaskMember_whenUserIsMember_returnsTrue() {
+        var taskId = 1L;
+        var currentUser = User.builder().id(1).email("admin@test.ru").role(Role.USER).build();
 
         when(authentication.getPrincipal()).thenReturn(currentUser);
-        when(userRepo.findByEmail(currentUser.getEmail())).thenReturn(Optional.of(currentUser));
-        when(root.getPrincipal()).thenReturn(currentUser);
-        when(taskRepo.findById(taskId)).thenReturn(Optional.ofNullable(task));
+        when(taskRepo.isMember(taskId, currentUser.getEmail())).thenReturn(true);
 
         var result = root.isTaskMember(taskId);
 
         Assertions.assertTrue(result);
+        verifyNoInteractions(commentRepo);
     }
 
     @Test
     void isTaskMember_whenNotTaskMember_returnsFalse() {
         var taskId = 1L;
         var currentUser = User.builder().id(4).email("admin@test.ru").role(Role.USER).build();
-        var task = Task.builder().id(taskId).executor(User.builder().id(3).build())
-                .author(User.builder().id(1).build()).build();
-
-        var securityContext = mock(SecurityContext.class);
-        SecurityContextHolder.setContext(securityContext);
 
         when(authentication.getPrincipal()).thenReturn(currentUser);
-        when(userRepo.findByEmail(currentUser.getEmail())).thenReturn(Optional.of(currentUser));
-        when(root.getPrincipal()).thenReturn(currentUser);
-        when(taskRepo.findById(taskId)).thenReturn(Optional.ofNullable(task));
+        when(taskRepo.isMember(taskId, currentUser.getEmail())).thenReturn(false);
 
         var result = root.isTaskMember(taskId);
 
@@ -99,39 +118,26 @@ class TMSMethodSecurityExpressionRootTest {
     void isCommentAuthor_whenUserIsAuthor_returnsTrue() {
         var commentId = 1L;
         var currentUser = User.builder().id(1).email("admin@test.ru").role(Role.USER).build();
-        var comment = Comment.builder().id(commentId).task(Task.builder().id(1L).build())
-                .author(User.builder().id(1).build()).build();
-
-        var securityContext = mock(SecurityContext.class);
-        SecurityContextHolder.setContext(securityContext);
 
         when(authentication.getPrincipal()).thenReturn(currentUser);
-        when(userRepo.findByEmail(currentUser.getEmail())).thenReturn(Optional.of(currentUser));
-        when(root.getPrincipal()).thenReturn(currentUser);
-        when(commentRepo.findById(commentId)).thenReturn(Optional.ofNullable(comment));
+        when(commentRepo.isAuthor(commentId, currentUser.getEmail())).thenReturn(true);
 
         var result = root.isCommentAuthor(commentId);
 
         Assertions.assertTrue(result);
+        verifyNoInteractions(taskRepo);
     }
 
     @Test
     void isCommentAuthor_whenNotCommentAuthor_returnsFalse() {
         var commentId = 1L;
         var currentUser = User.builder().id(1).email("admin@test.ru").role(Role.USER).build();
-        var comment = Comment.builder().id(commentId).task(Task.builder().id(1L).build())
-                .author(User.builder().id(2).build()).build();
-
-        var securityContext = mock(SecurityContext.class);
-        SecurityContextHolder.setContext(securityContext);
 
         when(authentication.getPrincipal()).thenReturn(currentUser);
-        when(userRepo.findByEmail(currentUser.getEmail())).thenReturn(Optional.of(currentUser));
-        when(root.getPrincipal()).thenReturn(currentUser);
-        when(commentRepo.findById(commentId)).thenReturn(Optional.ofNullable(comment));
+        when(commentRepo.isAuthor(commentId, currentUser.getEmail())).thenReturn(false);
 
         var result = root.isCommentAuthor(commentId);
 
         Assertions.assertFalse(result);
     }
-}
\ No newline at end of file
+}
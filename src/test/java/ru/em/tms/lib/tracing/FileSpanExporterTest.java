@@ -0,0 +1,56 @@
+package ru.em.tms.lib.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSpanExporterTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void export_writesSpanPerLineWithParent() throws IOException {
+        var file = dir.resolve("traces/spans.jsonl");
+        var exporter = new FileSpanExporter(file);
+
+        try (var provider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build()) {
+            var tracer = provider.get("test");
+            var parent = tracer.spanBuilder("GET /tasks/{taskId}/comments").startSpan();
+            tracer.spanBuilder("jdbc.query")
+                    .setParent(Context.current().with(parent))
+                    .setAttribute("jdbc.query[0]", "select * from comments")
+                    .startSpan()
+                    .end();
+            parent.end();
+        }
+
+        var lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+
+        JsonNode child = mapper.readTree(lines.get(0));
+        JsonNode parent = mapper.readTree(lines.get(1));
+        assertAll(
+                () -> assertEquals("jdbc.query", child.get("name").asText()),
+                () -> assertEquals("select * from comments", child.get("attributes").get("jdbc.query[0]").asText()),
+                () -> assertEquals(parent.get("spanId").asText(), child.get("parentSpanId").asText()),
+                () -> assertEquals(parent.get("traceId").asText(), child.get("traceId").asText()),
+                () -> assertTrue(parent.get("parentSpanId").isNull()),
+                () -> assertTrue(parent.get("resource").get("attributes").has("service.name")),
+                () -> assertFalse(parent.has("durationMs"))
+        );
+    }
+}
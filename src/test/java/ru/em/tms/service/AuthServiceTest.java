@@ -9,19 +9,24 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import ru.em.tms.model.db.User;
+import ru.em.tms.model.dto.JwtDTO;
 import ru.em.tms.model.dto.user.UserAuthDTO;
 import ru.em.tms.model.dto.user.UserGetDTO;
 import ru.em.tms.model.enums.Role;
 import ru.em.tms.service.util.JwtService;
+import ru.em.tms.service.util.RefreshTokenService;
+import ru.em.tms.service.util.TokenRevocationService;
+
+import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SuppressWarnings("unused")
@@ -30,10 +35,12 @@ class AuthServiceTest {
     @Mock
     private UserService userService;
     @Mock
-    private UserDetailsService userDetailsService;
-    @Mock
     private JwtService jwtService;
     @Mock
+    private RefreshTokenService refreshTokenService;
+    @Mock
+    private TokenRevocationService revocationService;
+    @Mock
     private PasswordEncoder passwordEncoder;
     @Mock
     private AuthenticationManager authenticationManager;
@@ -41,23 +48,23 @@ class AuthServiceTest {
     private AuthService authService;
 
     @Test
-    void signUp_whenUserNewAndCorrect_returnsToken() {
+    void signUp_whenUserNewAndCorrect_returnsTokens() {
         UserAuthDTO request = new UserAuthDTO("test@test.ru", "correct");
-        var userDetails = new User(1, request.getEmail(), request.getPassword(), Role.USER);
-        var UserGetDto = new UserGetDTO(userDetails.getId(), request.getEmail(), userDetails.getRole());
-        String token = "token";
+        var user = new User(1, request.getEmail(), request.getPassword(), Role.USER);
+        var UserGetDto = new UserGetDTO(user.getId(), request.getEmail(), user.getRole());
 
         when(userService.create(any())).thenReturn(UserGetDto);
-        when(userService.userDetailsService()).thenReturn(userDetailsService);
-        when(userDetailsService.loadUserByUsername(request.getEmail())).thenReturn(userDetails);
-        when(jwtService.generateToken(userDetails)).thenReturn(token);
+        when(userService.getByEmail(request.getEmail())).thenReturn(user);
+        when(jwtService.generateToken(user)).thenReturn("token");
+        when(refreshTokenService.issue(user)).thenReturn("refresh");
 
-        String result = authService.signUp(request);
+        JwtDTO result = authService.signUp(request);
 
-        assertEquals(token, result);
+        assertEquals(JwtDTO.of("token", "refresh"), result);
 
         verify(userService).create(any());
-        verify(jwtService).generateToken(userDetails);
+        verify(jwtService).generateToken(user);
+        verify(refreshTokenService).issue(user);
     }
 
     @Test
@@ -69,33 +76,32 @@ class AuthServiceTest {
         Assertions.assertThatThrownBy(() -> authService.signUp(request)).isInstanceOf(DataIntegrityViolationException.class);
 
         verify(userService).create(any());
+        verifyNoInteractions(refreshTokenService);
     }
 
     @Test
-    void signIn_whenCorrectAuthData_returnsToken() {
+    void signIn_whenCorrectAuthData_returnsTokens() {
         UserAuthDTO request = new UserAuthDTO("test@test.ru", "correct");
-        String token = "token";
-        UserDetails userDetails = new User(1, request.getEmail(), request.getPassword(), Role.USER);
+        var user = new User(1, request.getEmail(), request.getPassword(), Role.USER);
         Authentication authentication = mock(Authentication.class);
 
         when(authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(),
                 request.getPassword()))).thenReturn(authentication);
-        when(userService.userDetailsService()).thenReturn(userDetailsService);
-        when(userDetailsService.loadUserByUsername(request.getEmail())).thenReturn(userDetails);
-        when(jwtService.generateToken(userDetails)).thenReturn(token);
+        when(authentication.getPrincipal()).thenReturn(user);
+        when(jwtService.generateToken(user)).thenReturn("token");
+        when(refreshTokenService.issue(user)).thenReturn("refresh");
 
-        String result = authService.signIn(request);
+        JwtDTO result = authService.signIn(request);
 
-        assertEquals(token, result);
+        assertEquals(JwtDTO.of("token", "refresh"), result);
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(userService.userDetailsService()).loadUserByUsername(request.getEmail());
-        verify(jwtService).generateToken(userDetails);
+        verify(jwtService).generateToken(user);
+        verifyNoInteractions(userService);
     }
 
     @Test
     void signIn_whenIncorrectAuthData_throwsException() {
         UserAuthDTO request = new UserAuthDTO("test@test.ru", "wrong");
-        UserDetails userDetails = new User(1, request.getEmail(), request.getPassword(), Role.USER);
 
         when(authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(),
                 request.getPassword()))).thenThrow(BadCredentialsException.class);
@@ -103,6 +109,51 @@ class AuthServiceTest {
         Assertions.assertThatThrownBy(() -> authService.signIn(request)).isInstanceOf(BadCredentialsException.class);
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtService, never()).generateToken(userDetails);
+        verifyNoInteractions(jwtService, refreshTokenService);
+    }
+
+    @Test
+    void refresh_whenTokenValid_returnsNewAccessToken() {
+        var user = User.builder().id(1).email("test@test.ru").role(Role.USER).build();
+
+        when(refreshTokenService.refresh("refresh")).thenReturn(user);
+        when(jwtService.generateToken(user)).thenReturn("token");
+
+        JwtDTO result = authService.refresh("refresh");
+
+        assertEquals(JwtDTO.of("token", "refresh"), result);
+        verifyNoInteractions(authenticationManager, passwordEncoder, userService);
+    }
+
+    @Test
+    void refresh_whenTokenInvalid_throwsException() {
+        when(refreshTokenService.refresh("refresh")).thenThrow(CredentialsExpiredException.class);
+
+        Assertions.assertThatThrownBy(() -> authService.refresh("refresh")).isInstanceOf(CredentialsExpiredException.class);
+
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void revoke_revokesAccessAndRefreshTokens() {
+        var expiration = new Date();
+
+        when(jwtService.extractId("token")).thenReturn("jti");
+        when(jwtService.extractExpiration("token")).thenReturn(expiration);
+
+        authService.revoke("token", "refresh");
+
+        verify(revocationService).revoke("jti", expiration);
+        verify(refreshTokenService).revoke("refresh");
+    }
+
+    @Test
+    void revoke_whenNoRefreshToken_revokesAccessTokenOnly() {
+        when(jwtService.extractId("token")).thenReturn("jti");
+
+        authService.revoke("token", null);
+
+        verify(revocationService).revoke(eq("jti"), any());
+        verifyNoInteractions(refreshTokenService);
     }
 }
\ No newline at end of file
@@ -7,22 +7,31 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
+import ru.em.tms.lib.concurrency.VersionTag;
+import ru.em.tms.lib.json.MergePatch;
 import ru.em.tms.lib.mapper.CommentMapper;
 import ru.em.tms.model.db.Comment;
 import ru.em.tms.model.db.Task;
 import ru.em.tms.model.dto.comment.CommentEditDTO;
 import ru.em.tms.model.dto.comment.CommentGetDTO;
 import ru.em.tms.repo.CommentRepo;
+import ru.em.tms.repo.SparseFieldsRepo;
 import ru.em.tms.repo.TaskRepo;
 
+import java.time.LocalDateTime;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,6 +41,8 @@ class CommentServiceTest {
     @Mock
     private CommentRepo repo;
     @Mock
+    private SparseFieldsRepo sparseFieldsRepo;
+    @Mock
     private TaskRepo taskRepo;
     @Mock
     private UserService userService;
@@ -68,6 +79,21 @@ class CommentServiceTest {
         );
     }
 
+    @Test
+    void getAll_whenFieldsRequested_selectsOnlyThem() {
+        var pageable = PageRequest.of(0, 10);
+
+        when(taskRepo.findById(anyLong())).thenAnswer(invocation ->
+                Optional.of(Task.builder().id(invocation.getArgument(0)).build()));
+        when(sparseFieldsRepo.findAll(eq(Comment.class), any(Specification.class), eq(pageable), any(Map.class)))
+                .thenReturn(new PageImpl<>(List.of(), pageable, 0));
+
+        var pageActual = service.getAll(1L, pageable, Set.of("id"));
+
+        Assertions.assertThat(pageActual.getResult()).isEmpty();
+        verify(sparseFieldsRepo).findAll(eq(Comment.class), any(Specification.class), eq(pageable), eq(Map.of("id", "id")));
+    }
+
     @Test
     void getAll_whenNotAccessiblePageableParams_returnsNone() {
         var pageable = PageRequest.of(1, 10);
@@ -158,6 +184,7 @@ class CommentServiceTest {
         var actual = service.create(taskId, commentEditDTO);
 
         Assertions.assertThat(actual).isEqualTo(excepted);
+        verify(taskRepo).incrementCommentCount(eq(taskId), any());
     }
 
     @Test
@@ -197,15 +224,89 @@ class CommentServiceTest {
     }
 
     @Test
-    void delete_whenCommentExists_deletesComment() {
+    void update_whenIfMatchStaleAndContentChanged_throwsException() {
         var commentId = 1L;
         var taskId = 1L;
+        var comment = Comment.builder().id(commentId).version(2L).content("test2")
+                .task(Task.builder().id(taskId).build()).build();
+        var commentEditDTO = CommentEditDTO.builder().content("test3").build();
+        var ifMatch = VersionTag.parse(VersionTag.format(1L, "test1"));
 
         when(taskRepo.findById(anyLong())).thenAnswer(invocation ->
                 Optional.of(Task.builder().id(invocation.getArgument(0)).build()));
+        when(repo.findOne(any(Specification.class))).thenReturn(Optional.of(comment));
+
+        Assertions.assertThatExceptionOfType(OptimisticLockingFailureException.class)
+                .isThrownBy(() -> service.update(taskId, commentId, commentEditDTO, ifMatch));
+        verify(mapper, never()).sourceToDestination(any());
+    }
+
+    @Test
+    void patch_whenCommentExists_updatesWithoutLoadingComment() {
+        var patch = new MergePatch<>(CommentEditDTO.builder().content("test").build(), Set.of("content"));
+
+        when(repo.updateContent(eq(1L), eq(1L), eq("test"), isNull(), any(LocalDateTime.class))).thenReturn(1);
+
+        service.patch(1L, 1L, patch, null);
+
+        verify(repo, never()).findOne(any(Specification.class));
+        verify(taskRepo, never()).findById(any());
+    }
+
+    @Test
+    void patch_whenCommentNotExists_throwsException() {
+        var patch = new MergePatch<>(CommentEditDTO.builder().content("test").build(), Set.of("content"));
+
+        when(repo.updateContent(eq(1L), eq(1L), eq("test"), eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(repo.existsInTask(1L, 1L)).thenReturn(false);
+
+        Assertions.assertThatExceptionOfType(EntityNotFoundException.class)
+                .isThrownBy(() -> service.patch(1L, 1L, patch, 1L));
+    }
+
+    @Test
+    void patch_whenVersionStale_throwsConflict() {
+        var patch = new MergePatch<>(CommentEditDTO.builder().content("test").build(), Set.of("content"));
+
+        when(repo.updateContent(eq(1L), eq(1L), eq("test"), eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(repo.existsInTask(1L, 1L)).thenReturn(true);
+
+        Assertions.assertThatExceptionOfType(OptimisticLockingFailureException.class)
+                .isThrownBy(() -> service.patch(1L, 1L, patch, 1L));
+    }
+
+    @Test
+    void delete_whenCommentExists_deletesComment() {
+        var commentId = 1L;
+        var taskId = 1L;
+
+        when(repo.deleteFromTask(taskId, commentId)).thenReturn(1);
 
         service.delete(taskId, commentId);
 
-        verify(repo).delete(any(Specification.class));
+        verify(taskRepo).decrementCommentCount(taskId, 1L);
+        verify(taskRepo, never()).findById(anyLong());
+    }
+
+    @Test
+    void delete_whenCommentNotExists_keepsCommentCount() {
+        var taskId = 1L;
+
+        when(repo.deleteFromTask(taskId, 1L)).thenReturn(0);
+        when(taskRepo.existsById(taskId)).thenReturn(true);
+
+        service.delete(taskId, 1L);
+
+        verify(taskRepo, never()).decrementCommentCount(anyLong(), anyLong());
+    }
+
+    @Test
+    void delete_whenTaskNotExists_throwsException() {
+        var taskId = 1L;
+
+        when(repo.deleteFromTask(taskId, 1L)).thenReturn(0);
+        when(taskRepo.existsById(taskId)).thenReturn(false);
+
+        Assertions.assertThatExceptionOfType(EntityNotFoundException.class).isThrownBy(() -> service.delete(taskId, 1L));
     }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package ru.em.tms.service;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import ru.em.tms.lib.mapper.ProjectMapper;
+import ru.em.tms.model.db.Project;
+import ru.em.tms.model.db.User;
+import ru.em.tms.model.dto.project.ProjectEditDTO;
+import ru.em.tms.model.dto.project.ProjectGetDTO;
+import ru.em.tms.model.enums.Role;
+import ru.em.tms.model.event.ProjectMembersChangedEvent;
+import ru.em.tms.repo.ProjectRepo;
+import ru.em.tms.repo.UserRepo;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectServiceTest {
+    @Mock
+    private ProjectRepo repo;
+    @Mock
+    private UserRepo userRepo;
+    @Mock
+    private UserService userService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ProjectMapper mapper;
+    @InjectMocks
+    private ProjectService service;
+
+    @Test
+    void getAll_whenIsUserRole_returnsMemberProjects() {
+        var pageable = PageRequest.of(0, 10);
+        var user = User.builder().id(2).email("user@test.ru").role(Role.USER).build();
+
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(repo.findAllByMember(user.getEmail(), pageable)).thenReturn(new PageImpl<>(List.of(new Project()), pageable, 1));
+
+        var actual = service.getAll(pageable);
+
+        Assertions.assertThat(actual.getResult()).hasSize(1);
+        verify(repo, never()).findAll(pageable);
+    }
+
+    @Test
+    void getAll_whenIsAdminRole_returnsAll() {
+        var pageable = PageRequest.of(0, 10);
+        var user = User.builder().id(1).email("admin@test.ru").role(Role.ADMIN).build();
+
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(repo.findAll(pageable)).thenReturn(new PageImpl<>(List.of(new Project(), new Project()), pageable, 2));
+
+        var actual = service.getAll(pageable);
+
+        Assertions.assertThat(actual.getResult()).hasSize(2);
+        verify(repo, never()).findAllByMember(any(), any());
+    }
+
+    @Test
+    void create_whenMembersExist_publishesMembersChanged() {
+        var dto = ProjectEditDTO.builder().name("test").memberIds(Set.of(1, 2)).build();
+
+        when(userRepo.findAllById(dto.getMemberIds()))
+                .thenReturn(List.of(User.builder().id(1).email("a@test.ru").build(), User.builder().id(2).email("b@test.ru").build()));
+        when(repo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mapper.sourceToDestination(any())).thenReturn(ProjectGetDTO.builder().name("test").build());
+
+        var actual = service.create(dto);
+
+        Assertions.assertThat(actual.getName()).isEqualTo("test");
+        verify(eventPublisher).publishEvent(new ProjectMembersChangedEvent(Set.of("a@test.ru", "b@test.ru")));
+    }
+
+    @Test
+    void create_whenMemberNotExists_throwsException() {
+        var dto = ProjectEditDTO.builder().name("test").memberIds(Set.of(1, 2)).build();
+
+        when(userRepo.findAllById(dto.getMemberIds())).thenReturn(List.of(User.builder().id(1).build()));
+
+        Assertions.assertThatExceptionOfType(EntityNotFoundException.class).isThrownBy(() -> service.create(dto));
+        verify(repo, never()).save(any());
+    }
+
+    @Test
+    void update_whenProjectExists_publishesOldAndNewMembers() {
+        var project = Project.builder().id(1L).name("test").members(Set.of(User.builder().id(1).email("a@test.ru").build())).build();
+        var dto = ProjectEditDTO.builder().name("test2").memberIds(Set.of(2)).build();
+
+        when(repo.findById(1L)).thenReturn(Optional.of(project));
+        when(userRepo.findAllById(dto.getMemberIds())).thenReturn(List.of(User.builder().id(2).email("b@test.ru").build()));
+
+        service.update(1L, dto);
+
+        Assertions.assertThat(project.getName()).isEqualTo("test2");
+        verify(eventPublisher).publishEvent(new ProjectMembersChangedEvent(Set.of("a@test.ru", "b@test.ru")));
+    }
+
+    @Test
+    void update_whenProjectNotExists_throwsException() {
+        var dto = ProjectEditDTO.builder().name("test").memberIds(Set.of()).build();
+
+        when(repo.findById(1L)).thenReturn(Optional.empty());
+
+        Assertions.assertThatExceptionOfType(EntityNotFoundException.class).isThrownBy(() -> service.update(1L, dto));
+        verifyNoInteractions(eventPublisher);
+    }
+}
@@ -0,0 +1,91 @@
+package ru.em.tms.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.em.tms.lib.datasource.ShardRouter;
+import ru.em.tms.lib.datasource.ShardTemplate;
+import ru.em.tms.model.db.TaskCounter;
+import ru.em.tms.model.enums.task.Priority;
+import ru.em.tms.model.enums.task.Status;
+import ru.em.tms.repo.ArchivedTaskRepo;
+import ru.em.tms.repo.CommentRepo;
+import ru.em.tms.repo.TaskRepo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskArchiveServiceTest {
+    @Mock
+    private TaskRepo taskRepo;
+    @Mock
+    private CommentRepo commentRepo;
+    @Mock
+    private ArchivedTaskRepo repo;
+    @Mock
+    private TaskCounterService counterService;
+    @Spy
+    private ShardTemplate shards = new ShardTemplate(new ShardRouter(List.of()), null);
+    @Mock
+    private TransactionTemplate transaction;
+    @InjectMocks
+    private TaskArchiveService service;
+
+    @Test
+    void archiveBatch_whenClosedTasksFound_movesTasksWithComments() {
+        var ids = List.of(1L, 2L);
+        var groups = List.of(new TaskCounter(1, 2, Status.DONE, Priority.LOW, 2L));
+
+        when(taskRepo.findClosedBefore(anyCollection(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(ids);
+        when(taskRepo.countGroups(ids)).thenReturn(groups);
+
+        var archived = service.archiveBatch(LocalDateTime.now());
+
+        Assertions.assertThat(archived).isEqualTo(2);
+        var order = inOrder(counterService, repo, commentRepo, taskRepo);
+        order.verify(counterService).remove(groups);
+        order.verify(repo).copyComments(eq(ids), any(LocalDateTime.class));
+        order.verify(repo).copyTasks(eq(ids), any(LocalDateTime.class));
+        order.verify(commentRepo).deleteAllByTaskIds(ids);
+        order.verify(taskRepo).deleteAllByIds(ids);
+    }
+
+    @Test
+    void archiveBatch_whenNothingToArchive_doesNothing() {
+        when(taskRepo.findClosedBefore(anyCollection(), any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of());
+
+        var archived = service.archiveBatch(LocalDateTime.now());
+
+        Assertions.assertThat(archived).isZero();
+        verifyNoInteractions(repo, commentRepo, counterService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void archive_whenBatchFull_repeatsUntilLastBatch() {
+        var full = LongStream.rangeClosed(1, 500).boxed().toList();
+
+        when(transaction.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Integer>) invocation.getArgument(0)).doInTransaction(null));
+        when(taskRepo.findClosedBefore(anyCollection(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(full, List.of(501L), List.of());
+
+        service.archive();
+
+        verify(transaction, times(2)).execute(any());
+        verify(taskRepo).deleteAllByIds(full);
+        verify(taskRepo).deleteAllByIds(List.of(501L));
+    }
+}
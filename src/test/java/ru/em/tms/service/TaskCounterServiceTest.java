@@ -0,0 +1,119 @@
+package ru.em.tms.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.util.Streamable;
+import ru.em.tms.lib.datasource.ShardRouter;
+import ru.em.tms.lib.datasource.ShardTemplate;
+import ru.em.tms.model.db.TaskCounter;
+import ru.em.tms.model.enums.task.Priority;
+import ru.em.tms.model.enums.task.Status;
+import ru.em.tms.model.event.TaskChangedEvent;
+import ru.em.tms.repo.TaskCounterRepo;
+import ru.em.tms.repo.TaskRepo;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskCounterServiceTest {
+    private static final TaskCounter.Key NEW_TASK = new TaskCounter.Key(1, 2, Status.NEW, Priority.LOW);
+    private static final TaskCounter.Key DONE_TASK = new TaskCounter.Key(1, 2, Status.DONE, Priority.LOW);
+
+    @Mock
+    private TaskCounterRepo repo;
+    @Mock
+    private TaskRepo taskRepo;
+    @Spy
+    private ShardTemplate shards = new ShardTemplate(new ShardRouter(List.of()), null);
+    @InjectMocks
+    private TaskCounterService service;
+
+    @Test
+    void onTaskChanged_whenStatusChanged_movesTaskBetweenGroups() {
+        service.onTaskChanged(new TaskChangedEvent(1L, NEW_TASK, DONE_TASK));
+
+        verify(repo).add(1, 2, "NEW", "LOW", -1);
+        verify(repo).add(1, 2, "DONE", "LOW", 1);
+        verify(repo, never()).save(any());
+    }
+
+    @Test
+    void onTaskChanged_whenTaskCreated_upsertsCounter() {
+        service.onTaskChanged(TaskChangedEvent.created(1L, NEW_TASK));
+
+        verify(repo).add(1, 2, "NEW", "LOW", 1);
+    }
+
+    @Test
+    void onTaskChanged_whenGroupNotChanged_doesNothing() {
+        service.onTaskChanged(new TaskChangedEvent(1L, NEW_TASK, NEW_TASK));
+
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void remove_whenTasksArchived_subtractsGroups() {
+        service.remove(List.of(new TaskCounter(1, 2, Status.DONE, Priority.LOW, 3L)));
+
+        verify(repo).add(1, 2, "DONE", "LOW", -3);
+    }
+
+    @Test
+    void reconcile_whenCountersDrift_recalculatesThem() {
+        var drifted = new TaskCounter(1L, 1, 2, Status.NEW, Priority.LOW, 5L);
+        var stale = new TaskCounter(2L, 1, 2, Status.WAITING, Priority.LOW, 2L);
+        var missing = new TaskCounter(1, 2, Status.DONE, Priority.LOW, 1L);
+
+        when(taskRepo.countGroups()).thenReturn(List.of(new TaskCounter(1, 2, Status.NEW, Priority.LOW, 3L), missing));
+        when(repo.lockAll()).thenReturn(List.of(drifted, stale));
+
+        service.reconcile();
+
+        Assertions.assertThat(drifted.getTaskCount()).isEqualTo(3L);
+        verify(repo).delete(stale);
+        verify(repo).saveAll(argThat((Iterable<TaskCounter> counters) -> List.of(missing).equals(Streamable.of(counters).toList())));
+    }
+
+    @Test
+    void getCounters_returnsCountsGroupedByDimension() {
+        var byPriority = List.of(
+                group(Priority.LOW, Status.NEW, 3),
+                group(Priority.HIGH, Status.NEW, 1),
+                group(Priority.HIGH, Status.DONE, 2));
+        var byExecutor = List.of(group(2, Status.NEW, 4), group(3, Status.DONE, 2));
+        var byAuthor = List.of(group(1, Status.NEW, 4), group(1, Status.DONE, 2));
+
+        when(repo.countByPriority()).thenReturn(byPriority);
+        when(repo.countByExecutor()).thenReturn(byExecutor);
+        when(repo.countByAuthor()).thenReturn(byAuthor);
+
+        var actual = service.getCounters();
+
+        assertAll(
+                () -> Assertions.assertThat(actual.getTotal()).isEqualTo(6L),
+                () -> Assertions.assertThat(actual.getByStatus()).isEqualTo(Map.of(Status.NEW, 4L, Status.DONE, 2L)),
+                () -> Assertions.assertThat(actual.getByPriority().get(Priority.HIGH))
+                        .isEqualTo(Map.of(Status.NEW, 1L, Status.DONE, 2L)),
+                () -> Assertions.assertThat(actual.getByExecutor().get(3)).isEqualTo(Map.of(Status.DONE, 2L)),
+                () -> Assertions.assertThat(actual.getByAuthor().get(1)).isEqualTo(Map.of(Status.NEW, 4L, Status.DONE, 2L))
+        );
+    }
+
+    private static TaskCounterRepo.GroupCount group(Object key, Status status, long count) {
+        var group = mock(TaskCounterRepo.GroupCount.class);
+        when(group.getGroupKey()).thenReturn(key);
+        when(group.getStatus()).thenReturn(status);
+        when(group.getTaskCount()).thenReturn(count);
+        return group;
+    }
+}
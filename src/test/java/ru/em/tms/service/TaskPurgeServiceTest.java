@@ -0,0 +1,110 @@
+package ru.em.tms.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.em.tms.lib.datasource.ShardRouter;
+import ru.em.tms.lib.datasource.ShardTemplate;
+import ru.em.tms.repo.CommentRepo;
+import ru.em.tms.repo.TaskRepo;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskPurgeServiceTest {
+    @Mock
+    private TaskRepo taskRepo;
+    @Mock
+    private CommentRepo commentRepo;
+    @Spy
+    private ShardTemplate shards = new ShardTemplate(new ShardRouter(List.of()), null);
+    @Mock
+    private TransactionTemplate transaction;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @InjectMocks
+    private TaskPurgeService service;
+
+    @Test
+    void purgeBatch_whenCommentsLeft_deletesOnlyComments() {
+        var ids = List.of(1L, 2L);
+
+        when(taskRepo.findDeletedIds(1000)).thenReturn(ids);
+        when(commentRepo.purgeByTaskIds(ids, 1000)).thenReturn(1000);
+
+        var purged = service.purgeBatch();
+
+        Assertions.assertThat(purged).isEqualTo(1000);
+        verify(taskRepo, never()).purgeDeleted(anyCollection());
+    }
+
+    @Test
+    void purgeBatch_whenLastComments_deletesTasks() {
+        var ids = List.of(1L, 2L);
+
+        when(taskRepo.findDeletedIds(1000)).thenReturn(ids);
+        when(commentRepo.purgeByTaskIds(ids, 1000)).thenReturn(10);
+        when(taskRepo.purgeDeleted(ids)).thenReturn(2);
+
+        var purged = service.purgeBatch();
+
+        Assertions.assertThat(purged).isEqualTo(12);
+        var order = inOrder(commentRepo, taskRepo);
+        order.verify(commentRepo).purgeByTaskIds(ids, 1000);
+        order.verify(taskRepo).purgeDeleted(ids);
+    }
+
+    @Test
+    void purgeBatch_whenNothingDeleted_doesNothing() {
+        when(taskRepo.findDeletedIds(1000)).thenReturn(List.of());
+
+        var purged = service.purgeBatch();
+
+        Assertions.assertThat(purged).isZero();
+        verifyNoInteractions(commentRepo);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void purge_whenRowsRemoved_repeatsUntilNothingLeft() {
+        when(transaction.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Integer>) invocation.getArgument(0)).doInTransaction(null));
+        when(taskRepo.findDeletedIds(1000)).thenReturn(List.of(1L), List.of(1L), List.of());
+        when(commentRepo.purgeByTaskIds(List.of(1L), 1000)).thenReturn(1000, 5);
+        when(taskRepo.purgeDeleted(List.of(1L))).thenReturn(1);
+
+        service.purge();
+
+        verify(transaction, times(3)).execute(any());
+        verify(taskRepo).purgeDeleted(List.of(1L));
+        Assertions.assertThat(meterRegistry.timer("tms.tasks.purge").count()).isEqualTo(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void purge_whenMaxDurationExceeded_stopsAfterCurrentBatch() {
+        ReflectionTestUtils.setField(service, "maxDuration", Duration.ZERO);
+        when(transaction.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Integer>) invocation.getArgument(0)).doInTransaction(null));
+        when(taskRepo.findDeletedIds(1000)).thenReturn(List.of(1L));
+        when(commentRepo.purgeByTaskIds(List.of(1L), 1000)).thenReturn(1000);
+
+        service.purge();
+
+        verify(transaction).execute(any());
+        verify(taskRepo, never()).purgeDeleted(anyCollection());
+    }
+}
@@ -1,22 +1,36 @@
 package ru.em.tms.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.validation.ValidationException;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import ru.em.tms.lib.concurrency.VersionTag;
+import ru.em.tms.lib.datasource.ShardRouter;
+import ru.em.tms.lib.datasource.ShardTemplate;
 import ru.em.tms.lib.filter.db.TaskFilter;
+import ru.em.tms.lib.json.MergePatch;
 import ru.em.tms.lib.mapper.TaskMapper;
+import ru.em.tms.model.db.ArchivedTask;
+import ru.em.tms.model.db.Project;
 import ru.em.tms.model.db.Task;
+import ru.em.tms.model.db.TaskCounter;
 import ru.em.tms.model.db.User;
 import ru.em.tms.model.dto.task.TaskCreateDTO;
 import ru.em.tms.model.dto.task.TaskGetDTO;
@@ -24,15 +38,26 @@ import ru.em.tms.model.dto.task.TaskUpdateDTO;
 import ru.em.tms.model.enums.Role;
 import ru.em.tms.model.enums.task.Priority;
 import ru.em.tms.model.enums.task.Status;
+import ru.em.tms.model.event.TaskChangedEvent;
+import ru.em.tms.repo.ArchivedTaskRepo;
+import ru.em.tms.repo.PatchRepo;
+import ru.em.tms.repo.ProjectRepo;
+import ru.em.tms.repo.SparseFieldsRepo;
 import ru.em.tms.repo.TaskRepo;
 import ru.em.tms.repo.UserRepo;
 
+import java.time.LocalDateTime;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -42,11 +67,23 @@ class TaskServiceTest {
     @Mock
     private TaskRepo repo;
     @Mock
+    private SparseFieldsRepo sparseFieldsRepo;
+    @Mock
+    private PatchRepo patchRepo;
+    @Mock
     private UserRepo userRepo;
     @Mock
+    private ProjectRepo projectRepo;
+    @Mock
+    private ArchivedTaskRepo archivedRepo;
+    @Mock
     private TaskMapper mapper;
     @Mock
     private UserService userService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private ShardTemplate shards = new ShardTemplate(new ShardRouter(List.of()), null);
     @InjectMocks
     private TaskService service;
 
@@ -82,6 +119,76 @@ class TaskServiceTest {
         verify(repo).findAll(any(Specification.class), eq(pageable));
     }
 
+    @Test
+    void getAll_whenFieldsRequested_selectsOnlyThem() {
+        var pageable = PageRequest.of(0, 10);
+        var tuple = mock(Tuple.class);
+        var elements = List.of("id", "title").stream().map(alias -> {
+            var element = mock(TupleElement.class);
+            when(element.getAlias()).thenReturn(alias);
+            return element;
+        }).toList();
+        doReturn(elements).when(tuple).getElements();
+        doReturn(1L).when(tuple).get(eq("id"), any(Class.class));
+        doReturn("Тест").when(tuple).get(eq("title"), any(Class.class));
+
+        when(sparseFieldsRepo.findAll(eq(Task.class), any(Specification.class), eq(pageable), any(Map.class)))
+                .thenReturn(new PageImpl<>(List.of(tuple), pageable, 1));
+
+        var pageActual = service.getAll(pageable, new TaskFilter(null, null), Set.of("id", "title"));
+
+        var task = pageActual.getResult().getFirst();
+        assertAll(
+                () -> Assertions.assertThat(task.getId()).isEqualTo(1L),
+                () -> Assertions.assertThat(task.getTitle()).isEqualTo("Тест"),
+                () -> Assertions.assertThat(task.getDescription()).isNull()
+        );
+        verify(sparseFieldsRepo).findAll(eq(Task.class), any(Specification.class), eq(pageable),
+                eq(Map.of("id", "id", "title", "title")));
+        verify(repo, never()).findAll(any(Specification.class), any(PageRequest.class));
+    }
+
+    @Test
+    void getAll_whenUnknownField_throwsException() {
+        var pageable = PageRequest.of(0, 10);
+
+        assertThrows(ValidationException.class,
+                () -> service.getAll(pageable, new TaskFilter(null, null), Set.of("password")));
+        verifyNoInteractions(sparseFieldsRepo);
+    }
+
+    @Test
+    void getAll_whenProjectRequested_returnsProjectTasks() {
+        var pageable = PageRequest.of(0, 10);
+        var tasks = List.of(new Task(), new Task());
+        var pageExcepted = new PageImpl<>(tasks, pageable, tasks.size());
+
+        when(repo.findAll(any(Specification.class), eq(pageable))).thenReturn(pageExcepted);
+
+        var pageActual = service.getAll(1L, pageable, new TaskFilter(null, null), null);
+
+        Assertions.assertThat(pageActual.getResult()).hasSize(tasks.size());
+        verify(repo).findAll(any(Specification.class), eq(pageable));
+        verify(userService, never()).getCurrentUser();
+    }
+
+    @Test
+    void getArchived_whenIsUserRole_returnsUserArchivedTasks() {
+        var pageable = PageRequest.of(0, 10);
+        var tasks = List.of(new ArchivedTask());
+        var pageExcepted = new PageImpl<>(tasks, pageable, tasks.size());
+        var user = User.builder().id(2).email("user@test.ru").role(Role.USER).build();
+
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(archivedRepo.findAll(any(Specification.class), eq(pageable))).thenReturn(pageExcepted);
+        when(mapper.archivedToDestination(any())).thenReturn(TaskGetDTO.builder().executorId(user.getId()).build());
+
+        var pageActual = service.getArchived(pageable, new TaskFilter(null, null));
+
+        Assertions.assertThat(pageActual.getResult()).extracting(TaskGetDTO::getExecutorId).containsExactly(user.getId());
+        verify(repo, never()).findAll(any(Specification.class), any(PageRequest.class));
+    }
+
     @Test
     void getAll_whenNotAccessiblePageableParams_returnsNone() {
         var pageable = PageRequest.of(1, 10);
@@ -263,7 +370,7 @@ class TaskServiceTest {
     void create_whenTaskValid_returnsTask() {
         var executorId = 1;
         var taskId = 1L;
-        var taskCreateDTO = TaskCreateDTO.builder().title("title").executorId(executorId).build();
+        var taskCreateDTO = TaskCreateDTO.builder().title("title").projectId(1L).executorId(executorId).build();
         var expected = TaskGetDTO.builder().id(taskId).title(taskCreateDTO.getTitle()).executorId(taskCreateDTO.getExecutorId()).build();
 
         when(mapper.sourceToDestination(any())).thenAnswer(invocation -> {
@@ -271,6 +378,8 @@ class TaskServiceTest {
 
             return TaskGetDTO.builder().id(task.getId()).title(task.getTitle()).executorId(task.getExecutor().getId()).build();
         });
+        when(projectRepo.existsById(1L)).thenReturn(true);
+        when(projectRepo.getReferenceById(1L)).thenReturn(Project.builder().id(1L).build());
         when(userRepo.findById(any())).thenAnswer(invocation -> Optional.of(User.builder().id(invocation.getArgument(0)).build()));
         when(repo.save(any())).thenAnswer(invocation -> {
             Task saved = invocation.getArgument(0);
@@ -285,13 +394,15 @@ class TaskServiceTest {
         verify(mapper).sourceToDestination(any());
         verify(userRepo).findById(executorId);
         verify(repo).save(any());
+        verify(eventPublisher).publishEvent(any(TaskChangedEvent.class));
     }
 
     @Test
     void create_whenTaskNotValid_throwsException() {
         var executorId = 1;
-        var taskCreateDTO = TaskCreateDTO.builder().title("title").executorId(executorId).build();
+        var taskCreateDTO = TaskCreateDTO.builder().title("title").projectId(1L).executorId(executorId).build();
 
+        when(projectRepo.existsById(1L)).thenReturn(true);
         when(userRepo.findById(executorId)).thenAnswer(invocation -> Optional.empty());
 
         Assertions.assertThatExceptionOfType(EntityNotFoundException.class).isThrownBy(() -> service.create(taskCreateDTO));
@@ -300,11 +411,23 @@ class TaskServiceTest {
         verify(repo, never()).save(any());
     }
 
+    @Test
+    void create_whenProjectNotExists_throwsException() {
+        var taskCreateDTO = TaskCreateDTO.builder().title("title").projectId(1L).executorId(1).build();
+
+        when(projectRepo.existsById(1L)).thenReturn(false);
+
+        Assertions.assertThatExceptionOfType(EntityNotFoundException.class).isThrownBy(() -> service.create(taskCreateDTO));
+        verify(userRepo, never()).findById(any());
+        verify(repo, never()).save(any());
+    }
+
     @Test
     void update_whenTaskExists_returnsTask() {
         var taskId = 1L;
         var executorId = 1;
-        var task = Task.builder().id(taskId).title("title1").executor(User.builder().id(executorId).build()).build();
+        var task = Task.builder().id(taskId).title("title1").author(User.builder().id(executorId).build())
+                .executor(User.builder().id(executorId).build()).build();
         var taskUpdateDTO = TaskUpdateDTO.builder().title("title2").executorId(executorId).build();
         var expected = TaskGetDTO.builder().id(taskId).title(taskUpdateDTO.getTitle()).executorId(taskUpdateDTO.getExecutorId()).build();
 
@@ -340,7 +463,7 @@ class TaskServiceTest {
         var executorId = 2;
         var user = User.builder().id(executorId).role(Role.USER).build();
         var task = Task.builder().id(taskId).title("title").status(Status.NEW).priority(Priority.MEDIUM)
-                .executor(User.builder().id(executorId).build()).build();
+                .author(User.builder().id(1).build()).executor(User.builder().id(executorId).build()).build();
         var taskUpdateDTO = TaskUpdateDTO.builder().status(Status.WAITING).priority(Priority.LOW).build();
         var expected = TaskGetDTO.builder().id(taskId).title(task.getTitle()).status(taskUpdateDTO.getStatus())
                 .priority(task.getPriority()).executorId(task.getExecutor().getId()).build();
@@ -358,13 +481,17 @@ class TaskServiceTest {
 
         Assertions.assertThat(actual).isEqualTo(expected);
         verify(mapper).sourceToDestination(any());
+        verify(eventPublisher).publishEvent(new TaskChangedEvent(taskId,
+                new TaskCounter.Key(1, executorId, Status.NEW, Priority.MEDIUM),
+                new TaskCounter.Key(1, executorId, Status.WAITING, Priority.MEDIUM)));
     }
 
     @Test
     void update_whenExecutorNotFound_throwsException() {
         var taskId = 1L;
         var executorId = 1;
-        var task = Task.builder().id(taskId).title("title1").executor(User.builder().id(executorId).build()).build();
+        var task = Task.builder().id(taskId).title("title1").author(User.builder().id(executorId).build())
+                .executor(User.builder().id(executorId).build()).build();
         var taskUpdateDTO = TaskUpdateDTO.builder().title("title2").executorId(executorId).build();
 
         when(repo.findById(taskId)).thenReturn(Optional.of(task));
@@ -373,16 +500,129 @@ class TaskServiceTest {
         Assertions.assertThatExceptionOfType(EntityNotFoundException.class).isThrownBy(() -> service.update(taskId, taskUpdateDTO));
 
         verify(mapper, never()).sourceToDestination(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void update_whenIfMatchStaleAndChangesDisjoint_mergesChanges() {
+        var taskId = 1L;
+        var executor = User.builder().id(1).build();
+        var task = Task.builder().id(taskId).version(3L).title("title").description("description2")
+                .status(Status.NEW).priority(Priority.MEDIUM).author(executor).executor(executor).build();
+        var ifMatch = VersionTag.parse(VersionTag.format(2L, "title", "description1", Status.NEW, Priority.MEDIUM, 1));
+        var taskUpdateDTO = TaskUpdateDTO.builder().title("title2").description("description1")
+                .status(Status.NEW).priority(Priority.MEDIUM).executorId(1).build();
+
+        when(repo.findById(taskId)).thenReturn(Optional.of(task));
+        when(userRepo.findById(1)).thenReturn(Optional.of(executor));
+        when(mapper.sourceToDestination(any())).thenAnswer(invocation -> {
+            Task saved = invocation.getArgument(0);
+            return TaskGetDTO.builder().id(saved.getId()).title(saved.getTitle()).description(saved.getDescription()).build();
+        });
+
+        var actual = service.update(taskId, taskUpdateDTO, ifMatch);
+
+        assertAll(
+                () -> Assertions.assertThat(actual.getTitle()).isEqualTo("title2"),
+                () -> Assertions.assertThat(actual.getDescription()).isEqualTo("description2")
+        );
+        verify(repo).flush();
+    }
+
+    @Test
+    void update_whenIfMatchStaleAndSameFieldChanged_throwsException() {
+        var taskId = 1L;
+        var executor = User.builder().id(1).build();
+        var task = Task.builder().id(taskId).version(3L).title("title3").status(Status.NEW).priority(Priority.MEDIUM)
+                .author(executor).executor(executor).build();
+        var ifMatch = VersionTag.parse(VersionTag.format(2L, "title", null, Status.NEW, Priority.MEDIUM, 1));
+        var taskUpdateDTO = TaskUpdateDTO.builder().title("title2").status(Status.NEW).priority(Priority.MEDIUM)
+                .executorId(1).build();
+
+        when(repo.findById(taskId)).thenReturn(Optional.of(task));
+
+        Assertions.assertThatExceptionOfType(OptimisticLockingFailureException.class)
+                .isThrownBy(() -> service.update(taskId, taskUpdateDTO, ifMatch));
+        Assertions.assertThat(task.getTitle()).isEqualTo("title3");
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void patch_whenUserChangesStatus_locksGroupWithoutLoadingTask() {
+        var taskId = 1L;
+        var user = User.builder().id(2).role(Role.USER).build();
+        var patch = new MergePatch<>(TaskUpdateDTO.builder().status(Status.DONE).build(), Set.of("status"));
+
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(repo.lockCounter(taskId)).thenReturn(Optional.of(new TaskCounter(1, 2, Status.NEW, Priority.LOW, 1L)));
+        when(patchRepo.update(eq(Task.class), any(), eq(3L), eq(Map.of("status", Status.DONE)))).thenReturn(1);
+
+        service.patch(taskId, patch, 3L);
+
+        verify(repo, never()).findById(any());
+        verify(repo, never()).findCounter(any());
+        verify(eventPublisher).publishEvent(new TaskChangedEvent(taskId,
+                new TaskCounter.Key(1, 2, Status.NEW, Priority.LOW),
+                new TaskCounter.Key(1, 2, Status.DONE, Priority.LOW)));
+    }
+
+    @Test
+    void patch_whenUserChangesTitle_throwsException() {
+        var user = User.builder().id(2).role(Role.USER).build();
+        var patch = new MergePatch<>(TaskUpdateDTO.builder().title("title").build(), Set.of("title"));
+
+        when(userService.getCurrentUser()).thenReturn(user);
+
+        Assertions.assertThatExceptionOfType(AccessDeniedException.class).isThrownBy(() -> service.patch(1L, patch, null));
+        verifyNoInteractions(patchRepo);
+    }
+
+    @Test
+    void patch_whenVersionStale_throwsException() {
+        var taskId = 1L;
+        var patch = new MergePatch<>(TaskUpdateDTO.builder().title("title").build(), Set.of("title"));
+
+        when(patchRepo.update(eq(Task.class), any(), eq(1L), any())).thenReturn(0);
+        when(repo.existsById(taskId)).thenReturn(true);
+
+        Assertions.assertThatExceptionOfType(OptimisticLockingFailureException.class)
+                .isThrownBy(() -> service.patch(taskId, patch, 1L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void patch_whenTaskNotExists_throwsException() {
+        var taskId = 1L;
+        var patch = new MergePatch<>(TaskUpdateDTO.builder().priority(Priority.HIGH).build(), Set.of("priority"));
+
+        when(repo.lockCounter(taskId)).thenReturn(Optional.empty());
+
+        Assertions.assertThatExceptionOfType(EntityNotFoundException.class).isThrownBy(() -> service.patch(taskId, patch, null));
+        verifyNoInteractions(patchRepo);
+    }
+
+    @Test
+    void delete_whenTaskExists_marksDeletedAndPublishesEvent() {
+        var taskId = 1L;
+
+        when(repo.findCounter(taskId)).thenReturn(Optional.of(new TaskCounter(1, 1, Status.NEW, Priority.LOW, 1L)));
+        when(repo.markDeleted(eq(taskId), any(LocalDateTime.class))).thenReturn(1);
+
+        service.delete(taskId);
+
+        verify(repo, never()).delete(any(Task.class));
+        verify(eventPublisher).publishEvent(TaskChangedEvent.deleted(taskId, new TaskCounter.Key(1, 1, Status.NEW, Priority.LOW)));
     }
 
     @Test
-    void delete() {
+    void delete_whenTaskNotExists_doesNothing() {
         var taskId = 1L;
 
-        doNothing().when(repo).deleteById(taskId);
+        when(repo.findCounter(taskId)).thenReturn(Optional.empty());
 
         service.delete(taskId);
 
-        verify(repo).deleteById(taskId);
+        verify(repo, never()).markDeleted(anyLong(), any());
+        verifyNoInteractions(eventPublisher);
     }
-}
\ No newline at end of file
+}
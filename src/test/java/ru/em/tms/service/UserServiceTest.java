@@ -15,15 +15,20 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import ru.em.tms.lib.json.MergePatch;
 import ru.em.tms.lib.mapper.UserMapper;
 import ru.em.tms.model.db.User;
 import ru.em.tms.model.dto.user.UserEditDTO;
 import ru.em.tms.model.dto.user.UserGetDTO;
 import ru.em.tms.model.enums.Role;
+import ru.em.tms.repo.PatchRepo;
 import ru.em.tms.repo.UserRepo;
+import ru.em.tms.service.util.RefreshTokenService;
 
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.mockito.Mockito.*;
@@ -34,6 +39,10 @@ class UserServiceTest {
     private UserRepo repo;
     @Mock
     private UserMapper mapper;
+    @Mock
+    private RefreshTokenService refreshTokenService;
+    @Mock
+    private PatchRepo patchRepo;
     @InjectMocks
     private UserService service;
 
@@ -169,6 +178,28 @@ class UserServiceTest {
         verify(repo).findById(1);
     }
 
+    @Test
+    void patch_whenUserExists_updatesOnlyGivenFields() {
+        var patch = new MergePatch<>(UserEditDTO.builder().role(Role.ADMIN).build(), Set.of("role"));
+
+        when(patchRepo.update(eq(User.class), any(), isNull(), eq(Map.of("role", Role.ADMIN)))).thenReturn(1);
+
+        service.patch(1, patch);
+
+        verify(refreshTokenService).revokeAll(1);
+        verify(repo, never()).findById(any());
+    }
+
+    @Test
+    void patch_whenUserNotExists_throwsException() {
+        var patch = new MergePatch<>(UserEditDTO.builder().role(Role.ADMIN).build(), Set.of("role"));
+
+        when(patchRepo.update(eq(User.class), any(), isNull(), any())).thenReturn(0);
+
+        Assertions.assertThatThrownBy(() -> service.patch(1, patch)).isInstanceOf(EntityNotFoundException.class);
+        verifyNoInteractions(refreshTokenService);
+    }
+
     @Test
     void delete_whenNotCurrentUser() {
         var userId = 1;
@@ -184,6 +215,7 @@ class UserServiceTest {
 
         service.delete(userId);
 
+        verify(refreshTokenService).revokeAll(userId);
         verify(repo).deleteById(userId);
     }
 
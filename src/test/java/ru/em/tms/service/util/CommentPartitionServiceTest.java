@@ -0,0 +1,89 @@
+package ru.em.tms.service.util;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.em.tms.lib.datasource.ShardRouter;
+import ru.em.tms.lib.datasource.ShardTemplate;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommentPartitionServiceTest {
+    private static final YearMonth NOW = YearMonth.of(2026, 10);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Spy
+    private ShardTemplate shards = new ShardTemplate(new ShardRouter(List.of()), null);
+    @InjectMocks
+    private CommentPartitionService service;
+
+    @Test
+    void plan_whenPartitionsExist_addsMissingMonthsInOneStatement() {
+        var statement = CommentPartitionService.plan(List.of("p202609", "p202610", "p202611", "pmax"), NOW, 3);
+
+        Assertions.assertThat(statement).contains("ALTER TABLE comments REORGANIZE PARTITION pmax INTO (" +
+                "PARTITION p202612 VALUES LESS THAN ('2027-01-01'), PARTITION p202701 VALUES LESS THAN ('2027-02-01'), " +
+                "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    void plan_whenMonthsAheadExist_returnsEmpty() {
+        var statement = CommentPartitionService.plan(List.of("p202610", "p202611", "pmax"), NOW, 1);
+
+        Assertions.assertThat(statement).isEmpty();
+    }
+
+    @Test
+    void plan_whenOnlyMaxPartition_startsFromCurrentMonth() {
+        var statement = CommentPartitionService.plan(List.of("pmax"), NOW, 1);
+
+        Assertions.assertThat(statement).get().asString()
+                .contains("PARTITION p202610 VALUES LESS THAN ('2026-11-01'), PARTITION p202611")
+                .doesNotContain("p202609");
+    }
+
+    @Test
+    void expired_whenRetentionSet_returnsOlderMonths() {
+        var expired = CommentPartitionService.expired(List.of("p202607", "p202608", "p202609", "p202610", "pmax"),
+                NOW, Period.ofMonths(2));
+
+        Assertions.assertThat(expired).containsExactly(YearMonth.of(2026, 7));
+    }
+
+    @Test
+    void drop_whenPartitionHasComments_recountsTasksBeforeDrop() {
+        when(jdbcTemplate.queryForList("select distinct task_id from comments partition (p202607)", Long.class))
+                .thenReturn(List.of(1L, 2L));
+
+        service.drop(YearMonth.of(2026, 7));
+
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update(contains("where t.id in (?, ?)"),
+                eq(LocalDate.of(2026, 8, 1)), eq(LocalDate.of(2026, 8, 1)), eq(1L), eq(2L));
+        order.verify(jdbcTemplate).execute("ALTER TABLE comments DROP PARTITION p202607");
+    }
+
+    @Test
+    void maintain_whenTableNotPartitioned_doesNothing() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+
+        service.maintain();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
@@ -0,0 +1,129 @@
+package ru.em.tms.service.util;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.em.tms.model.db.SigningKey;
+import ru.em.tms.repo.SigningKeyRepo;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtKeyStoreTest {
+    @Mock
+    private SigningKeyRepo repo;
+    private JwtKeyStore keyStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyStore = new JwtKeyStore(repo, TransactionOperations.withoutTransaction());
+        Field field = JwtKeyStore.class.getDeclaredField("masterKey");
+        field.setAccessible(true);
+        field.set(keyStore, "A5C26D3F7B2A48E6F1D4E0A753965F423D6F237E5C1B784E6A3A5F278D635B56");
+    }
+
+    @Test
+    void reload_whenNoKeys_generatesSigningKey() {
+        when(repo.findAllByCreatedAtAfterOrderByCreatedAtDesc(any())).thenReturn(List.of());
+
+        keyStore.reload();
+
+        var active = keyStore.signingKey();
+        assertAll(
+                () -> Assertions.assertThat(active).isNotNull(),
+                () -> Assertions.assertThat(keyStore.verificationKey(active.id())).isNotNull(),
+                () -> Assertions.assertThat(keyStore.jwks().getKeys()).hasSize(1)
+        );
+        verify(repo).save(any(SigningKey.class));
+    }
+
+    @Test
+    void reload_restoresPersistedKeyAndKeepsPreviousForVerification() {
+        var captor = ArgumentCaptor.forClass(SigningKey.class);
+        when(repo.findAllByCreatedAtAfterOrderByCreatedAtDesc(any())).thenReturn(List.of());
+        keyStore.reload();
+        var first = keyStore.signingKey();
+        keyStore.rotate();
+        var second = keyStore.signingKey();
+        verify(repo, times(2)).save(captor.capture());
+
+        var restored = new JwtKeyStore(repo, TransactionOperations.withoutTransaction());
+        copyMasterKey(restored);
+        when(repo.findAllByCreatedAtAfterOrderByCreatedAtDesc(any())).thenReturn(List.of(
+                captor.getAllValues().get(1), captor.getAllValues().get(0)));
+
+        restored.reload();
+
+        assertAll(
+                () -> Assertions.assertThat(restored.signingKey().id()).isEqualTo(second.id()),
+                () -> Assertions.assertThat(restored.signingKey().privateKey()).isEqualTo(second.privateKey()),
+                () -> Assertions.assertThat(restored.verificationKey(first.id())).isNotNull(),
+                () -> Assertions.assertThat(restored.jwks().getKeys()).hasSize(2)
+        );
+    }
+
+    @Test
+    void reload_whenNewestKeyOutdated_rotates() {
+        when(repo.findAllByCreatedAtAfterOrderByCreatedAtDesc(any())).thenReturn(List.of());
+        keyStore.reload();
+        var captor = ArgumentCaptor.forClass(SigningKey.class);
+        verify(repo).save(captor.capture());
+        var outdated = captor.getValue();
+        outdated.setCreatedAt(LocalDateTime.now().minusDays(8));
+
+        when(repo.findAllByCreatedAtAfterOrderByCreatedAtDesc(any())).thenReturn(List.of(outdated));
+        keyStore.reload();
+
+        Assertions.assertThat(keyStore.signingKey().id()).isNotEqualTo(outdated.getId());
+        verify(repo, times(2)).save(any(SigningKey.class));
+    }
+
+    @Test
+    void verificationKey_whenUnknownOrNull_returnsNull() {
+        when(repo.findAllByCreatedAtAfterOrderByCreatedAtDesc(any())).thenReturn(List.of());
+        keyStore.reload();
+
+        assertAll(
+                () -> Assertions.assertThat(keyStore.verificationKey(null)).isNull(),
+                () -> Assertions.assertThat(keyStore.verificationKey("unknown")).isNull()
+        );
+    }
+
+    @Test
+    void verificationKey_whenUnknownAfterCooldown_onlyRereadsKeys() throws Exception {
+        when(repo.findAllByCreatedAtAfterOrderByCreatedAtDesc(any())).thenReturn(List.of());
+        keyStore.reload();
+        Field field = JwtKeyStore.class.getDeclaredField("lastReload");
+        field.setAccessible(true);
+        ((AtomicLong) field.get(keyStore)).set(0);
+
+        Assertions.assertThat(keyStore.verificationKey("unknown")).isNull();
+
+        verify(repo, times(2)).findAllByCreatedAtAfterOrderByCreatedAtDesc(any());
+        verify(repo, times(1)).lockAll();
+        verify(repo, times(1)).deleteRetired(any());
+        verify(repo, times(1)).save(any(SigningKey.class));
+    }
+
+    private void copyMasterKey(JwtKeyStore target) {
+        try {
+            Field field = JwtKeyStore.class.getDeclaredField("masterKey");
+            field.setAccessible(true);
+            field.set(target, field.get(keyStore));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
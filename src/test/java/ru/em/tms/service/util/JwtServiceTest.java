@@ -1,14 +1,14 @@
 package ru.em.tms.service.util;
 
-import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -16,24 +16,33 @@ import org.springframework.security.core.userdetails.UserDetails;
 import ru.em.tms.model.db.User;
 import ru.em.tms.model.enums.Role;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
 
 @ExtendWith(MockitoExtension.class)
 class JwtServiceTest {
+    private static final String KEY_ID = "key-1";
+    private static KeyPair keyPair;
+    @Mock
+    private JwtKeyStore keyStore;
     @InjectMocks
     private JwtService jwtService;
-    private static final String jwtSigningKey = "A5C26D3F7B2A48E6F1D4E0A753965F423D6F237E5C1B784E6A3A5F278D635B56";
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+    }
 
     @BeforeEach
-    void setUp() throws Exception {
-        Field field = JwtService.class.getDeclaredField("jwtSigningKey");
-        field.setAccessible(true);
-        field.set(jwtService, jwtSigningKey);
+    void setUp() {
+        lenient().when(keyStore.signingKey()).thenReturn(new JwtKeyStore.ActiveKey(KEY_ID, keyPair.getPrivate()));
+        lenient().when(keyStore.verificationKey(KEY_ID)).thenReturn(keyPair.getPublic());
     }
 
     @Test
@@ -43,7 +52,7 @@ class JwtServiceTest {
     }
 
     @Test
-    void generateToken_whenNotUserInstance_returnsTokenWithoutExtraClaims() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+    void generateToken_whenNotUserInstance_returnsTokenWithoutExtraClaims() {
         var user = new UserDetails() {
             @Override
             public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -62,10 +71,7 @@ class JwtServiceTest {
         };
         String token = jwtService.generateToken(user);
 
-        Class<JwtService> clazz = JwtService.class;
-        Method method = clazz.getDeclaredMethod("extractAllClaims", String.class);
-        method.setAccessible(true);
-        Claims claims = (Claims) method.invoke(jwtService, token);
+        var claims = jwtService.parse(token);
 
         Assertions.assertAll(
                 () -> Assertions.assertFalse(claims.containsKey("id")),
@@ -74,6 +80,15 @@ class JwtServiceTest {
         );
     }
 
+    @Test
+    void generateToken_setsKeyIdHeader() {
+        String token = jwtService.generateToken(User.builder().id(1).email("test@test.ru").role(Role.ADMIN).build());
+
+        var header = Jwts.parser().verifyWith(keyPair.getPublic()).build().parseSignedClaims(token).getHeader();
+
+        assertEquals(KEY_ID, header.getKeyId());
+    }
+
     @Test
     void isTokenValid_whenUserSame_returnsTrue() {
         var user = User.builder().id(1).email("test@test.ru").role(Role.ADMIN).build();
@@ -102,16 +117,30 @@ class JwtServiceTest {
         claims.put("role", user.getRole().name());
 
         var delta = 1000L * 60 * 60 * 24;
-        String token = Jwts.builder().claims(claims).subject(user.getEmail())
+        String token = Jwts.builder().header().keyId(KEY_ID).and()
+                .claims(claims).subject(user.getEmail())
                 .issuedAt(new Date(System.currentTimeMillis() - delta * 2))
                 .expiration(new Date(System.currentTimeMillis() - delta))
-                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSigningKey)), Jwts.SIG.HS256).compact();
+                .signWith(keyPair.getPrivate(), Jwts.SIG.RS256).compact();
 
         boolean result = jwtService.isTokenValid(token, user);
 
         assertFalse(result);
     }
 
+    @Test
+    void parse_whenKeyUnknown_throwsException() throws Exception {
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        var foreignKey = generator.generateKeyPair().getPrivate();
+
+        String token = Jwts.builder().header().keyId("unknown").and()
+                .subject("test@test.ru")
+                .signWith(foreignKey, Jwts.SIG.RS256).compact();
+
+        assertThrows(JwtException.class, () -> jwtService.parse(token));
+    }
+
     @Test
     void extractUserName_returnsEmail() {
         var user = User.builder().id(1).email("test@test.ru").role(Role.ADMIN).build();
@@ -119,4 +148,14 @@ class JwtServiceTest {
         String result = jwtService.extractUserName(token);
         assertEquals("test@test.ru", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateToken_setsUniqueId() {
+        var user = User.builder().id(1).email("test@test.ru").role(Role.ADMIN).build();
+        String first = jwtService.extractId(jwtService.generateToken(user));
+        String second = jwtService.extractId(jwtService.generateToken(user));
+
+        assertNotNull(first);
+        assertNotEquals(first, second);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.em.tms.service.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.em.tms.model.event.ProjectMembersChangedEvent;
+import ru.em.tms.repo.ProjectRepo;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectMembershipServiceTest {
+    @Mock
+    private ProjectRepo repo;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @InjectMocks
+    private ProjectMembershipService service;
+
+    @Test
+    void isMember_whenCalledTwice_readsProjectsOnce() {
+        when(repo.findIdsByMemberEmail("test@test.ru")).thenReturn(List.of(1L, 2L));
+
+        assertTrue(service.isMember(1L, "test@test.ru"));
+        assertFalse(service.isMember(3L, "test@test.ru"));
+
+        verify(repo, times(1)).findIdsByMemberEmail("test@test.ru");
+        assertEquals(1, meterRegistry.counter("tms.cache", "cache", "project_members", "result", "hit").count());
+    }
+
+    @Test
+    void evict_whenMembersChanged_readsProjectsAgain() {
+        when(repo.findIdsByMemberEmail("test@test.ru")).thenReturn(List.of(), List.of(1L));
+
+        assertFalse(service.isMember(1L, "test@test.ru"));
+        service.onMembersChanged(new ProjectMembersChangedEvent(Set.of("test@test.ru")));
+
+        assertTrue(service.isMember(1L, "test@test.ru"));
+        verify(repo, times(2)).findIdsByMemberEmail("test@test.ru");
+    }
+}
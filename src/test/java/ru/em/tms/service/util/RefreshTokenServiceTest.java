@@ -0,0 +1,120 @@
+package ru.em.tms.service.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import ru.em.tms.model.db.RefreshToken;
+import ru.em.tms.model.db.User;
+import ru.em.tms.model.enums.Role;
+import ru.em.tms.repo.RefreshTokenRepo;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+    @Mock
+    private RefreshTokenRepo repo;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @InjectMocks
+    private RefreshTokenService service;
+
+    @Test
+    void issue_storesHashOnly() {
+        var user = User.builder().id(1).email("test@test.ru").role(Role.USER).build();
+        var captor = ArgumentCaptor.forClass(RefreshToken.class);
+
+        var token = service.issue(user);
+
+        verify(repo).save(captor.capture());
+        assertAll(
+                () -> Assertions.assertThat(token).isNotBlank(),
+                () -> Assertions.assertThat(captor.getValue().getTokenHash()).hasSize(64).isNotEqualTo(token),
+                () -> Assertions.assertThat(captor.getValue().getUser()).isEqualTo(user),
+                () -> Assertions.assertThat(captor.getValue().getExpiresAt()).isAfter(LocalDateTime.now())
+        );
+    }
+
+    @Test
+    void refresh_whenIssued_returnsUserWithoutDbLookup() {
+        var user = User.builder().id(1).email("test@test.ru").role(Role.ADMIN).build();
+        var token = service.issue(user);
+
+        var actual = service.refresh(token);
+
+        assertAll(
+                () -> Assertions.assertThat(actual.getId()).isEqualTo(user.getId()),
+                () -> Assertions.assertThat(actual.getEmail()).isEqualTo(user.getEmail()),
+                () -> Assertions.assertThat(actual.getRole()).isEqualTo(user.getRole())
+        );
+        verify(repo, never()).findByTokenHash(anyString());
+    }
+
+    @Test
+    void refresh_whenNotCached_loadsFromDbOnce() {
+        var user = User.builder().id(1).email("test@test.ru").role(Role.USER).build();
+        var stored = RefreshToken.builder().user(user).expiresAt(LocalDateTime.now().plusDays(1)).build();
+
+        when(repo.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+
+        service.refresh("token");
+        var actual = service.refresh("token");
+
+        Assertions.assertThat(actual.getEmail()).isEqualTo(user.getEmail());
+        verify(repo, times(1)).findByTokenHash(anyString());
+        assertAll(
+                () -> Assertions.assertThat(meterRegistry.get("tms.cache").tag("result", "miss").counter().count()).isEqualTo(1),
+                () -> Assertions.assertThat(meterRegistry.get("tms.cache").tag("result", "hit").counter().count()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void refresh_whenExpired_throwsException() {
+        var user = User.builder().id(1).email("test@test.ru").role(Role.USER).build();
+        var stored = RefreshToken.builder().user(user).expiresAt(LocalDateTime.now().minusMinutes(1)).build();
+
+        when(repo.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+
+        Assertions.assertThatThrownBy(() -> service.refresh("token")).isInstanceOf(CredentialsExpiredException.class);
+    }
+
+    @Test
+    void refresh_whenUnknown_throwsException() {
+        when(repo.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        Assertions.assertThatThrownBy(() -> service.refresh("token")).isInstanceOf(CredentialsExpiredException.class);
+    }
+
+    @Test
+    void revokeAll_invalidatesCachedTokens() {
+        var user = User.builder().id(1).email("test@test.ru").role(Role.USER).build();
+        var token = service.issue(user);
+
+        service.revokeAll(user.getId());
+
+        when(repo.findByTokenHash(anyString())).thenReturn(Optional.empty());
+        Assertions.assertThatThrownBy(() -> service.refresh(token)).isInstanceOf(CredentialsExpiredException.class);
+        verify(repo).deleteByUserId(user.getId());
+    }
+
+    @Test
+    void purgeExpired_deletesExpiredRows() {
+        service.purgeExpired();
+
+        verify(repo).deleteExpired(any(LocalDateTime.class));
+    }
+}
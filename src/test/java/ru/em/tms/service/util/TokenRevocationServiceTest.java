@@ -0,0 +1,60 @@
+package ru.em.tms.service.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.em.tms.model.db.RevokedToken;
+import ru.em.tms.repo.RevokedTokenRepo;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+    @Mock
+    private RevokedTokenRepo repo;
+    @InjectMocks
+    private TokenRevocationService service;
+
+    @Test
+    void isRevoked_whenRevoked_returnsTrue() {
+        service.revoke("jti", new Date(System.currentTimeMillis() + 60_000));
+
+        assertTrue(service.isRevoked("jti"));
+        verify(repo).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void isRevoked_whenUnknownOrNull_returnsFalse() {
+        assertFalse(service.isRevoked("jti"));
+        assertFalse(service.isRevoked(null));
+    }
+
+    @Test
+    void load_restoresPersistedTokens() {
+        when(repo.findAllByExpiresAtAfter(any(LocalDateTime.class))).thenReturn(List.of(
+                RevokedToken.builder().id("jti").expiresAt(LocalDateTime.now().plusMinutes(1)).build()));
+
+        service.load();
+
+        assertTrue(service.isRevoked("jti"));
+    }
+
+    @Test
+    void sync_dropsExpiredTokens() {
+        service.revoke("jti", new Date(System.currentTimeMillis() - 60_000));
+
+        service.sync();
+
+        assertFalse(service.isRevoked("jti"));
+        verify(repo).deleteExpired(any(LocalDateTime.class));
+    }
+}
@@ -9,18 +9,54 @@ create table if not exists users
         unique (email)
 );
 
+create table if not exists projects
+(
+    id         bigint auto_increment
+        primary key,
+    name       varchar(255) not null,
+    author_id  int          not null,
+    created_at datetime     not null,
+    updated_at datetime     not null,
+    constraint projects_users_id_fk
+        foreign key (author_id) references users (id)
+            on update cascade on delete cascade
+);
+
+create table if not exists project_members
+(
+    project_id bigint not null,
+    user_id    int    not null,
+    primary key (project_id, user_id),
+    constraint project_members_projects_id_fk
+        foreign key (project_id) references projects (id)
+            on update cascade on delete cascade,
+    constraint project_members_users_id_fk
+        foreign key (user_id) references users (id)
+            on update cascade on delete cascade
+);
+
+create index if not exists project_members_user_id_index on project_members (user_id);
+
 create table if not exists tasks
 (
-    id          bigint auto_increment
+    id               bigint auto_increment
         primary key,
-    title       varchar(500)                                                             not null,
-    description text                                                                     null,
-    status      enum ('NEW', 'WAITING', 'IN_PROGRESS', 'DONE', 'CANCELED') default 'NEW' not null,
-    priority    enum ('LOW', 'MEDIUM', 'HIGH', 'CRITICAL')                 default 'LOW' not null,
-    executor_id int                                                                      null,
-    author_id   int                                                                      not null,
-    created_at  datetime                                                                 not null,
-    updated_at  datetime                                                                 not null,
+    project_id       bigint                                                                   not null,
+    title            varchar(500)                                                             not null,
+    description      text                                                                     null,
+    status           enum ('NEW', 'WAITING', 'IN_PROGRESS', 'DONE', 'CANCELED') default 'NEW' not null,
+    priority         enum ('LOW', 'MEDIUM', 'HIGH', 'CRITICAL')                 default 'LOW' not null,
+    executor_id      int                                                                      null,
+    author_id        int                                                                      not null,
+    created_at       datetime                                                                 not null,
+    updated_at       datetime                                                                 not null,
+    comment_count    int      default 0                                                       not null,
+    last_activity_at datetime                                                                 null,
+    version          bigint   default 0                                                       not null,
+    deleted_at       datetime                                                                 null,
+    constraint tasks_projects_id_fk
+        foreign key (project_id) references projects (id)
+            on update cascade on delete cascade,
     constraint tasks_ibfk_2
         foreign key (author_id) references users (id)
             on update cascade on delete cascade,
@@ -29,19 +65,121 @@ create table if not exists tasks
             on update cascade on delete set null
 );
 
+create index if not exists tasks_project_id_status_index on tasks (project_id, status);
+
+create index if not exists tasks_project_id_executor_id_index on tasks (project_id, executor_id);
+
+create index if not exists tasks_project_id_last_activity_at_index on tasks (project_id, last_activity_at);
+
+create index if not exists tasks_project_id_comment_count_index on tasks (project_id, comment_count);
+
+create index if not exists tasks_status_updated_at_index on tasks (status, updated_at);
+
+create index if not exists tasks_deleted_at_index on tasks (deleted_at);
+
+create index if not exists tasks_last_activity_at_index on tasks (last_activity_at);
+
+create index if not exists tasks_comment_count_index on tasks (comment_count);
+
 create table if not exists comments
 (
     id         bigint auto_increment
         primary key,
-    task_id    bigint       not null,
-    content    varchar(500) not null,
-    author_id  int          not null,
-    created_at datetime     not null,
-    updated_at datetime     not null,
+    task_id    bigint           not null,
+    content    varchar(500)     not null,
+    author_id  int              not null,
+    created_at datetime         not null,
+    updated_at datetime         not null,
+    version    bigint default 0 not null,
     constraint comments_ibfk_1
         foreign key (task_id) references tasks (id)
             on update cascade on delete cascade,
     constraint comments_ibfk_2
         foreign key (author_id) references users (id)
             on update cascade on delete cascade
+);
+
+create index if not exists comments_task_id_created_at_index on comments (task_id, created_at);
+
+create table if not exists tasks_archive
+(
+    id               bigint                                                     not null
+        primary key,
+    project_id       bigint                                                     not null,
+    title            varchar(500)                                               not null,
+    description      text                                                       null,
+    status           enum ('NEW', 'WAITING', 'IN_PROGRESS', 'DONE', 'CANCELED') not null,
+    priority         enum ('LOW', 'MEDIUM', 'HIGH', 'CRITICAL')                 not null,
+    executor_id      int                                                        null,
+    author_id        int                                                        not null,
+    created_at       datetime                                                   not null,
+    updated_at       datetime                                                   not null,
+    comment_count    int                                                        not null,
+    last_activity_at datetime                                                   null,
+    version          bigint                                                     not null,
+    archived_at      datetime                                                   not null
+);
+
+create index if not exists tasks_archive_project_id_index on tasks_archive (project_id);
+
+create index if not exists tasks_archive_executor_id_index on tasks_archive (executor_id);
+
+create index if not exists tasks_archive_author_id_index on tasks_archive (author_id);
+
+create table if not exists comments_archive
+(
+    id          bigint       not null
+        primary key,
+    task_id     bigint       not null,
+    content     varchar(500) not null,
+    author_id   int          not null,
+    created_at  datetime     not null,
+    updated_at  datetime     not null,
+    version     bigint       not null,
+    archived_at datetime     not null
+);
+
+create index if not exists comments_archive_task_id_index on comments_archive (task_id);
+
+create table if not exists refresh_tokens
+(
+    id         bigint auto_increment
+        primary key,
+    token_hash char(64) not null,
+    user_id    int      not null,
+    expires_at datetime not null,
+    constraint refresh_tokens_token_hash_uindex
+        unique (token_hash),
+    constraint refresh_tokens_users_id_fk
+        foreign key (user_id) references users (id)
+            on update cascade on delete cascade
+);
+
+create table if not exists revoked_tokens
+(
+    id         char(36) not null
+        primary key,
+    expires_at datetime not null
+);
+
+create table if not exists signing_keys
+(
+    id          char(36) not null
+        primary key,
+    private_key text     not null,
+    public_key  text     not null,
+    created_at  datetime not null
+);
+
+create table if not exists task_counters
+(
+    id          bigint auto_increment
+        primary key,
+    author_id   int                                                        not null,
+    executor_id int                                                        not null,
+    status      enum ('NEW', 'WAITING', 'IN_PROGRESS', 'DONE', 'CANCELED') not null,
+    priority    enum ('LOW', 'MEDIUM', 'HIGH', 'CRITICAL')                 not null,
+    task_count  bigint                                                     not null,
+    constraint task_counters_group_uindex
+        unique (author_id, executor_id, status, priority)
 );
\ No newline at end of file